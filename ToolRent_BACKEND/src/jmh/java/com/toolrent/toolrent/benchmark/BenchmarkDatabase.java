@@ -0,0 +1,162 @@
+package com.toolrent.toolrent.benchmark;
+
+import com.toolrent.toolrent.ToolRentApplication;
+import com.toolrent.toolrent.service.LoanReportService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Levanta la aplicación sobre H2 en modo MySQL (con las migraciones de Flyway) y siembra un volumen
+ * de préstamos con inserciones por lotes. Los datos son deterministas (semilla fija) para que los
+ * resultados sean comparables entre commits.
+ */
+final class BenchmarkDatabase {
+
+  static final int TOOL_NAMES = 200;
+
+  static final int UNITS_PER_NAME = 10;
+
+  static final String BENCH_TOOL = "Herramienta benchmark";
+
+  static final String BENCH_RUT = "99.999.999-9";
+
+  private static final int BATCH = 5_000;
+
+  private BenchmarkDatabase() {}
+
+  static ConfigurableApplicationContext start(String... extraProperties) {
+    List<String> properties =
+        new ArrayList<>(
+            List.of(
+                "spring.datasource.url=jdbc:h2:mem:bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "spring.datasource.driverClassName=org.h2.Driver",
+                "spring.datasource.username=sa",
+                "spring.datasource.password=",
+                "spring.jpa.hibernate.ddl-auto=validate",
+                "server.port=0",
+                "toolrent.schema.index-check.enabled=false",
+                "logging.level.root=WARN"));
+    properties.addAll(List.of(extraProperties));
+    // Como argumentos de línea de comandos, para que prevalezcan sobre application.properties
+    return new SpringApplicationBuilder(ToolRentApplication.class)
+        .logStartupInfo(false)
+        .run(properties.stream().map(p -> "--" + p).toArray(String[]::new));
+  }
+
+  // Herramientas, clientes y préstamos históricos; deja un cliente y una unidad libres
+  static void seed(ConfigurableApplicationContext context, int loans) {
+    JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+    Random random = new Random(42);
+    LocalDate today = LocalDate.now();
+
+    List<Object[]> types = new ArrayList<>();
+    for (int n = 0; n < TOOL_NAMES; n++) {
+      types.add(new Object[] {"Herramienta " + n, "Categoria " + (n % 10), 50000, 10000, 2000, 1000});
+    }
+    types.add(new Object[] {BENCH_TOOL, "Benchmark", 50000, 10000, 2000, 1000});
+    batch(
+        jdbc,
+        "INSERT INTO tool_types (name, category, replacement_value, repair_value, daily_rate, "
+            + "daily_late_rate) VALUES (?, ?, ?, ?, ?, ?)",
+        types);
+
+    List<Object[]> tools = new ArrayList<>();
+    for (Long typeId : jdbc.queryForList("SELECT id FROM tool_types ORDER BY id", Long.class)) {
+      for (int u = 0; u < UNITS_PER_NAME; u++) {
+        tools.add(new Object[] {typeId, "DISPONIBLE"});
+      }
+    }
+    batch(jdbc, "INSERT INTO tools (tool_type_id, status) VALUES (?, ?)", tools);
+
+    int clients = Math.max(100, loans / 20);
+    List<Object[]> users = new ArrayList<>();
+    for (int c = 0; c < clients; c++) {
+      users.add(userRow("rut-" + c, c));
+    }
+    users.add(userRow(BENCH_RUT, clients));
+    batch(
+        jdbc,
+        "INSERT INTO users (rut, name, last_name, email, phone_number, status, username, role) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+        users);
+
+    List<Long> toolIds =
+        jdbc.queryForList(
+            "SELECT t.id FROM tools t JOIN tool_types tt ON tt.id = t.tool_type_id "
+                + "WHERE tt.name <> ? ORDER BY t.id",
+            Long.class,
+            BENCH_TOOL);
+    List<Long> userIds =
+        jdbc.queryForList("SELECT id FROM users WHERE rut <> ? ORDER BY id", Long.class, BENCH_RUT);
+
+    String insertLoan =
+        "INSERT INTO loans (tool_id, client_id, start_date, scheduled_return_date, return_date, "
+            + "delivered, loan_status, fine, loan_price, damage_price, fine_total, total, "
+            + "is_fine_paid, created_loan) VALUES (?, ?, ?, ?, ?, ?, ?, 0, ?, 0, 0, ?, true, ?)";
+    List<Object[]> rows = new ArrayList<>(BATCH);
+    for (int i = 0; i < loans; i++) {
+      LocalDate start = today.minusDays(random.nextInt(730));
+      int days = 1 + random.nextInt(10);
+      LocalDate scheduled = start.plusDays(days);
+      // Préstamos recientes: la mitad sigue activa (y parte de ellos vencida)
+      boolean active = start.isAfter(today.minusDays(20)) && random.nextBoolean();
+      double price = days * 2000.0;
+      rows.add(
+          new Object[] {
+            toolIds.get(random.nextInt(toolIds.size())),
+            userIds.get(random.nextInt(userIds.size())),
+            Date.valueOf(start),
+            Date.valueOf(scheduled),
+            active ? null : Date.valueOf(scheduled),
+            !active,
+            active ? "Vigente" : "DEVUELTO",
+            price,
+            price,
+            Timestamp.valueOf(start.atTime(12, 0))
+          });
+      if (rows.size() == BATCH) {
+        jdbc.batchUpdate(insertLoan, rows);
+        rows.clear();
+      }
+    }
+    if (!rows.isEmpty()) {
+      jdbc.batchUpdate(insertLoan, rows);
+    }
+
+    context.getBean(LoanReportService.class).rebuild();
+  }
+
+  // Dejar los préstamos activos como antes del proceso de atrasos
+  static void resetOverdueState(ConfigurableApplicationContext context) {
+    JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+    jdbc.update("UPDATE loans SET loan_status = 'Vigente', fine = 0 WHERE delivered = false");
+    jdbc.update("UPDATE users SET status = 'Activo'");
+    jdbc.update("DELETE FROM overdue_sweep_checkpoint");
+    context.getBean(LoanReportService.class).rebuild();
+  }
+
+  static long id(ConfigurableApplicationContext context, String sql, Object arg) {
+    return context.getBean(JdbcTemplate.class).queryForObject(sql, Long.class, arg);
+  }
+
+  private static Object[] userRow(String rut, int c) {
+    return new Object[] {
+      rut, "Cliente", "Benchmark " + c, "cliente" + c + "@bench.cl", "+56 9 " + c, "Activo",
+      "cliente" + c, "USER"
+    };
+  }
+
+  private static void batch(JdbcTemplate jdbc, String sql, List<Object[]> rows) {
+    for (int from = 0; from < rows.size(); from += BATCH) {
+      jdbc.batchUpdate(sql, rows.subList(from, Math.min(rows.size(), from + BATCH)));
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package com.toolrent.toolrent.benchmark;
+
+import com.toolrent.toolrent.entity.LoanEntity;
+import com.toolrent.toolrent.entity.ToolsEntity;
+import com.toolrent.toolrent.entity.UserEntity;
+import com.toolrent.toolrent.service.LoanService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+// Préstamo y devolución de una misma unidad: cada operación deja el estado como estaba
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx4g"})
+public class LoanServiceBenchmark {
+
+  @Param({"10000", "100000", "1000000"})
+  public int loans;
+
+  private ConfigurableApplicationContext context;
+
+  private LoanService loanService;
+
+  private long clientId;
+
+  private long toolId;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = BenchmarkDatabase.start();
+    BenchmarkDatabase.seed(context, loans);
+    loanService = context.getBean(LoanService.class);
+    clientId =
+        BenchmarkDatabase.id(context, "SELECT id FROM users WHERE rut = ?", BenchmarkDatabase.BENCH_RUT);
+    toolId =
+        BenchmarkDatabase.id(
+            context,
+            "SELECT MIN(t.id) FROM tools t JOIN tool_types tt ON tt.id = t.tool_type_id "
+                + "WHERE tt.name = ?",
+            BenchmarkDatabase.BENCH_TOOL);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public LoanEntity createAndReturnLoan() {
+    UserEntity client = new UserEntity();
+    client.setId(clientId);
+    ToolsEntity tool = new ToolsEntity();
+    tool.setId(toolId);
+
+    LoanEntity loan = new LoanEntity();
+    loan.setClient(client);
+    loan.setTool(tool);
+    loan.setStartDate(LocalDate.now());
+    loan.setScheduledReturnDate(LocalDate.now().plusDays(3));
+    loan.setCreatedLoan(LocalDateTime.now());
+
+    LoanEntity created = loanService.createLoan(loan, BenchmarkDatabase.BENCH_RUT);
+    return loanService.returnLoan(created.getId(), false, false, BenchmarkDatabase.BENCH_RUT);
+  }
+}
@@ -0,0 +1,47 @@
+package com.toolrent.toolrent.benchmark;
+
+import com.toolrent.toolrent.service.LoanService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+// Proceso nocturno completo; antes de cada iteración se deshace el resultado anterior
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx4g"})
+public class OverdueSweepBenchmark {
+
+  @Param({"10000", "100000", "1000000"})
+  public int loans;
+
+  private ConfigurableApplicationContext context;
+
+  private LoanService loanService;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = BenchmarkDatabase.start();
+    BenchmarkDatabase.seed(context, loans);
+    loanService = context.getBean(LoanService.class);
+  }
+
+  @Setup(Level.Iteration)
+  public void reset() {
+    BenchmarkDatabase.resetOverdueState(context);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public Object updateOverdueLoans() {
+    loanService.updateOverdueLoans();
+    return loanService.getOverdueSweepProgress();
+  }
+}
@@ -0,0 +1,119 @@
+package com.toolrent.toolrent.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.toolrent.toolrent.dto.LoanSummaryDTO;
+import com.toolrent.toolrent.entity.KardexEntity;
+import com.toolrent.toolrent.entity.LoanEntity;
+import com.toolrent.toolrent.entity.ToolStatus;
+import com.toolrent.toolrent.entity.ToolsEntity;
+import com.toolrent.toolrent.entity.UserEntity;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Serialización JSON de los grafos que devuelven los controladores, sin base de datos
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+  @Param({"100", "1000"})
+  public int rows;
+
+  private ObjectMapper mapper;
+
+  private List<LoanEntity> loans;
+
+  private List<KardexEntity> movements;
+
+  private List<LoanSummaryDTO> summaries;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    // Misma configuración de fechas que el ObjectMapper de Spring Boot
+    mapper =
+        JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    loans = new ArrayList<>(rows);
+    movements = new ArrayList<>(rows * 2);
+    summaries = new ArrayList<>(rows);
+    LocalDate today = LocalDate.now();
+    for (int i = 0; i < rows; i++) {
+      ToolsEntity tool = new ToolsEntity();
+      tool.setId((long) i);
+      tool.setName("Herramienta " + (i % 50));
+      tool.setCategory("Categoria " + (i % 10));
+      tool.setDailyRate(2000);
+      tool.setStatus(ToolStatus.PRESTADA);
+
+      UserEntity client = new UserEntity();
+      client.setId((long) i);
+      client.setRut("rut-" + i);
+      client.setName("Cliente");
+      client.setEmail("cliente" + i + "@bench.cl");
+      client.setPhoneNumber("+56 9 " + i);
+      client.setStatus("Activo");
+
+      LoanEntity loan = new LoanEntity();
+      loan.setId((long) i);
+      loan.setTool(tool);
+      loan.setClient(client);
+      loan.setStartDate(today.minusDays(3));
+      loan.setScheduledReturnDate(today.plusDays(2));
+      loan.setLoanPrice(10000);
+      loan.setCreatedLoan(LocalDateTime.now());
+
+      List<KardexEntity> loanMovements = new ArrayList<>();
+      for (String type : List.of("PRESTAMO", "DEVOLUCION")) {
+        KardexEntity movement = new KardexEntity();
+        movement.setId((long) movements.size());
+        movement.setType(type);
+        movement.setQuantity(1);
+        movement.setDateTime(LocalDateTime.now());
+        movement.setTool(tool);
+        movement.setLoan(loan);
+        movement.setUserRut("12.345.678-9");
+        loanMovements.add(movement);
+        movements.add(movement);
+      }
+      loan.setKardexMovements(loanMovements);
+      tool.setKardexMovements(loanMovements);
+      loans.add(loan);
+
+      summaries.add(
+          new LoanSummaryDTO(
+              loan.getId(), tool.getId(), tool.getName(), tool.getCategory(), client.getId(),
+              client.getRut(), client.getName(), client.getLastName(), client.getEmail(),
+              client.getPhoneNumber(), client.getUsername(), loan.getStartDate(),
+              loan.getScheduledReturnDate(), null, false, "Vigente", 0, 10000, 0, 0, 0, true,
+              loan.getCreatedLoan()));
+    }
+  }
+
+  @Benchmark
+  public byte[] loanEntities() throws Exception {
+    return mapper.writeValueAsBytes(loans);
+  }
+
+  @Benchmark
+  public byte[] loanSummaries() throws Exception {
+    return mapper.writeValueAsBytes(summaries);
+  }
+
+  @Benchmark
+  public byte[] kardexEntities() throws Exception {
+    return mapper.writeValueAsBytes(movements);
+  }
+}
@@ -0,0 +1,106 @@
+package com.toolrent.toolrent.benchmark;
+
+import com.toolrent.toolrent.dto.LoanFilterDTO;
+import com.toolrent.toolrent.service.LoanService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Una ráfaga de peticiones simultáneas (página de préstamos activos) atendida como en Tomcat con
+ * hilos de plataforma (200 hilos, pool de 20 conexiones del perfil prod) o con un hilo virtual por
+ * petición (pool de 40 conexiones del perfil virtual). H2 en memoria no tiene la latencia de red de
+ * MySQL, así que latencyMs la agrega como una espera bloqueante por petición. El caso virtual
+ * requiere Java 21: mvn -Pjmh,java21 -DskipTests verify -Djmh.args=ThreadModel
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx2g"})
+public class ThreadModelBenchmark {
+
+  private static final int TOMCAT_MAX_THREADS = 200;
+
+  @Param({"100000"})
+  public int loans;
+
+  @Param({"platform", "virtual"})
+  public String threads;
+
+  // Peticiones simultáneas por ráfaga
+  @Param({"200", "2000"})
+  public int requests;
+
+  @Param({"0", "5"})
+  public int latencyMs;
+
+  private ConfigurableApplicationContext context;
+
+  private LoanService loanService;
+
+  private ExecutorService executor;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    boolean virtual = "virtual".equals(threads);
+    executor = virtual ? virtualThreadPerTask() : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+    int poolSize = virtual ? 40 : 20;
+    context =
+        BenchmarkDatabase.start(
+            "spring.datasource.hikari.maximum-pool-size=" + poolSize,
+            "spring.datasource.hikari.minimum-idle=" + poolSize,
+            "spring.datasource.hikari.connection-timeout=10000");
+    BenchmarkDatabase.seed(context, loans);
+    loanService = context.getBean(LoanService.class);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    executor.shutdownNow();
+    context.close();
+  }
+
+  // Tiempo hasta responder todas las peticiones de la ráfaga
+  @Benchmark
+  public int burst() throws Exception {
+    List<Future<Integer>> responses = new ArrayList<>(requests);
+    for (int i = 0; i < requests; i++) {
+      int page = i % 50;
+      responses.add(executor.submit(() -> request(page)));
+    }
+    int rows = 0;
+    for (Future<Integer> response : responses) {
+      rows += response.get();
+    }
+    return rows;
+  }
+
+  private int request(int page) throws InterruptedException {
+    if (latencyMs > 0) {
+      Thread.sleep(latencyMs);
+    }
+    return loanService
+        .getActiveLoansPage(new LoanFilterDTO(), page, 20, null, false)
+        .getItems()
+        .size();
+  }
+
+  // Por reflexión para que los benchmarks sigan compilando con Java 17
+  private static ExecutorService virtualThreadPerTask() throws Exception {
+    try {
+      return (ExecutorService)
+          Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (NoSuchMethodException e) {
+      throw new IllegalStateException(
+          "Los hilos virtuales requieren Java 21 (mvn -Pjmh,java21 con un JDK 21)", e);
+    }
+  }
+}
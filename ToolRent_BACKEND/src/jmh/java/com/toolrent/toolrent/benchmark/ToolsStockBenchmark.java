@@ -0,0 +1,47 @@
+package com.toolrent.toolrent.benchmark;
+
+import com.toolrent.toolrent.dto.ToolStockDTO;
+import com.toolrent.toolrent.service.ToolsService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Reporte de stock con la consulta agrupada y con la vista en memoria
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx2g"})
+public class ToolsStockBenchmark {
+
+  // El stock depende de las herramientas, no de los préstamos
+  @Param({"10000"})
+  public int loans;
+
+  @Param({"false", "true"})
+  public boolean stockView;
+
+  private ConfigurableApplicationContext context;
+
+  private ToolsService toolsService;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = BenchmarkDatabase.start("toolrent.stock.view.enabled=" + stockView);
+    BenchmarkDatabase.seed(context, loans);
+    toolsService = context.getBean(ToolsService.class);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public List<ToolStockDTO> getToolsStock() {
+    return toolsService.getToolsStock();
+  }
+}
@@ -0,0 +1,32 @@
+package com.toolrent.toolrent.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.info.Info;
+import org.springframework.boot.actuate.info.InfoContributor;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// /actuator/info: perfiles activos, pool de conexiones y lotes JDBC efectivos
+@Component
+@RequiredArgsConstructor
+public class DataAccessInfoContributor implements InfoContributor {
+
+  private final DataAccessSettings settings;
+
+  private final Environment environment;
+
+  @Override
+  public void contribute(Info.Builder builder) {
+    Map<String, Object> details = new LinkedHashMap<>();
+    String[] active = environment.getActiveProfiles();
+    details.put(
+        "profiles", List.of(active.length > 0 ? active : environment.getDefaultProfiles()));
+    details.put("pool", settings.pool());
+    details.put("batching", settings.batching());
+    builder.withDetail("dataAccess", details);
+  }
+}
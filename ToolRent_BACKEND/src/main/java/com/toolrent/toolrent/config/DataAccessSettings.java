@@ -0,0 +1,148 @@
+package com.toolrent.toolrent.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Ajustes efectivos del pool de conexiones (Hikari) y de los lotes JDBC (Hibernate y URL de MySQL),
+ * leídos de los beans ya configurados y no de las propiedades, para que /actuator/info y la revisión
+ * de arranque muestren lo que realmente se está usando.
+ */
+@Component
+@RequiredArgsConstructor
+public class DataAccessSettings {
+
+  static final String BATCH_SIZE = "hibernate.jdbc.batch_size";
+
+  static final String ORDER_INSERTS = "hibernate.order_inserts";
+
+  static final String ORDER_UPDATES = "hibernate.order_updates";
+
+  // Parámetros de Connector/J sin los que los lotes y las sentencias preparadas no rinden
+  static final List<String> MYSQL_URL_FLAGS = List.of("rewriteBatchedStatements", "cachePrepStmts");
+
+  private final DataSource dataSource;
+
+  private final EntityManagerFactory entityManagerFactory;
+
+  public Map<String, Object> pool() {
+    Map<String, Object> pool = new LinkedHashMap<>();
+    HikariDataSource hikari = hikari();
+    if (hikari == null) {
+      return pool;
+    }
+    pool.put("name", hikari.getPoolName());
+    pool.put("maximumPoolSize", hikari.getMaximumPoolSize());
+    pool.put("minimumIdle", hikari.getMinimumIdle());
+    pool.put("connectionTimeoutMs", hikari.getConnectionTimeout());
+    pool.put("maxLifetimeMs", hikari.getMaxLifetime());
+    HikariPoolMXBean mxBean = hikari.getHikariPoolMXBean();
+    if (mxBean != null) {
+      pool.put("active", mxBean.getActiveConnections());
+      pool.put("idle", mxBean.getIdleConnections());
+      pool.put("pending", mxBean.getThreadsAwaitingConnection());
+    }
+    return pool;
+  }
+
+  public Map<String, Object> batching() {
+    Map<String, Object> batching = new LinkedHashMap<>();
+    batching.put("batchSize", batchSize());
+    batching.put("orderInserts", isTrue(ORDER_INSERTS));
+    batching.put("orderUpdates", isTrue(ORDER_UPDATES));
+    String url = jdbcUrl();
+    if (isMySql(url)) {
+      for (String flag : MYSQL_URL_FLAGS) {
+        batching.put(flag, urlFlag(url, flag));
+      }
+    }
+    return batching;
+  }
+
+  // Ajustes que no sirven para producción (vacío si todo está bien)
+  public List<String> problems() {
+    return problems(jdbcUrl(), batchSize(), isTrue(ORDER_INSERTS), isTrue(ORDER_UPDATES));
+  }
+
+  static List<String> problems(String url, int batchSize, boolean orderInserts, boolean orderUpdates) {
+    List<String> problems = new ArrayList<>();
+    if (batchSize <= 1) {
+      problems.add(BATCH_SIZE + " debe ser mayor que 1 (actual: " + batchSize + ")");
+    }
+    if (!orderInserts) {
+      problems.add(ORDER_INSERTS + " debe ser true");
+    }
+    if (!orderUpdates) {
+      problems.add(ORDER_UPDATES + " debe ser true");
+    }
+    if (isMySql(url)) {
+      for (String flag : MYSQL_URL_FLAGS) {
+        if (!urlFlag(url, flag)) {
+          problems.add("la URL de MySQL debe incluir " + flag + "=true");
+        }
+      }
+    }
+    return problems;
+  }
+
+  static boolean urlFlag(String url, String flag) {
+    int query = url == null ? -1 : url.indexOf('?');
+    if (query < 0) {
+      return false;
+    }
+    for (String param : url.substring(query + 1).split("&")) {
+      String[] pair = param.split("=", 2);
+      if (pair[0].equalsIgnoreCase(flag)) {
+        return pair.length == 2 && Boolean.parseBoolean(pair[1]);
+      }
+    }
+    return false;
+  }
+
+  private static boolean isMySql(String url) {
+    return url != null && url.toLowerCase(Locale.ROOT).startsWith("jdbc:mysql:");
+  }
+
+  private int batchSize() {
+    Object value = entityManagerFactory.getProperties().get(BATCH_SIZE);
+    if (value == null) {
+      return 1; // sin batch_size Hibernate manda cada sentencia por separado
+    }
+    try {
+      return Integer.parseInt(value.toString().trim());
+    } catch (NumberFormatException e) {
+      return 1;
+    }
+  }
+
+  private boolean isTrue(String property) {
+    Object value = entityManagerFactory.getProperties().get(property);
+    return value != null && Boolean.parseBoolean(value.toString().trim());
+  }
+
+  private String jdbcUrl() {
+    HikariDataSource hikari = hikari();
+    return hikari == null ? null : hikari.getJdbcUrl();
+  }
+
+  private HikariDataSource hikari() {
+    try {
+      return dataSource.isWrapperFor(HikariDataSource.class)
+          ? dataSource.unwrap(HikariDataSource.class)
+          : null;
+    } catch (SQLException e) {
+      return null;
+    }
+  }
+}
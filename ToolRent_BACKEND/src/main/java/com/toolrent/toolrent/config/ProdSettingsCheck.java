@@ -0,0 +1,34 @@
+package com.toolrent.toolrent.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Con el perfil prod, revisa al arrancar que el pool y los lotes JDBC efectivos sean los de
+ * producción (p. ej. que una SPRING_DATASOURCE_URL externa no haya perdido rewriteBatchedStatements).
+ * Si algo falta la aplicación no llega a quedar lista.
+ */
+@Slf4j
+@Component
+@Profile("prod")
+@RequiredArgsConstructor
+public class ProdSettingsCheck {
+
+  private final DataAccessSettings settings;
+
+  @EventListener(ApplicationStartedEvent.class)
+  public void check() {
+    List<String> problems = settings.problems();
+    if (!problems.isEmpty()) {
+      throw new IllegalStateException(
+          "Configuración de acceso a datos no apta para el perfil prod: " + problems);
+    }
+    log.info("Pool de conexiones {} y lotes JDBC {}", settings.pool(), settings.batching());
+  }
+}
@@ -0,0 +1,131 @@
+package com.toolrent.toolrent.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.metamodel.EntityType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Revisa al arrancar que existan en la base de datos los índices declarados en @Table(indexes) de
+ * cada entidad (los mismos que crean las migraciones). Un índice cuenta como presente si algún
+ * índice de la tabla empieza con las mismas columnas, en el mismo orden. Solo informa en el log.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "toolrent.schema.index-check.enabled", matchIfMissing = true)
+public class SchemaIndexCheck {
+
+  private final DataSource dataSource;
+
+  private final EntityManagerFactory entityManagerFactory;
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void checkIndexes() {
+    List<String> missing;
+    try {
+      missing = findMissingIndexes();
+    } catch (SQLException e) {
+      log.warn("No se pudieron revisar los índices del esquema: {}", e.getMessage());
+      return;
+    }
+
+    int expected = declaredTables().stream().mapToInt(table -> table.indexes().length).sum();
+    if (missing.isEmpty()) {
+      log.info("Índices del esquema verificados: {} presentes", expected);
+    } else {
+      log.warn(
+          "Faltan {} de {} índices del esquema, revisar las migraciones: {}",
+          missing.size(),
+          expected,
+          missing);
+    }
+  }
+
+  // Índices declarados en las entidades sin un índice equivalente en la base de datos
+  public List<String> findMissingIndexes() throws SQLException {
+    List<String> missing = new ArrayList<>();
+    try (Connection connection = dataSource.getConnection()) {
+      DatabaseMetaData metaData = connection.getMetaData();
+      for (Table table : declaredTables()) {
+        Collection<List<String>> existing = readIndexes(metaData, connection, table.name());
+        for (Index index : table.indexes()) {
+          if (!isCovered(columnsOf(index), existing)) {
+            missing.add(table.name() + "." + index.name() + " (" + index.columnList() + ")");
+          }
+        }
+      }
+    }
+    return missing;
+  }
+
+  // @Table de las entidades que declaran índices
+  private List<Table> declaredTables() {
+    List<Table> tables = new ArrayList<>();
+    for (EntityType<?> entity : entityManagerFactory.getMetamodel().getEntities()) {
+      Table table = entity.getJavaType().getAnnotation(Table.class);
+      if (table != null && table.indexes().length > 0) {
+        tables.add(table);
+      }
+    }
+    return tables;
+  }
+
+  // Columnas de cada índice de la tabla, en orden
+  private Collection<List<String>> readIndexes(
+      DatabaseMetaData metaData, Connection connection, String table) throws SQLException {
+    String tableName =
+        metaData.storesUpperCaseIdentifiers() ? table.toUpperCase(Locale.ROOT) : table;
+    Map<String, TreeMap<Short, String>> indexes = new TreeMap<>();
+    try (ResultSet rs =
+        metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), tableName, false, true)) {
+      while (rs.next()) {
+        String indexName = rs.getString("INDEX_NAME");
+        String column = rs.getString("COLUMN_NAME");
+        if (indexName == null || column == null) {
+          continue;
+        }
+        indexes
+            .computeIfAbsent(indexName, k -> new TreeMap<>())
+            .put(rs.getShort("ORDINAL_POSITION"), column.toLowerCase(Locale.ROOT));
+      }
+    }
+    List<List<String>> result = new ArrayList<>();
+    indexes.values().forEach(columns -> result.add(new ArrayList<>(columns.values())));
+    return result;
+  }
+
+  private static List<String> columnsOf(Index index) {
+    return Arrays.stream(index.columnList().split(","))
+        .map(column -> column.trim().split("\\s+")[0].toLowerCase(Locale.ROOT))
+        .toList();
+  }
+
+  private static boolean isCovered(List<String> wanted, Collection<List<String>> existing) {
+    for (List<String> columns : existing) {
+      if (columns.size() >= wanted.size() && columns.subList(0, wanted.size()).equals(wanted)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,98 @@
+package com.toolrent.toolrent.config;
+
+import com.toolrent.toolrent.dto.LoanReportSummaryDTO;
+import com.toolrent.toolrent.dto.ToolStockDTO;
+import com.toolrent.toolrent.entity.ToolStatus;
+import com.toolrent.toolrent.service.LoanReportService;
+import com.toolrent.toolrent.service.ToolsService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Métricas de negocio: préstamos activos y atrasados (desde loan_daily_rollup), unidades por estado
+ * y contadores de préstamo de unidades. Los gauges leen una misma foto que se recalcula como mucho
+ * cada cache-ms, así que cada lectura de /actuator/prometheus cuesta a lo más dos consultas chicas.
+ */
+@Component
+@RequiredArgsConstructor
+public class ToolRentMetrics implements MeterBinder {
+
+  private final LoanReportService loanReportService;
+
+  private final ToolsService toolsService;
+
+  @Value("${toolrent.metrics.gauge-cache-ms:15000}")
+  private long cacheMillis;
+
+  private Snapshot snapshot;
+
+  // take() consulta la base de datos: se usa un lock para no fijar hilos virtuales
+  private final ReentrantLock snapshotLock = new ReentrantLock();
+
+  private record Snapshot(
+      long takenAt, long activeLoans, long overdueLoans, Map<ToolStatus, Long> stock) {}
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder("toolrent.loans.active", this, m -> m.current().activeLoans())
+        .description("Préstamos no devueltos")
+        .register(registry);
+    Gauge.builder("toolrent.loans.overdue", this, m -> m.current().overdueLoans())
+        .description("Préstamos en estado ATRASADO")
+        .register(registry);
+
+    for (ToolStatus status : ToolStatus.values()) {
+      Gauge.builder("toolrent.tools.stock", this, m -> m.current().stock().get(status))
+          .description("Unidades de herramientas por estado")
+          .tag("status", status.name())
+          .register(registry);
+    }
+
+    counter(registry, "toolrent.tools.checkout.attempts", s -> s.getCheckoutStats().getAttempts());
+    counter(registry, "toolrent.tools.checkout.conflicts", s -> s.getCheckoutStats().getConflicts());
+  }
+
+  private void counter(MeterRegistry registry, String name, ToDoubleFunction<ToolsService> value) {
+    FunctionCounter.builder(name, toolsService, value).register(registry);
+  }
+
+  Snapshot current() {
+    snapshotLock.lock();
+    try {
+      long now = System.currentTimeMillis();
+      if (snapshot == null || now - snapshot.takenAt() > cacheMillis) {
+        snapshot = take(now);
+      }
+      return snapshot;
+    } finally {
+      snapshotLock.unlock();
+    }
+  }
+
+  private Snapshot take(long now) {
+    LoanReportSummaryDTO totals = loanReportService.getTotals();
+
+    Map<ToolStatus, Long> stock = new EnumMap<>(ToolStatus.class);
+    for (ToolStatus status : ToolStatus.values()) {
+      stock.put(status, 0L);
+    }
+    for (ToolStockDTO row : toolsService.getToolsStock()) {
+      stock.merge(ToolStatus.DISPONIBLE, row.getDisponible(), Long::sum);
+      stock.merge(ToolStatus.PRESTADA, row.getPrestada(), Long::sum);
+      stock.merge(ToolStatus.EN_REPARACION, row.getEnReparacion(), Long::sum);
+      stock.merge(ToolStatus.DADA_DE_BAJA, row.getDadaDeBaja(), Long::sum);
+    }
+
+    return new Snapshot(now, totals.getActiveLoans(), totals.getOverdueLoans(), stock);
+  }
+}
@@ -1,16 +1,25 @@
 package com.toolrent.toolrent.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.toolrent.toolrent.dto.KardexMovementDTO;
+import com.toolrent.toolrent.dto.KardexPageDTO;
 import com.toolrent.toolrent.entity.KardexEntity;
 import com.toolrent.toolrent.entity.ToolsEntity;
 import com.toolrent.toolrent.service.KardexService;
 import com.toolrent.toolrent.service.ToolsService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 @RestController
 @RequestMapping("/api/kardex")
@@ -20,6 +29,9 @@ public class KardexController {
 
   private final KardexService kardexService;
   private final ToolsService toolsService;
+  private final ObjectMapper objectMapper;
+
+  private static final String NDJSON = "application/x-ndjson";
 
   @GetMapping("/tool/{toolId}")
   public List<KardexEntity> getMovementsByTool(@PathVariable Long toolId) {
@@ -38,6 +50,24 @@ public class KardexController {
     return kardexService.getMovementsByDateRange(start, end);
   }
 
+  // Página por cursor: /dates?start=..&end=..&size=50[&cursor=..]
+  @GetMapping(value = "/dates", params = "size")
+  public KardexPageDTO getMovementsPageByDateRange(
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+      @RequestParam int size,
+      @RequestParam(required = false) String cursor) {
+    return kardexService.getPageByDateRange(start, end, cursor, size);
+  }
+
+  // Exportación en NDJSON (Accept: application/x-ndjson)
+  @GetMapping(value = "/dates", produces = NDJSON)
+  public ResponseEntity<StreamingResponseBody> streamMovementsByDateRange(
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+    return ndjson(consumer -> kardexService.streamByDateRange(start, end, consumer));
+  }
+
   @GetMapping("/all")
   public ResponseEntity<List<KardexEntity>> getAllMovements() {
     List<KardexEntity> movements = kardexService.getAll();
@@ -47,6 +77,19 @@ public class KardexController {
     return ResponseEntity.ok(movements);
   }
 
+  // Página por cursor: /all?size=50[&cursor=..]
+  @GetMapping(value = "/all", params = "size")
+  public KardexPageDTO getMovementsPage(
+      @RequestParam int size, @RequestParam(required = false) String cursor) {
+    return kardexService.getPage(cursor, size);
+  }
+
+  // Exportación en NDJSON (Accept: application/x-ndjson)
+  @GetMapping(value = "/all", produces = NDJSON)
+  public ResponseEntity<StreamingResponseBody> streamAllMovements() {
+    return ndjson(kardexService::streamAll);
+  }
+
   @GetMapping("/filter")
   public List<KardexEntity> getFiltered(
       @RequestParam Long toolId,
@@ -54,4 +97,27 @@ public class KardexController {
       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
     return kardexService.getFilteredKardex(toolId, start, end);
   }
+
+  // Escribe un movimiento por línea a medida que se leen desde la base de datos
+  private ResponseEntity<StreamingResponseBody> ndjson(
+      Consumer<Consumer<KardexMovementDTO>> source) {
+    StreamingResponseBody body =
+        out -> {
+          try (SequenceWriter writer =
+              objectMapper
+                  .writerFor(KardexMovementDTO.class)
+                  .withRootValueSeparator("\n")
+                  .writeValues(out)) {
+            source.accept(
+                movement -> {
+                  try {
+                    writer.write(movement);
+                  } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                  }
+                });
+          }
+        };
+    return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+  }
 }
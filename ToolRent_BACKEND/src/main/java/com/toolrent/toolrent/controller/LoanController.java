@@ -1,9 +1,20 @@
 package com.toolrent.toolrent.controller;
 
+import com.toolrent.toolrent.dto.BulkLoanRequestDTO;
+import com.toolrent.toolrent.dto.BulkLoanResultDTO;
+import com.toolrent.toolrent.dto.BulkReturnEntryDTO;
+import com.toolrent.toolrent.dto.BulkReturnResultDTO;
+import com.toolrent.toolrent.dto.LoanFilterDTO;
+import com.toolrent.toolrent.dto.LoanReportSummaryDTO;
+import com.toolrent.toolrent.dto.LoanSummaryDTO;
+import com.toolrent.toolrent.dto.OverdueSweepProgressDTO;
+import com.toolrent.toolrent.dto.PageDTO;
+import com.toolrent.toolrent.dto.ToolRankingDTO;
 import com.toolrent.toolrent.entity.LoanEntity;
 import com.toolrent.toolrent.service.LoanService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -25,6 +36,15 @@ public class LoanController {
     return ResponseEntity.ok(createdLoan);
   }
 
+  // Varias unidades para un cliente en una sola transacción; 409 si no se creó ningún préstamo
+  @PostMapping("/createLoans/{rut}")
+  public ResponseEntity<BulkLoanResultDTO> createLoans(
+      @PathVariable String rut, @RequestBody BulkLoanRequestDTO request) {
+    BulkLoanResultDTO result = loanService.createLoans(request, rut);
+    HttpStatus status = result.getCreated() == 0 ? HttpStatus.CONFLICT : HttpStatus.OK;
+    return ResponseEntity.status(status).body(result);
+  }
+
   @PostMapping("/returnLoan/{loanId}/{rut}")
   public ResponseEntity<LoanEntity> returnLoan(
       @PathVariable Long loanId,
@@ -35,62 +55,134 @@ public class LoanController {
     return ResponseEntity.ok(returnedLoan);
   }
 
+  // Devolución de varios préstamos (p. ej. al cierre del día); 409 si no se devolvió ninguno
+  @PostMapping("/returnLoans/{rut}")
+  public ResponseEntity<BulkReturnResultDTO> returnLoans(
+      @PathVariable String rut, @RequestBody List<BulkReturnEntryDTO> returns) {
+    BulkReturnResultDTO result = loanService.returnLoans(returns, rut);
+    HttpStatus status = result.getReturned() == 0 ? HttpStatus.CONFLICT : HttpStatus.OK;
+    return ResponseEntity.status(status).body(result);
+  }
+
   @GetMapping("/getLoans")
-  public ResponseEntity<List<LoanEntity>> getAllLoans() {
-    List<LoanEntity> loans = loanService.getAllLoans();
+  public ResponseEntity<List<LoanSummaryDTO>> getAllLoans() {
+    List<LoanSummaryDTO> loans = loanService.getAllLoans();
     return ResponseEntity.ok(loans);
   }
 
+  // Página: /getLoans?size=20[&page=0&sort=startDate,desc&status=..&clientId=..&startDate=..
+  // &endDate=..&count=false]
+  @GetMapping(value = "/getLoans", params = "size")
+  public PageDTO<LoanSummaryDTO> getLoansPage(
+      @RequestParam int size,
+      @RequestParam(defaultValue = "0") int page,
+      @RequestParam(required = false) String sort,
+      @RequestParam(defaultValue = "true") boolean count,
+      LoanFilterDTO filter) {
+    return loanService.getLoansPage(filter, page, size, sort, count);
+  }
+
   @GetMapping("/loansActive")
-  public ResponseEntity<List<LoanEntity>> getActiveLoans() {
-    List<LoanEntity> loans = loanService.getActiveLoans();
+  public ResponseEntity<List<LoanSummaryDTO>> getActiveLoans() {
+    List<LoanSummaryDTO> loans = loanService.getActiveLoans();
     return ResponseEntity.ok(loans);
   }
 
+  @GetMapping(value = "/loansActive", params = "size")
+  public PageDTO<LoanSummaryDTO> getActiveLoansPage(
+      @RequestParam int size,
+      @RequestParam(defaultValue = "0") int page,
+      @RequestParam(required = false) String sort,
+      @RequestParam(defaultValue = "true") boolean count,
+      LoanFilterDTO filter) {
+    return loanService.getActiveLoansPage(filter, page, size, sort, count);
+  }
+
   @PutMapping("/{loanId}/finePaid")
   public LoanEntity updateFinePaid(@PathVariable Long loanId, @RequestParam boolean finePaid) {
     return loanService.updateFinePaid(loanId, finePaid);
   }
 
   @GetMapping("/loansActiveByDate")
-  public ResponseEntity<List<LoanEntity>> getActiveLoansByDate(
+  public ResponseEntity<List<LoanSummaryDTO>> getActiveLoansByDate(
       @RequestParam LocalDate startDate, @RequestParam LocalDate endDate) {
 
-    List<LoanEntity> loans = loanService.getActiveLoansByDate(startDate, endDate);
+    List<LoanSummaryDTO> loans = loanService.getActiveLoansByDate(startDate, endDate);
     return ResponseEntity.ok(loans);
   }
 
   // Obtener todos los clientes con préstamos atrasados
   @GetMapping("/overdueClients")
-  public List<LoanEntity> getOverdueClients() {
+  public List<LoanSummaryDTO> getOverdueClients() {
     LocalDate today = LocalDate.now();
     return loanService.getOverdueLoans(today);
   }
 
   // Obtener clientes con préstamos atrasados filtrados por rango de fechas
   @GetMapping("/overdueClients/dateRange")
-  public List<LoanEntity> getOverdueClientsByDate(
+  public List<LoanSummaryDTO> getOverdueClientsByDate(
       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
     LocalDate today = LocalDate.now();
     return loanService.getOverdueLoansByDate(today, startDate, endDate);
   }
 
+  // Métricas de la última ejecución del proceso de atrasos
+  @GetMapping("/overdueSweep")
+  public OverdueSweepProgressDTO getOverdueSweepProgress() {
+    return loanService.getOverdueSweepProgress();
+  }
+
+  // Recalcular los atrasos del día ahora, aunque el proceso del día ya haya terminado
+  @PostMapping("/overdueSweep")
+  public OverdueSweepProgressDTO forceOverdueSweep() {
+    return loanService.forceOverdueSweep();
+  }
+
   @GetMapping("/topToolsByDate")
-  public List<Object[]> getTopToolsByDate(
+  public List<ToolRankingDTO> getTopToolsByDate(
       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
     return loanService.getTopLentTools(startDate, endDate);
   }
 
+  // Totales del rango sumados desde los resúmenes diarios
+  @GetMapping("/reportSummary")
+  public LoanReportSummaryDTO getReportSummary(
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+    return loanService.getReportSummary(startDate, endDate);
+  }
+
+  // Recalcular los resúmenes diarios desde la tabla de préstamos
+  @PostMapping("/reportRollup/rebuild")
+  public ResponseEntity<Integer> rebuildReportRollup() {
+    return ResponseEntity.ok(loanService.rebuildReportRollup());
+  }
+
   @GetMapping("/topTools")
-  public List<Object[]> getTopTools() {
-    return loanService.getTopLentToolsAllTime();
+  public List<ToolRankingDTO> getTopTools(@RequestParam(defaultValue = "0") int limit) {
+    return loanService.getTopLentToolsAllTime(limit);
+  }
+
+  @GetMapping("/topTools/trending")
+  public List<ToolRankingDTO> getTrendingTools(@RequestParam(defaultValue = "10") int limit) {
+    return loanService.getTrendingTools(limit);
   }
 
   @GetMapping("/unpaid")
-  public ResponseEntity<List<LoanEntity>> getUnpaidLoans() {
-    List<LoanEntity> unpaidLoans = loanService.getUnpaidLoans();
+  public ResponseEntity<List<LoanSummaryDTO>> getUnpaidLoans() {
+    List<LoanSummaryDTO> unpaidLoans = loanService.getUnpaidLoans();
     return ResponseEntity.ok(unpaidLoans);
   }
+
+  @GetMapping(value = "/unpaid", params = "size")
+  public PageDTO<LoanSummaryDTO> getUnpaidLoansPage(
+      @RequestParam int size,
+      @RequestParam(defaultValue = "0") int page,
+      @RequestParam(required = false) String sort,
+      @RequestParam(defaultValue = "true") boolean count,
+      LoanFilterDTO filter) {
+    return loanService.getUnpaidLoansPage(filter, page, size, sort, count);
+  }
 }
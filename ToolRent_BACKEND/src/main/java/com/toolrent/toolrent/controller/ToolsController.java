@@ -1,6 +1,11 @@
 package com.toolrent.toolrent.controller;
 
+import com.toolrent.toolrent.dto.CheckoutStatsDTO;
+import com.toolrent.toolrent.dto.PageDTO;
+import com.toolrent.toolrent.dto.ToolIntakeDTO;
 import com.toolrent.toolrent.dto.ToolStockDTO;
+import com.toolrent.toolrent.entity.ToolStatus;
+import com.toolrent.toolrent.entity.ToolTypeEntity;
 import com.toolrent.toolrent.entity.ToolsEntity;
 import com.toolrent.toolrent.service.ToolsService;
 import lombok.RequiredArgsConstructor;
@@ -18,12 +23,12 @@ public class ToolsController {
   private final ToolsService toolsService;
 
   @PostMapping("/createTool/{quantity}/{rut}")
-  public ResponseEntity<ToolsEntity> createTool(
+  public ResponseEntity<ToolIntakeDTO> createTool(
       @RequestBody ToolsEntity tool,
       @PathVariable("quantity") int quantity,
       @PathVariable("rut") String rut) {
-    ToolsEntity savedTool = toolsService.registerTool(tool, quantity, rut);
-    return ResponseEntity.ok(savedTool);
+    ToolIntakeDTO intake = toolsService.registerTool(tool, quantity, rut);
+    return ResponseEntity.ok(intake);
   }
 
   @GetMapping("/getTools")
@@ -31,6 +36,19 @@ public class ToolsController {
     return ResponseEntity.ok(toolsService.findAll());
   }
 
+  // Página: /getTools?size=20[&page=0&sort=name&status=DISPONIBLE&category=..&toolTypeId=..]
+  @GetMapping(value = "/getTools", params = "size")
+  public PageDTO<ToolsEntity> getToolsPage(
+      @RequestParam int size,
+      @RequestParam(defaultValue = "0") int page,
+      @RequestParam(required = false) String sort,
+      @RequestParam(required = false) ToolStatus status,
+      @RequestParam(required = false) Long toolTypeId,
+      @RequestParam(required = false) String category,
+      @RequestParam(defaultValue = "true") boolean count) {
+    return toolsService.findPage(status, toolTypeId, category, page, size, sort, count);
+  }
+
   @GetMapping("/stock")
   public ResponseEntity<List<ToolStockDTO>> getToolsStock() {
     List<ToolStockDTO> stock = toolsService.getToolsStock();
@@ -45,6 +63,13 @@ public class ToolsController {
     return ResponseEntity.ok(updatedTool);
   }
 
+  // Precios de un tipo de herramienta (todas sus unidades); el nombre y la categoría se ignoran
+  @PutMapping("/updateToolType/{toolTypeId}")
+  public ResponseEntity<ToolTypeEntity> updateToolTypePrices(
+      @PathVariable Long toolTypeId, @RequestBody ToolTypeEntity prices) {
+    return ResponseEntity.ok(toolsService.updateToolTypePrices(toolTypeId, prices));
+  }
+
   @GetMapping("/getTool/{toolId}")
   public ResponseEntity<ToolsEntity> getToolById(@PathVariable Long toolId) {
     ToolsEntity tool = toolsService.findById(toolId);
@@ -55,4 +80,9 @@ public class ToolsController {
   public List<ToolsEntity> getAvailableTools() {
     return toolsService.getAvailableTools();
   }
+
+  @GetMapping("/checkoutStats")
+  public CheckoutStatsDTO getCheckoutStats() {
+    return toolsService.getCheckoutStats();
+  }
 }
@@ -1,11 +1,16 @@
 package com.toolrent.toolrent.controller;
 
+import com.toolrent.toolrent.dto.PageDTO;
+import com.toolrent.toolrent.dto.UserImportReportDTO;
 import com.toolrent.toolrent.entity.UserEntity;
+import com.toolrent.toolrent.service.UserImportService;
 import com.toolrent.toolrent.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -16,6 +21,10 @@ public class UserController {
 
   private final UserService userService;
 
+  private final UserImportService userImportService;
+
+  private static final String NDJSON = "application/x-ndjson";
+
   // Crear usuario
   @PostMapping("/createUser")
   public ResponseEntity<UserEntity> createUser(@RequestBody UserEntity user) {
@@ -23,12 +32,34 @@ public class UserController {
     return ResponseEntity.ok(savedUser);
   }
 
+  // Importación masiva: el cuerpo es el archivo CSV (con encabezado) o NDJSON, leído por partes
+  @PostMapping(value = "/import", consumes = "text/csv")
+  public UserImportReportDTO importUsersCsv(InputStream body) throws IOException {
+    return userImportService.importCsv(body);
+  }
+
+  @PostMapping(value = "/import", consumes = NDJSON)
+  public UserImportReportDTO importUsersNdjson(InputStream body) throws IOException {
+    return userImportService.importNdjson(body);
+  }
+
   // Obtener todos los usuarios
   @GetMapping("/getUsers")
   public ResponseEntity<List<UserEntity>> getAllUsers() {
     return ResponseEntity.ok(userService.findAll());
   }
 
+  // Página: /getUsers?size=20[&page=0&sort=lastName,desc&status=Activo&count=false]
+  @GetMapping(value = "/getUsers", params = "size")
+  public PageDTO<UserEntity> getUsersPage(
+      @RequestParam int size,
+      @RequestParam(defaultValue = "0") int page,
+      @RequestParam(required = false) String sort,
+      @RequestParam(required = false) String status,
+      @RequestParam(defaultValue = "true") boolean count) {
+    return userService.findPage(status, page, size, sort, count);
+  }
+
   // Obtener usuario por id
   @GetMapping("/{id}")
   public ResponseEntity<UserEntity> getUserById(@PathVariable Long id) {
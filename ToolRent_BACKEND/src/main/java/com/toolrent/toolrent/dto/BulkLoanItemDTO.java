@@ -0,0 +1,20 @@
+package com.toolrent.toolrent.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Resultado de una unidad de un préstamo múltiple: el préstamo creado o el motivo del rechazo
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkLoanItemDTO {
+  private Long toolId;
+  private Long loanId;
+  private double loanPrice;
+  private String error;
+
+  public BulkLoanItemDTO(Long toolId) {
+    this.toolId = toolId;
+  }
+}
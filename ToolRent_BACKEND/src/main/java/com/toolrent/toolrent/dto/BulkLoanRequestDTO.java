@@ -0,0 +1,23 @@
+package com.toolrent.toolrent.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Varias unidades para un mismo cliente y las mismas fechas. partial = false (por defecto): si una
+// unidad se rechaza no se crea ningún préstamo; partial = true: se crean los que pasan
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkLoanRequestDTO {
+  private Long clientId;
+  private List<Long> toolIds;
+  private LocalDate startDate;
+  private LocalDate scheduledReturnDate;
+  private LocalDateTime createdLoan; // opcional, por defecto el momento de la solicitud
+  private boolean partial;
+}
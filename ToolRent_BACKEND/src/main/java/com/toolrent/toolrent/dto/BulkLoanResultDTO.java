@@ -0,0 +1,18 @@
+package com.toolrent.toolrent.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Resultado de un préstamo múltiple: totales y una entrada por unidad, en el orden de la solicitud
+@Data
+@NoArgsConstructor
+public class BulkLoanResultDTO {
+  private boolean partial;
+  private int requested;
+  private int created;
+  private int rejected;
+  private List<BulkLoanItemDTO> items = new ArrayList<>();
+}
@@ -0,0 +1,15 @@
+package com.toolrent.toolrent.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Una devolución de una devolución múltiple, con los mismos datos que /returnLoan
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkReturnEntryDTO {
+  private Long loanId;
+  private boolean damaged;
+  private boolean irreparable;
+}
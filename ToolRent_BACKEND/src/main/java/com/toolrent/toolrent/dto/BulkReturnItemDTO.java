@@ -0,0 +1,24 @@
+package com.toolrent.toolrent.dto;
+
+import com.toolrent.toolrent.entity.ToolStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Resultado de un préstamo de una devolución múltiple: cómo quedó la unidad y lo cobrado, o el
+// motivo del rechazo
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkReturnItemDTO {
+  private Long loanId;
+  private Long toolId;
+  private ToolStatus toolStatus;
+  private double damagePrice;
+  private double total;
+  private String error;
+
+  public BulkReturnItemDTO(Long loanId) {
+    this.loanId = loanId;
+  }
+}
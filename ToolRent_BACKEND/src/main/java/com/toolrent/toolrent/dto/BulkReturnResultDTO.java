@@ -0,0 +1,18 @@
+package com.toolrent.toolrent.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Resultado de una devolución múltiple: totales y una entrada por préstamo, en el orden de la
+// solicitud
+@Data
+@NoArgsConstructor
+public class BulkReturnResultDTO {
+  private int requested;
+  private int returned;
+  private int rejected;
+  private List<BulkReturnItemDTO> items = new ArrayList<>();
+}
@@ -0,0 +1,13 @@
+package com.toolrent.toolrent.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckoutStatsDTO {
+  private long attempts;
+  private long conflicts; // la unidad ya no estaba disponible al momento del UPDATE
+}
@@ -0,0 +1,17 @@
+package com.toolrent.toolrent.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Cifras necesarias para decidir si un cliente puede pedir una herramienta, en una sola consulta
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClientEligibilityDTO {
+  private String status;
+  private long activeLoans;
+  private long unpaidLoans;
+  private long overdueLoans;
+  private long sameTypeActiveLoans; // préstamos activos del mismo tipo que la unidad pedida
+}
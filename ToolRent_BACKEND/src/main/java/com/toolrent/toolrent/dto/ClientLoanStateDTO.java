@@ -0,0 +1,22 @@
+package com.toolrent.toolrent.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// Lo que un préstamo aporta a la cuenta de su cliente: si sigue activo, su vencimiento, el tipo de
+// herramienta y si deja una multa o daño por pagar
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClientLoanStateDTO {
+  private Long loanId;
+  private boolean delivered;
+  private LocalDate scheduledReturnDate;
+  private Long toolTypeId;
+  private boolean finePaid;
+  private double fine;
+  private double damagePrice;
+}
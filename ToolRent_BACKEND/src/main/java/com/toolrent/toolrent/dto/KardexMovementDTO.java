@@ -0,0 +1,21 @@
+package com.toolrent.toolrent.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Misma forma JSON que KardexEntity, sin cargar la herramienta ni el préstamo
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class KardexMovementDTO {
+  private Long id;
+  private String type;
+  private LocalDateTime dateTime;
+  private int quantity;
+  private Long toolId;
+  private String toolName;
+  private String userRut;
+}
@@ -0,0 +1,15 @@
+package com.toolrent.toolrent.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class KardexPageDTO {
+  private List<KardexMovementDTO> items;
+  private String nextCursor; // null cuando no hay más movimientos
+}
@@ -0,0 +1,27 @@
+package com.toolrent.toolrent.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// Préstamos de una unidad iniciados un día, con los mismos contadores que loan_daily_rollup
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanDayCountsDTO {
+  private LocalDate startDay;
+  private long loansStarted;
+  private long activeLoans;
+  private long overdueLoans;
+
+  // Constructor para la expresión "SELECT new"
+  public LoanDayCountsDTO(
+      LocalDate startDay, Long loansStarted, Long activeLoans, Long overdueLoans) {
+    this.startDay = startDay;
+    this.loansStarted = loansStarted == null ? 0 : loansStarted;
+    this.activeLoans = activeLoans == null ? 0 : activeLoans;
+    this.overdueLoans = overdueLoans == null ? 0 : overdueLoans;
+  }
+}
@@ -0,0 +1,23 @@
+package com.toolrent.toolrent.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+// Filtros opcionales de los listados paginados de préstamos (null = sin filtrar)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanFilterDTO {
+  private String status;
+  private Long clientId;
+
+  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+  private LocalDate startDate;
+
+  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+  private LocalDate endDate;
+}
@@ -0,0 +1,26 @@
+package com.toolrent.toolrent.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// Totales de préstamos iniciados en un rango de fechas, sumados desde loan_daily_rollup
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanReportSummaryDTO {
+  private LocalDate startDate;
+  private LocalDate endDate;
+  private long loansStarted;
+  private long activeLoans;
+  private long overdueLoans;
+
+  // Constructor para la expresión "SELECT new" (SUM devuelve null si no hay filas)
+  public LoanReportSummaryDTO(Long loansStarted, Long activeLoans, Long overdueLoans) {
+    this.loansStarted = loansStarted == null ? 0 : loansStarted;
+    this.activeLoans = activeLoans == null ? 0 : activeLoans;
+    this.overdueLoans = overdueLoans == null ? 0 : overdueLoans;
+  }
+}
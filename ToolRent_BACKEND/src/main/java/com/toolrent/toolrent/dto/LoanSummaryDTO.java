@@ -0,0 +1,137 @@
+package com.toolrent.toolrent.dto;
+
+import com.toolrent.toolrent.entity.LoanEntity;
+import com.toolrent.toolrent.entity.ToolsEntity;
+import com.toolrent.toolrent.entity.UserEntity;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Vista de lectura de un préstamo para los listados: misma forma JSON que LoanEntity
+// (tool y client anidados), pero solo con los campos que muestran las pantallas
+@Data
+@NoArgsConstructor
+public class LoanSummaryDTO {
+  private Long id;
+  private ToolRef tool;
+  private ClientRef client;
+  private LocalDate startDate;
+  private LocalDate scheduledReturnDate;
+  private LocalDate returnDate;
+  private boolean delivered;
+  private String loanStatus;
+  private double fine;
+  private double loanPrice;
+  private double damagePrice;
+  private double fineTotal;
+  private double total;
+  private boolean finePaid;
+  private LocalDateTime createdLoan;
+
+  // Constructor plano para las expresiones "SELECT new" de LoanRepository
+  public LoanSummaryDTO(
+      Long id,
+      Long toolId,
+      String toolName,
+      String toolCategory,
+      Long clientId,
+      String clientRut,
+      String clientName,
+      String clientLastName,
+      String clientEmail,
+      String clientPhoneNumber,
+      String clientUsername,
+      LocalDate startDate,
+      LocalDate scheduledReturnDate,
+      LocalDate returnDate,
+      boolean delivered,
+      String loanStatus,
+      double fine,
+      double loanPrice,
+      double damagePrice,
+      double fineTotal,
+      double total,
+      boolean finePaid,
+      LocalDateTime createdLoan) {
+    this.id = id;
+    this.tool = new ToolRef(toolId, toolName, toolCategory);
+    this.client =
+        clientId == null
+            ? null
+            : new ClientRef(
+                clientId,
+                clientRut,
+                clientName,
+                clientLastName,
+                clientEmail,
+                clientPhoneNumber,
+                clientUsername);
+    this.startDate = startDate;
+    this.scheduledReturnDate = scheduledReturnDate;
+    this.returnDate = returnDate;
+    this.delivered = delivered;
+    this.loanStatus = loanStatus;
+    this.fine = fine;
+    this.loanPrice = loanPrice;
+    this.damagePrice = damagePrice;
+    this.fineTotal = fineTotal;
+    this.total = total;
+    this.finePaid = finePaid;
+    this.createdLoan = createdLoan;
+  }
+
+  // Desde una entidad con unidad, tipo y cliente ya cargados (listados paginados)
+  public static LoanSummaryDTO of(LoanEntity loan) {
+    ToolsEntity tool = loan.getTool();
+    UserEntity client = loan.getClient();
+    return new LoanSummaryDTO(
+        loan.getId(),
+        tool.getId(),
+        tool.getName(),
+        tool.getCategory(),
+        client == null ? null : client.getId(),
+        client == null ? null : client.getRut(),
+        client == null ? null : client.getName(),
+        client == null ? null : client.getLastName(),
+        client == null ? null : client.getEmail(),
+        client == null ? null : client.getPhoneNumber(),
+        client == null ? null : client.getUsername(),
+        loan.getStartDate(),
+        loan.getScheduledReturnDate(),
+        loan.getReturnDate(),
+        loan.isDelivered(),
+        loan.getLoanStatus(),
+        loan.getFine(),
+        loan.getLoanPrice(),
+        loan.getDamagePrice(),
+        loan.getFineTotal(),
+        loan.getTotal(),
+        loan.isFinePaid(),
+        loan.getCreatedLoan());
+  }
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class ToolRef {
+    private Long id;
+    private String name;
+    private String category;
+  }
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class ClientRef {
+    private Long id;
+    private String rut;
+    private String name;
+    private String lastName;
+    private String email;
+    private String phoneNumber;
+    private String username;
+  }
+}
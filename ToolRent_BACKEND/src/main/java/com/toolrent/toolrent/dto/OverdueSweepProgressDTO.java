@@ -0,0 +1,24 @@
+package com.toolrent.toolrent.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OverdueSweepProgressDTO {
+  private LocalDate sweepDate;
+  private boolean running;
+  private boolean consistent; // atrasos al día para la fecha actual
+  private int chunksProcessed;
+  private long loansUpdated;
+  private long clientsRestricted;
+  private long lastLoanId;
+  private LocalDateTime startedAt;
+  private LocalDateTime finishedAt;
+  private long elapsedMillis;
+}
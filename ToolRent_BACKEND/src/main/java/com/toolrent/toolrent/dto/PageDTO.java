@@ -0,0 +1,33 @@
+package com.toolrent.toolrent.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+// Página de un listado; totalElements y totalPages quedan en null si se pidió sin conteo
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageDTO<T> {
+  private List<T> items;
+  private int page;
+  private int size;
+  private boolean hasNext;
+  private Long totalElements;
+  private Integer totalPages;
+
+  public static <T> PageDTO<T> of(Slice<T> slice) {
+    Long total = null;
+    Integer pages = null;
+    if (slice instanceof Page<T> counted) {
+      total = counted.getTotalElements();
+      pages = counted.getTotalPages();
+    }
+    return new PageDTO<>(
+        slice.getContent(), slice.getNumber(), slice.getSize(), slice.hasNext(), total, pages);
+  }
+}
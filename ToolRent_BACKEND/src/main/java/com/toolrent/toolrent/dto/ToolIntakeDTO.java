@@ -0,0 +1,17 @@
+package com.toolrent.toolrent.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Resumen de un ingreso de unidades: cantidad creada y rango de ids asignados
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ToolIntakeDTO {
+  private String name;
+  private String category;
+  private int quantity;
+  private Long firstId;
+  private Long lastId;
+}
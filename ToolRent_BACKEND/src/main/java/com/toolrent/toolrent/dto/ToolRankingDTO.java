@@ -0,0 +1,24 @@
+package com.toolrent.toolrent.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Fila del ranking de herramientas: veces prestada y puntaje (igual a count salvo en tendencia)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ToolRankingDTO {
+  private Long toolTypeId;
+  private String name;
+  private long count;
+  private double score;
+
+  // Constructor para las expresiones "SELECT new" (SUM devuelve Long)
+  public ToolRankingDTO(Long toolTypeId, String name, Long count) {
+    this.toolTypeId = toolTypeId;
+    this.name = name;
+    this.count = count == null ? 0 : count;
+    this.score = this.count;
+  }
+}
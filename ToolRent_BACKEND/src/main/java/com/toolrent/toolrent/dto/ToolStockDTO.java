@@ -1,11 +1,14 @@
 package com.toolrent.toolrent.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Data
 @NoArgsConstructor
+@AllArgsConstructor
 public class ToolStockDTO {
+  private Long toolTypeId;
   private String name;
   private String category;
   private long disponible;
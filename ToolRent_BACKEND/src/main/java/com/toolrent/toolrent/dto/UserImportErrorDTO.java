@@ -0,0 +1,15 @@
+package com.toolrent.toolrent.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Fila rechazada de una importación de clientes (row = número de registro, desde 1)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportErrorDTO {
+  private long row;
+  private String rut;
+  private String message;
+}
@@ -0,0 +1,18 @@
+package com.toolrent.toolrent.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Resultado de una importación de clientes: totales y filas rechazadas (las primeras, si son muchas)
+@Data
+@NoArgsConstructor
+public class UserImportReportDTO {
+  private long rows;
+  private long imported;
+  private long rejected;
+  private List<UserImportErrorDTO> errors = new ArrayList<>();
+  private boolean errorsTruncated;
+}
@@ -0,0 +1,25 @@
+package com.toolrent.toolrent.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Claves únicas de un usuario que ya usa otro registro, en una sola consulta
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserKeyConflictsDTO {
+  private boolean rut;
+  private boolean username;
+  private boolean email;
+  private boolean phoneNumber;
+
+  // Conteos de la consulta agrupada (cada uno es 0 o 1 porque las claves son únicas)
+  public UserKeyConflictsDTO(Long rut, Long username, Long email, Long phoneNumber) {
+    this(rut > 0, username > 0, email > 0, phoneNumber > 0);
+  }
+
+  public boolean any() {
+    return rut || username || email || phoneNumber;
+  }
+}
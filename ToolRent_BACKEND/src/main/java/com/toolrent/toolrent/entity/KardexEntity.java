@@ -10,7 +10,12 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "kardex")
+@Table(
+    name = "kardex",
+    indexes = {
+      @Index(name = "idx_kardex_tool_date", columnList = "tool_id, date_time"),
+      @Index(name = "idx_kardex_date_id", columnList = "date_time, id")
+    })
 @Data
 @Getter
 @NoArgsConstructor
@@ -0,0 +1,35 @@
+package com.toolrent.toolrent.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Movimiento de kardex aún no traspasado a la tabla kardex
+@Entity
+@Table(name = "kardex_outbox")
+@Data
+@NoArgsConstructor
+public class KardexOutboxEntity {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false)
+  private String type;
+
+  @Column(nullable = false)
+  private LocalDateTime dateTime;
+
+  @Column(nullable = false)
+  private int quantity;
+
+  @Column(name = "tool_id", nullable = false)
+  private Long toolId;
+
+  @Column(name = "loan_id")
+  private Long loanId;
+
+  private String userRut;
+}
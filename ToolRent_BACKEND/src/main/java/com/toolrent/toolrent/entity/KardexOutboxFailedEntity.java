@@ -0,0 +1,39 @@
+package com.toolrent.toolrent.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Movimiento de la bitácora que no se pudo traspasar a kardex, con el error
+@Entity
+@Table(name = "kardex_outbox_failed")
+@Data
+@NoArgsConstructor
+public class KardexOutboxFailedEntity {
+  @Id private Long id; // Mismo id que tenía en kardex_outbox.
+
+  @Column(nullable = false)
+  private String type;
+
+  @Column(nullable = false)
+  private LocalDateTime dateTime;
+
+  @Column(nullable = false)
+  private int quantity;
+
+  @Column(name = "tool_id", nullable = false)
+  private Long toolId;
+
+  @Column(name = "loan_id")
+  private Long loanId;
+
+  private String userRut;
+
+  @Column(length = 1000)
+  private String error;
+
+  @Column(nullable = false)
+  private LocalDateTime failedAt;
+}
@@ -0,0 +1,20 @@
+package com.toolrent.toolrent.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Totales de préstamos por día de inicio y tipo de herramienta, para los reportes por fechas
+@Entity
+@Table(name = "loan_daily_rollup")
+@Data
+@NoArgsConstructor
+public class LoanDailyRollupEntity {
+  @EmbeddedId private LoanDailyRollupId id;
+
+  private long loansStarted; // Préstamos iniciados ese día.
+
+  private long activeLoans; // De ellos, los que aún no se devuelven.
+
+  private long overdueLoans; // De ellos, los marcados ATRASADO y aún no devueltos.
+}
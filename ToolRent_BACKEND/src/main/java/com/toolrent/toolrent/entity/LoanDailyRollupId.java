@@ -0,0 +1,22 @@
+package com.toolrent.toolrent.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanDailyRollupId implements Serializable {
+  @Column(nullable = false)
+  private LocalDate startDay; // Fecha de inicio de los préstamos.
+
+  @Column(nullable = false)
+  private Long toolTypeId; // Tipo de herramienta (tool_types.id).
+}
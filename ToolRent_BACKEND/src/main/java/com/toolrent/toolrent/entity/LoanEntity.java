@@ -12,7 +12,18 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "loans")
+@Table(
+    name = "loans",
+    indexes = {
+      @Index(name = "idx_loans_delivered_created", columnList = "delivered, created_loan"),
+      @Index(name = "idx_loans_delivered_start", columnList = "delivered, start_date"),
+      @Index(name = "idx_loans_overdue_sweep", columnList = "delivered, scheduled_return_date, client_id"),
+      @Index(name = "idx_loans_status_due_start", columnList = "loan_status, scheduled_return_date, start_date"),
+      @Index(name = "idx_loans_client_delivered_due", columnList = "client_id, delivered, scheduled_return_date"),
+      @Index(name = "idx_loans_client_fine_paid", columnList = "client_id, is_fine_paid"),
+      @Index(name = "idx_loans_fine_paid", columnList = "is_fine_paid"),
+      @Index(name = "idx_loans_start_tool", columnList = "start_date, tool_id")
+    })
 @Data
 @Getter
 @NoArgsConstructor
@@ -0,0 +1,24 @@
+package com.toolrent.toolrent.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "overdue_sweep_checkpoint")
+@Data
+@NoArgsConstructor
+public class OverdueSweepCheckpointEntity {
+  @Id
+  @Column(nullable = false)
+  private LocalDate sweepDate; // Día para el que se calcularon los atrasos.
+
+  private long lastLoanId; // Último id de préstamo ya procesado.
+
+  private boolean completed;
+
+  private LocalDateTime updatedAt;
+}
@@ -0,0 +1,54 @@
+package com.toolrent.toolrent.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
+
+// Tipo de herramienta: nombre, categoría y tarifas compartidas por todas sus unidades
+@Entity
+@Table(
+    name = "tool_types",
+    uniqueConstraints =
+        @UniqueConstraint(
+            name = "uk_tool_types_name_category",
+            columnNames = {"name", "category"}))
+@BatchSize(size = 100)
+@Data
+@NoArgsConstructor
+public class ToolTypeEntity {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Column(unique = true, nullable = false)
+  private Long id;
+
+  @Column(nullable = false)
+  private String name;
+
+  @Column(nullable = false)
+  private String category;
+
+  private double replacementValue;
+  private double repairValue;
+  private double dailyRate;
+  private double dailyLateRate;
+
+  public ToolTypeEntity(String name, String category) {
+    this.name = name;
+    this.category = category;
+  }
+
+  public boolean hasSamePrices(ToolTypeEntity other) {
+    return Double.compare(replacementValue, other.replacementValue) == 0
+        && Double.compare(repairValue, other.repairValue) == 0
+        && Double.compare(dailyRate, other.dailyRate) == 0
+        && Double.compare(dailyLateRate, other.dailyLateRate) == 0;
+  }
+
+  public void copyPricesFrom(ToolTypeEntity other) {
+    replacementValue = other.replacementValue;
+    repairValue = other.repairValue;
+    dailyRate = other.dailyRate;
+    dailyLateRate = other.dailyLateRate;
+  }
+}
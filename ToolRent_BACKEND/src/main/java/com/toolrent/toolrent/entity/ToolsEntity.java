@@ -1,6 +1,7 @@
 package com.toolrent.toolrent.entity;
 
-import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -8,8 +9,20 @@ import lombok.NoArgsConstructor;
 
 import java.util.List;
 
+/**
+ * Unidad física de una herramienta. Nombre, categoría y tarifas viven en su ToolTypeEntity; los
+ * getters y setters de esos campos delegan en el tipo para que el JSON de /api/tools no cambie.
+ * Un tipo ya guardado es compartido y nunca se modifica desde una unidad: el primer setter lo
+ * reemplaza por una copia sin guardar. Los precios de un tipo se cambian con
+ * ToolsService.updateToolTypePrices y la unidad se mueve a otro tipo con setToolType.
+ */
 @Entity
-@Table(name = "tools")
+@Table(
+    name = "tools",
+    indexes = {
+      @Index(name = "idx_tools_status", columnList = "status"),
+      @Index(name = "idx_tools_type_status", columnList = "tool_type_id, status")
+    })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -19,20 +32,87 @@ public class ToolsEntity {
   @Column(unique = true, nullable = false)
   private Long id;
 
-  private String name;
-  private String category;
-  private double replacementValue;
-  private double repairValue;
-  private double dailyRate;
-  private double dailyLateRate;
+  @ManyToOne(optional = false)
+  @JoinColumn(name = "tool_type_id", nullable = false)
+  @JsonIgnore
+  private ToolTypeEntity toolType;
 
   @Enumerated(EnumType.STRING)
   private ToolStatus status;
 
+  // Fuera del JSON: la herramienta se sirve desde el catálogo en memoria, ya sin sesión abierta
   @OneToMany(mappedBy = "tool", cascade = CascadeType.ALL, orphanRemoval = true)
+  @JsonIgnore
   private List<LoanEntity> loans;
 
   @OneToMany(mappedBy = "tool", cascade = CascadeType.ALL, orphanRemoval = true)
-  @JsonManagedReference(value = "tool-kardex")
+  @JsonIgnore
   private List<KardexEntity> kardexMovements;
+
+  @JsonProperty("toolTypeId")
+  public Long getToolTypeId() {
+    return toolType == null ? null : toolType.getId();
+  }
+
+  public String getName() {
+    return toolType == null ? null : toolType.getName();
+  }
+
+  public void setName(String name) {
+    type().setName(name);
+  }
+
+  public String getCategory() {
+    return toolType == null ? null : toolType.getCategory();
+  }
+
+  public void setCategory(String category) {
+    type().setCategory(category);
+  }
+
+  public double getReplacementValue() {
+    return toolType == null ? 0 : toolType.getReplacementValue();
+  }
+
+  public void setReplacementValue(double replacementValue) {
+    type().setReplacementValue(replacementValue);
+  }
+
+  public double getRepairValue() {
+    return toolType == null ? 0 : toolType.getRepairValue();
+  }
+
+  public void setRepairValue(double repairValue) {
+    type().setRepairValue(repairValue);
+  }
+
+  public double getDailyRate() {
+    return toolType == null ? 0 : toolType.getDailyRate();
+  }
+
+  public void setDailyRate(double dailyRate) {
+    type().setDailyRate(dailyRate);
+  }
+
+  public double getDailyLateRate() {
+    return toolType == null ? 0 : toolType.getDailyLateRate();
+  }
+
+  public void setDailyLateRate(double dailyLateRate) {
+    type().setDailyLateRate(dailyLateRate);
+  }
+
+  // Unidad armada desde JSON o en pruebas: el tipo se crea al asignar el primer campo. Si el tipo
+  // ya está guardado se copia, para no cambiar las demás unidades; guardar la unidad con la copia
+  // falla en vez de repreciar el tipo
+  private ToolTypeEntity type() {
+    if (toolType == null) {
+      toolType = new ToolTypeEntity();
+    } else if (toolType.getId() != null) {
+      ToolTypeEntity copy = new ToolTypeEntity(toolType.getName(), toolType.getCategory());
+      copy.copyPricesFrom(toolType);
+      toolType = copy;
+    }
+    return toolType;
+  }
 }
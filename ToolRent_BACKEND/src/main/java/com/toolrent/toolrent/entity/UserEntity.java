@@ -8,31 +8,44 @@ import lombok.NoArgsConstructor;
 import java.util.List;
 
 @Entity
-@Table(name = "users")
+@Table(
+    name = "users",
+    uniqueConstraints = {
+      @UniqueConstraint(name = UserEntity.UK_RUT, columnNames = "rut"),
+      @UniqueConstraint(name = UserEntity.UK_USERNAME, columnNames = "username"),
+      @UniqueConstraint(name = UserEntity.UK_EMAIL, columnNames = "email"),
+      @UniqueConstraint(name = UserEntity.UK_PHONE_NUMBER, columnNames = "phone_number")
+    })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class UserEntity {
+  // Nombres de las restricciones únicas, para reconocer cuál falló al insertar
+  public static final String UK_RUT = "uk_users_rut";
+  public static final String UK_USERNAME = "uk_users_username";
+  public static final String UK_EMAIL = "uk_users_email";
+  public static final String UK_PHONE_NUMBER = "uk_users_phone_number";
+
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   @Column(unique = true, nullable = false)
   private Long id;
 
-  @Column(unique = true, nullable = false)
+  @Column(nullable = false)
   private String rut;
 
   private String name;
   private String lastName;
 
-  @Column(unique = true, nullable = false)
+  @Column(nullable = false)
   private String email;
 
-  @Column(unique = true, nullable = false)
+  @Column(nullable = false)
   private String phoneNumber;
 
   private String status;
 
-  @Column(unique = true, nullable = false)
+  @Column(nullable = false)
   private String username;
 
   private String role;
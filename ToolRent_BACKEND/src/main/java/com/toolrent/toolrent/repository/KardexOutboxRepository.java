@@ -0,0 +1,58 @@
+package com.toolrent.toolrent.repository;
+
+import com.toolrent.toolrent.entity.KardexOutboxEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface KardexOutboxRepository
+    extends JpaRepository<KardexOutboxEntity, Long>, KardexOutboxRepositoryCustom {
+
+  // Los más antiguos primero, bloqueados hasta el fin de la transacción: dos procesos que
+  // traspasan a la vez nunca toman las mismas filas
+  @Query(
+      value = "SELECT id FROM kardex_outbox ORDER BY id LIMIT :limit FOR UPDATE",
+      nativeQuery = true)
+  List<Long> lockOldestIds(@Param("limit") int limit);
+
+  // Sin bloquear: para recorrer fila por fila cuando un lote no se pudo traspasar
+  @Query(value = "SELECT id FROM kardex_outbox ORDER BY id LIMIT :limit", nativeQuery = true)
+  List<Long> findOldestIds(@Param("limit") int limit);
+
+  // Vacío si otro proceso ya la traspasó
+  @Query(value = "SELECT id FROM kardex_outbox WHERE id = :id FOR UPDATE", nativeQuery = true)
+  List<Long> lockId(@Param("id") Long id);
+
+  // Por lista de ids y no por rango: una transacción aún abierta puede tener un id menor
+  @Modifying
+  @Query(
+      value =
+          "INSERT INTO kardex (type, date_time, quantity, tool_id, loan_id, user_rut) "
+              + "SELECT type, date_time, quantity, tool_id, loan_id, user_rut "
+              + "FROM kardex_outbox WHERE id IN (:ids) ORDER BY id",
+      nativeQuery = true)
+  int copyToKardex(@Param("ids") List<Long> ids);
+
+  @Modifying
+  @Query(
+      value =
+          "INSERT INTO kardex_outbox_failed "
+              + "(id, type, date_time, quantity, tool_id, loan_id, user_rut, error, failed_at) "
+              + "SELECT id, type, date_time, quantity, tool_id, loan_id, user_rut, :error, :failedAt "
+              + "FROM kardex_outbox WHERE id IN (:ids)",
+      nativeQuery = true)
+  int copyToFailed(
+      @Param("ids") List<Long> ids,
+      @Param("error") String error,
+      @Param("failedAt") LocalDateTime failedAt);
+
+  @Modifying
+  @Query(value = "DELETE FROM kardex_outbox WHERE id IN (:ids)", nativeQuery = true)
+  int deleteByIds(@Param("ids") List<Long> ids);
+}
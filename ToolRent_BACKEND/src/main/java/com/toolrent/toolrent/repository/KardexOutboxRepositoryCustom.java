@@ -0,0 +1,14 @@
+package com.toolrent.toolrent.repository;
+
+import com.toolrent.toolrent.entity.KardexEntity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface KardexOutboxRepositoryCustom {
+  // Anotar movimientos en la bitácora en lotes JDBC
+  void append(List<KardexEntity> movements);
+
+  // Mismo tipo de movimiento para varias unidades
+  void appendMovements(String type, List<Long> toolIds, String userRut, LocalDateTime dateTime);
+}
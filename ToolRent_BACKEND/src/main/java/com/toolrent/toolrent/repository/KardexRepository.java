@@ -1,17 +1,25 @@
 package com.toolrent.toolrent.repository;
 
+import com.toolrent.toolrent.dto.KardexMovementDTO;
 import com.toolrent.toolrent.entity.KardexEntity;
 import com.toolrent.toolrent.entity.ToolsEntity;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
-public interface KardexRepository extends JpaRepository<KardexEntity, Long> {
+public interface KardexRepository
+    extends JpaRepository<KardexEntity, Long>, KardexRepositoryCustom {
 
   List<KardexEntity> findByTool(ToolsEntity tool);
 
@@ -27,4 +35,41 @@ public interface KardexRepository extends JpaRepository<KardexEntity, Long> {
       @Param("toolId") Long toolId,
       @Param("start") LocalDateTime start,
       @Param("end") LocalDateTime end);
+
+  String MOVEMENT_PROJECTION =
+      "SELECT new com.toolrent.toolrent.dto.KardexMovementDTO("
+          + "k.id, k.type, k.dateTime, k.quantity, t.id, tt.name, k.userRut) "
+          + "FROM KardexEntity k JOIN k.tool t JOIN t.toolType tt ";
+
+  String NEWEST_FIRST = "ORDER BY k.dateTime DESC, k.id DESC";
+
+  // Paginación por cursor (dateTime, id): movimientos anteriores al cursor
+  @Query(
+      MOVEMENT_PROJECTION
+          + "WHERE k.dateTime < :dateTime OR (k.dateTime = :dateTime AND k.id < :id) "
+          + NEWEST_FIRST)
+  List<KardexMovementDTO> findPageBefore(
+      @Param("dateTime") LocalDateTime dateTime, @Param("id") Long id, Pageable page);
+
+  @Query(
+      MOVEMENT_PROJECTION
+          + "WHERE k.dateTime BETWEEN :start AND :end "
+          + "AND (k.dateTime < :dateTime OR (k.dateTime = :dateTime AND k.id < :id)) "
+          + NEWEST_FIRST)
+  List<KardexMovementDTO> findPageBetweenBefore(
+      @Param("start") LocalDateTime start,
+      @Param("end") LocalDateTime end,
+      @Param("dateTime") LocalDateTime dateTime,
+      @Param("id") Long id,
+      Pageable page);
+
+  // Lectura por cursor JDBC para exportaciones, sin materializar la lista completa
+  @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+  @Query(MOVEMENT_PROJECTION + NEWEST_FIRST)
+  Stream<KardexMovementDTO> streamAll();
+
+  @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+  @Query(MOVEMENT_PROJECTION + "WHERE k.dateTime BETWEEN :start AND :end " + NEWEST_FIRST)
+  Stream<KardexMovementDTO> streamByDateRange(
+      @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
 }
@@ -0,0 +1,14 @@
+package com.toolrent.toolrent.repository;
+
+import com.toolrent.toolrent.entity.KardexEntity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface KardexRepositoryCustom {
+  // Registrar el mismo tipo de movimiento para varias unidades en lotes JDBC
+  void insertMovements(String type, List<Long> toolIds, String userRut, LocalDateTime dateTime);
+
+  // Insertar movimientos ya armados (con su préstamo, si tienen) en lotes JDBC
+  void insertAll(List<KardexEntity> movements);
+}
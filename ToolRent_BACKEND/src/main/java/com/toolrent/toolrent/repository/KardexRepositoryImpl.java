@@ -0,0 +1,61 @@
+package com.toolrent.toolrent.repository;
+
+import com.toolrent.toolrent.entity.KardexEntity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class KardexRepositoryImpl implements KardexRepositoryCustom {
+
+  private static final int BATCH_SIZE = 500;
+
+  private static final String INSERT_MOVEMENT =
+      "INSERT INTO kardex (type, date_time, quantity, tool_id, user_rut) VALUES (?, ?, 1, ?, ?)";
+
+  private static final String INSERT_ENTRY =
+      "INSERT INTO kardex (type, date_time, quantity, tool_id, loan_id, user_rut) "
+          + "VALUES (?, ?, ?, ?, ?, ?)";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  @Override
+  public void insertMovements(
+      String type, List<Long> toolIds, String userRut, LocalDateTime dateTime) {
+    Timestamp timestamp = Timestamp.valueOf(dateTime);
+    jdbcTemplate.batchUpdate(
+        INSERT_MOVEMENT,
+        toolIds,
+        BATCH_SIZE,
+        (ps, toolId) -> {
+          ps.setString(1, type);
+          ps.setTimestamp(2, timestamp);
+          ps.setLong(3, toolId);
+          ps.setString(4, userRut);
+        });
+  }
+
+  @Override
+  public void insertAll(List<KardexEntity> movements) {
+    jdbcTemplate.batchUpdate(
+        INSERT_ENTRY,
+        movements,
+        BATCH_SIZE,
+        (ps, movement) -> {
+          ps.setString(1, movement.getType());
+          ps.setTimestamp(2, Timestamp.valueOf(movement.getDateTime()));
+          ps.setInt(3, movement.getQuantity());
+          ps.setLong(4, movement.getTool().getId());
+          if (movement.getLoan() != null && movement.getLoan().getId() != null) {
+            ps.setLong(5, movement.getLoan().getId());
+          } else {
+            ps.setNull(5, Types.BIGINT);
+          }
+          ps.setString(6, movement.getUserRut());
+        });
+  }
+}
@@ -0,0 +1,157 @@
+package com.toolrent.toolrent.repository;
+
+import com.toolrent.toolrent.dto.LoanReportSummaryDTO;
+import com.toolrent.toolrent.dto.ToolRankingDTO;
+import com.toolrent.toolrent.entity.LoanDailyRollupEntity;
+import com.toolrent.toolrent.entity.LoanDailyRollupId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface LoanDailyRollupRepository
+    extends JpaRepository<LoanDailyRollupEntity, LoanDailyRollupId> {
+  // Préstamos de un tramo del proceso de atrasos que pasan a ATRASADO en este pase
+  String NEWLY_OVERDUE_IN_RANGE =
+      "l.id > :afterId AND l.id <= :upToId "
+          + "AND l.delivered = false "
+          + "AND l.scheduled_return_date < :today "
+          + "AND (l.loan_status IS NULL OR l.loan_status <> 'ATRASADO') ";
+
+  // Sumar (o restar) a los contadores de un día y tipo de herramienta, creando la fila si no existe.
+  // Dos sentencias en vez de ON DUPLICATE KEY UPDATE ... VALUES(col), obsoleto desde MySQL 8.0.20 y
+  // cuyo reemplazo (INSERT ... AS alias) H2 no entiende: la fila en cero se crea sin tocar la
+  // existente y el UPDATE suma sobre la fila ya bloqueada
+  default void addCounts(
+      LocalDate startDay, Long toolTypeId, long started, long active, long overdue) {
+    insertZeroRow(startDay, toolTypeId);
+    incrementCounts(startDay, toolTypeId, started, active, overdue);
+  }
+
+  @Modifying
+  @Query(
+      value =
+          "INSERT INTO loan_daily_rollup "
+              + "(start_day, tool_type_id, loans_started, active_loans, overdue_loans) "
+              + "VALUES (:startDay, :toolTypeId, 0, 0, 0) "
+              + "ON DUPLICATE KEY UPDATE loans_started = loans_started",
+      nativeQuery = true)
+  int insertZeroRow(@Param("startDay") LocalDate startDay, @Param("toolTypeId") Long toolTypeId);
+
+  @Modifying
+  @Query(
+      value =
+          "UPDATE loan_daily_rollup SET "
+              + "loans_started = loans_started + :started, "
+              + "active_loans = active_loans + :active, "
+              + "overdue_loans = overdue_loans + :overdue "
+              + "WHERE start_day = :startDay AND tool_type_id = :toolTypeId",
+      nativeQuery = true)
+  int incrementCounts(
+      @Param("startDay") LocalDate startDay,
+      @Param("toolTypeId") Long toolTypeId,
+      @Param("started") long started,
+      @Param("active") long active,
+      @Param("overdue") long overdue);
+
+  // Contar los préstamos de un tramo del proceso de atrasos que pasan a ATRASADO.
+  // Debe ejecutarse antes de LoanRepository.markOverdueLoansInRange y en la misma transacción.
+  default void addNewlyOverdueInRange(LocalDate today, Long afterId, Long upToId) {
+    insertZeroRowsForNewlyOverdue(today, afterId, upToId);
+    incrementNewlyOverdue(today, afterId, upToId);
+  }
+
+  @Modifying
+  @Query(
+      value =
+          "INSERT INTO loan_daily_rollup "
+              + "(start_day, tool_type_id, loans_started, active_loans, overdue_loans) "
+              + "SELECT l.start_date, t.tool_type_id, 0, 0, 0 "
+              + "FROM loans l JOIN tools t ON t.id = l.tool_id "
+              + "WHERE " + NEWLY_OVERDUE_IN_RANGE
+              + "GROUP BY l.start_date, t.tool_type_id "
+              + "ON DUPLICATE KEY UPDATE overdue_loans = overdue_loans",
+      nativeQuery = true)
+  int insertZeroRowsForNewlyOverdue(
+      @Param("today") LocalDate today,
+      @Param("afterId") Long afterId,
+      @Param("upToId") Long upToId);
+
+  // Solo las filas de los días del tramo; cada una suma sus préstamos por una subconsulta acotada
+  // al rango de ids (clave primaria)
+  @Modifying
+  @Query(
+      value =
+          "UPDATE loan_daily_rollup r SET overdue_loans = overdue_loans + ("
+              + "SELECT COUNT(*) FROM loans l JOIN tools t ON t.id = l.tool_id "
+              + "WHERE " + NEWLY_OVERDUE_IN_RANGE
+              + "AND l.start_date = r.start_day AND t.tool_type_id = r.tool_type_id) "
+              + "WHERE r.start_day IN ("
+              + "SELECT l.start_date FROM loans l WHERE " + NEWLY_OVERDUE_IN_RANGE + ")",
+      nativeQuery = true)
+  int incrementNewlyOverdue(
+      @Param("today") LocalDate today,
+      @Param("afterId") Long afterId,
+      @Param("upToId") Long upToId);
+
+  @Modifying
+  @Query(value = "DELETE FROM loan_daily_rollup", nativeQuery = true)
+  int deleteAllRows();
+
+  // Recalcular todos los totales desde la tabla de préstamos
+  @Modifying
+  @Query(
+      value =
+          "INSERT INTO loan_daily_rollup "
+              + "(start_day, tool_type_id, loans_started, active_loans, overdue_loans) "
+              + "SELECT l.start_date, t.tool_type_id, COUNT(*), "
+              + "SUM(CASE WHEN l.delivered = false THEN 1 ELSE 0 END), "
+              + "SUM(CASE WHEN l.loan_status = 'ATRASADO' THEN 1 ELSE 0 END) "
+              + "FROM loans l JOIN tools t ON t.id = l.tool_id "
+              + "GROUP BY l.start_date, t.tool_type_id",
+      nativeQuery = true)
+  int insertFromLoans();
+
+  // Herramientas más prestadas en el rango, de mayor a menor
+  @Query(
+      "SELECT new com.toolrent.toolrent.dto.ToolRankingDTO(tt.id, tt.name, SUM(r.loansStarted)) "
+          + "FROM LoanDailyRollupEntity r JOIN ToolTypeEntity tt ON tt.id = r.id.toolTypeId "
+          + "WHERE r.id.startDay BETWEEN :startDate AND :endDate "
+          + "GROUP BY tt.id, tt.name "
+          + "HAVING SUM(r.loansStarted) > 0 "
+          + "ORDER BY SUM(r.loansStarted) DESC")
+  List<ToolRankingDTO> sumLoansByToolType(
+      @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+  @Query(
+      "SELECT new com.toolrent.toolrent.dto.ToolRankingDTO(tt.id, tt.name, SUM(r.loansStarted)) "
+          + "FROM LoanDailyRollupEntity r JOIN ToolTypeEntity tt ON tt.id = r.id.toolTypeId "
+          + "GROUP BY tt.id, tt.name "
+          + "HAVING SUM(r.loansStarted) > 0")
+  List<ToolRankingDTO> sumLoansByToolTypeAllTime();
+
+  // Filas diarias desde una fecha, para sembrar el ranking de tendencia
+  @Query(
+      "SELECT r FROM LoanDailyRollupEntity r "
+          + "WHERE r.id.startDay >= :since AND r.loansStarted > 0")
+  List<LoanDailyRollupEntity> findStartedSince(@Param("since") LocalDate since);
+
+  @Query(
+      "SELECT new com.toolrent.toolrent.dto.LoanReportSummaryDTO("
+          + "SUM(r.loansStarted), SUM(r.activeLoans), SUM(r.overdueLoans)) "
+          + "FROM LoanDailyRollupEntity r "
+          + "WHERE r.id.startDay BETWEEN :startDate AND :endDate")
+  LoanReportSummaryDTO sumBetween(
+      @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+  @Query(
+      "SELECT new com.toolrent.toolrent.dto.LoanReportSummaryDTO("
+          + "SUM(r.loansStarted), SUM(r.activeLoans), SUM(r.overdueLoans)) "
+          + "FROM LoanDailyRollupEntity r")
+  LoanReportSummaryDTO sumAllTime();
+}
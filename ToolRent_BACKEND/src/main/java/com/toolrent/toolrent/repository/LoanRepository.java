@@ -1,56 +1,125 @@
 package com.toolrent.toolrent.repository;
 
+import com.toolrent.toolrent.dto.ClientLoanStateDTO;
+import com.toolrent.toolrent.dto.LoanDayCountsDTO;
+import com.toolrent.toolrent.dto.LoanSummaryDTO;
 import com.toolrent.toolrent.entity.LoanEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface LoanRepository extends JpaRepository<LoanEntity, Long> {
-  // Traer préstamos activos (no entregados) ordenados por fecha de creación descendente
+public interface LoanRepository
+    extends JpaRepository<LoanEntity, Long>,
+        JpaSpecificationExecutor<LoanEntity>,
+        LoanRepositoryCustom {
+  // Listados: una sola consulta con join a herramienta y cliente, sin cargar entidades
+  String SUMMARY_PROJECTION =
+      "SELECT new com.toolrent.toolrent.dto.LoanSummaryDTO("
+          + "l.id, t.id, tt.name, tt.category, "
+          + "c.id, c.rut, c.name, c.lastName, c.email, c.phoneNumber, c.username, "
+          + "l.startDate, l.scheduledReturnDate, l.returnDate, l.delivered, l.loanStatus, "
+          + "l.fine, l.loanPrice, l.damagePrice, l.fineTotal, l.total, l.finePaid, l.createdLoan) "
+          + "FROM LoanEntity l JOIN l.tool t JOIN t.toolType tt LEFT JOIN l.client c ";
+
+  @Query(SUMMARY_PROJECTION + "ORDER BY l.id")
+  List<LoanSummaryDTO> findAllSummaries();
+
+  // Préstamos de una unidad agrupados por día de inicio (para moverla de tipo en loan_daily_rollup)
   @Query(
-      "SELECT l "
-          + "FROM LoanEntity l "
-          + "WHERE l.delivered = false "
-          + "ORDER BY l.createdLoan DESC")
-  List<LoanEntity> findActiveLoansOrderedByDateDesc();
+      "SELECT new com.toolrent.toolrent.dto.LoanDayCountsDTO(l.startDate, COUNT(l), "
+          + "SUM(CASE WHEN l.delivered = false THEN 1 ELSE 0 END), "
+          + "SUM(CASE WHEN l.loanStatus = 'ATRASADO' THEN 1 ELSE 0 END)) "
+          + "FROM LoanEntity l WHERE l.tool.id = :toolId GROUP BY l.startDate")
+  List<LoanDayCountsDTO> countByStartDayForTool(@Param("toolId") Long toolId);
+
+  // Traer préstamos activos (no entregados) ordenados por fecha de creación descendente
+  @Query(SUMMARY_PROJECTION + "WHERE l.delivered = false ORDER BY l.createdLoan DESC")
+  List<LoanSummaryDTO> findActiveSummariesOrderedByDateDesc();
 
   @Query(
-      "SELECT l FROM LoanEntity l "
+      SUMMARY_PROJECTION
           + "WHERE l.delivered = false "
           + "AND l.startDate BETWEEN :startDate AND :endDate")
-  List<LoanEntity> findActiveLoansByDateRange(LocalDate startDate, LocalDate endDate);
+  List<LoanSummaryDTO> findActiveSummariesByDateRange(LocalDate startDate, LocalDate endDate);
 
   @Query(
-      "SELECT l FROM LoanEntity l "
+      SUMMARY_PROJECTION
           + "WHERE l.loanStatus = 'ATRASADO' "
           + "AND l.scheduledReturnDate < :today")
-  List<LoanEntity> findOverdueLoans(LocalDate today);
+  List<LoanSummaryDTO> findOverdueSummaries(LocalDate today);
 
   @Query(
-      "SELECT l FROM LoanEntity l "
+      SUMMARY_PROJECTION
           + "WHERE l.loanStatus = 'ATRASADO' "
           + "AND l.scheduledReturnDate < :today "
           + "AND l.startDate BETWEEN :startDate AND :endDate")
-  List<LoanEntity> findOverdueLoansByDate(LocalDate today, LocalDate startDate, LocalDate endDate);
+  List<LoanSummaryDTO> findOverdueSummariesByDate(
+      LocalDate today, LocalDate startDate, LocalDate endDate);
+
+  @Query(SUMMARY_PROJECTION + "WHERE l.finePaid = false")
+  List<LoanSummaryDTO> findUnpaidSummaries();
+
+  // Tipos de herramienta que el cliente tiene prestados ahora
+  @Query(
+      "SELECT t.toolType.id FROM LoanEntity l JOIN l.tool t "
+          + "WHERE l.client.id = :clientId AND l.delivered = false")
+  List<Long> findActiveToolTypeIds(Long clientId);
 
+  // Préstamos que cuentan en la cuenta de un cliente: los activos y los que tienen multa impaga
   @Query(
-      "SELECT l.tool.name, COUNT(l) "
-          + "FROM LoanEntity l "
-          + "WHERE l.startDate BETWEEN :startDate AND :endDate "
-          + "GROUP BY l.tool.name "
-          + "ORDER BY COUNT(l) DESC")
-  List<Object[]> findTopLentToolsByName(LocalDate startDate, LocalDate endDate);
+      "SELECT new com.toolrent.toolrent.dto.ClientLoanStateDTO("
+          + "l.id, l.delivered, l.scheduledReturnDate, t.toolType.id, l.finePaid, l.fine, l.damagePrice) "
+          + "FROM LoanEntity l JOIN l.tool t "
+          + "WHERE l.client.id = :clientId "
+          + "AND (l.delivered = false OR (l.finePaid = false AND (l.fine > 0 OR l.damagePrice > 0)))")
+  List<ClientLoanStateDTO> findAccountLoans(Long clientId);
 
+  // Préstamos de una devolución múltiple con su unidad, tipo y cliente, en una sola consulta
   @Query(
-      "SELECT l.tool.name, COUNT(l) "
-          + "FROM LoanEntity l "
-          + "GROUP BY l.tool.name "
-          + "ORDER BY COUNT(l) DESC")
-  List<Object[]> findTopLentToolsAllTime();
+      "SELECT l FROM LoanEntity l JOIN FETCH l.tool t JOIN FETCH t.toolType "
+          + "LEFT JOIN FETCH l.client WHERE l.id IN :ids")
+  List<LoanEntity> findAllForReturn(Collection<Long> ids);
 
-  List<LoanEntity> findByFinePaidFalse();
+  // Marcar como devueltos, sin daño, los que aún no lo estaban; el total queda en precio + multa.
+  // Devuelve cuántos cambió: si es menos que los ids, otro proceso devolvió alguno antes. Deja el
+  // contexto de persistencia vacío: las entidades leídas antes pasan a ser solo valores
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(
+      "UPDATE LoanEntity l "
+          + "SET l.delivered = true, l.returnDate = :today, l.loanStatus = 'DEVUELTO', "
+          + "l.damagePrice = 0, l.fineTotal = l.fine, l.total = l.loanPrice + l.fine "
+          + "WHERE l.id IN :ids AND l.delivered = false")
+  int markReturnedIn(Collection<Long> ids, LocalDate today);
+
+  // Ids de préstamos vencidos y no entregados, por tramos para el proceso nocturno
+  @Query(
+      "SELECT l.id FROM LoanEntity l "
+          + "WHERE l.delivered = false "
+          + "AND l.scheduledReturnDate < :today "
+          + "AND l.id > :afterId "
+          + "ORDER BY l.id")
+  List<Long> findOverdueLoanIdsAfter(LocalDate today, Long afterId, Pageable chunk);
+
+  // Marcar como ATRASADO y calcular la multa (días de atraso * tarifa diaria) en un solo UPDATE
+  @Modifying
+  @Transactional
+  @Query(
+      "UPDATE LoanEntity l "
+          + "SET l.loanStatus = 'ATRASADO', "
+          + "l.fine = ((:today - l.scheduledReturnDate) by day) "
+          + "* (SELECT t.toolType.dailyLateRate FROM ToolsEntity t WHERE t.id = l.tool.id) "
+          + "WHERE l.id > :afterId AND l.id <= :upToId "
+          + "AND l.delivered = false "
+          + "AND l.scheduledReturnDate < :today")
+  int markOverdueLoansInRange(LocalDate today, Long afterId, Long upToId);
 }
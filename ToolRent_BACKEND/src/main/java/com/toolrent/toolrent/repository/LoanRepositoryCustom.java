@@ -0,0 +1,13 @@
+package com.toolrent.toolrent.repository;
+
+import com.toolrent.toolrent.entity.LoanEntity;
+
+import java.util.List;
+
+public interface LoanRepositoryCustom {
+  // Insertar préstamos nuevos en lotes JDBC y asignarles el id generado
+  void insertLoans(List<LoanEntity> loans);
+
+  // Escribir en lotes JDBC el cobro por daño (y los totales) de préstamos ya devueltos
+  void updateDamages(List<LoanEntity> loans);
+}
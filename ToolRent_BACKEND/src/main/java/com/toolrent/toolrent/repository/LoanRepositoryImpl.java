@@ -0,0 +1,89 @@
+package com.toolrent.toolrent.repository;
+
+import com.toolrent.toolrent.entity.LoanEntity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class LoanRepositoryImpl implements LoanRepositoryCustom {
+
+  private static final int BATCH_SIZE = 500;
+
+  private static final String INSERT_LOAN =
+      "INSERT INTO loans (tool_id, client_id, start_date, scheduled_return_date, delivered, "
+          + "loan_status, fine, loan_price, damage_price, fine_total, total, is_fine_paid, "
+          + "created_loan) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+  private static final String UPDATE_DAMAGE =
+      "UPDATE loans SET damage_price = ?, fine_total = ?, total = ? WHERE id = ?";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  @Override
+  public void insertLoans(List<LoanEntity> loans) {
+    for (int done = 0; done < loans.size(); done += BATCH_SIZE) {
+      List<LoanEntity> batch = loans.subList(done, Math.min(loans.size(), done + BATCH_SIZE));
+      KeyHolder keys = new GeneratedKeyHolder();
+      jdbcTemplate.batchUpdate(
+          con -> con.prepareStatement(INSERT_LOAN, new String[] {"id"}),
+          new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+              LoanEntity loan = batch.get(i);
+              ps.setLong(1, loan.getTool().getId());
+              if (loan.getClient() != null) {
+                ps.setLong(2, loan.getClient().getId());
+              } else {
+                ps.setNull(2, Types.BIGINT);
+              }
+              ps.setDate(3, Date.valueOf(loan.getStartDate()));
+              ps.setDate(4, Date.valueOf(loan.getScheduledReturnDate()));
+              ps.setBoolean(5, loan.isDelivered());
+              ps.setString(6, loan.getLoanStatus());
+              ps.setDouble(7, loan.getFine());
+              ps.setDouble(8, loan.getLoanPrice());
+              ps.setDouble(9, loan.getDamagePrice());
+              ps.setDouble(10, loan.getFineTotal());
+              ps.setDouble(11, loan.getTotal());
+              ps.setBoolean(12, loan.isFinePaid());
+              ps.setTimestamp(13, Timestamp.valueOf(loan.getCreatedLoan()));
+            }
+
+            @Override
+            public int getBatchSize() {
+              return batch.size();
+            }
+          },
+          keys);
+      List<Map<String, Object>> ids = keys.getKeyList();
+      for (int i = 0; i < batch.size(); i++) {
+        batch.get(i).setId(((Number) ids.get(i).values().iterator().next()).longValue());
+      }
+    }
+  }
+
+  @Override
+  public void updateDamages(List<LoanEntity> loans) {
+    jdbcTemplate.batchUpdate(
+        UPDATE_DAMAGE,
+        loans,
+        BATCH_SIZE,
+        (ps, loan) -> {
+          ps.setDouble(1, loan.getDamagePrice());
+          ps.setDouble(2, loan.getFineTotal());
+          ps.setDouble(3, loan.getTotal());
+          ps.setLong(4, loan.getId());
+        });
+  }
+}
@@ -0,0 +1,62 @@
+package com.toolrent.toolrent.repository;
+
+import com.toolrent.toolrent.dto.LoanFilterDTO;
+import com.toolrent.toolrent.entity.LoanEntity;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+
+// Filtros de los listados paginados de préstamos; un filtro sin valor no restringe
+public final class LoanSpecifications {
+
+  private LoanSpecifications() {}
+
+  public static Specification<LoanEntity> matching(LoanFilterDTO filter) {
+    if (filter == null) {
+      return Specification.allOf();
+    }
+    return Specification.allOf(
+        hasStatus(filter.getStatus()),
+        hasClient(filter.getClientId()),
+        startsBetween(filter.getStartDate(), filter.getEndDate()));
+  }
+
+  public static Specification<LoanEntity> hasStatus(String status) {
+    if (status == null || status.isBlank()) {
+      return null;
+    }
+    return (root, query, cb) -> cb.equal(root.get("loanStatus"), status);
+  }
+
+  public static Specification<LoanEntity> hasClient(Long clientId) {
+    if (clientId == null) {
+      return null;
+    }
+    return (root, query, cb) -> cb.equal(root.get("client").get("id"), clientId);
+  }
+
+  // Fecha de inicio dentro del rango; cualquiera de los dos extremos puede faltar
+  public static Specification<LoanEntity> startsBetween(LocalDate from, LocalDate to) {
+    if (from == null && to == null) {
+      return null;
+    }
+    return (root, query, cb) -> {
+      if (from == null) {
+        return cb.lessThanOrEqualTo(root.get("startDate"), to);
+      }
+      if (to == null) {
+        return cb.greaterThanOrEqualTo(root.get("startDate"), from);
+      }
+      return cb.between(root.get("startDate"), from, to);
+    };
+  }
+
+  public static Specification<LoanEntity> notDelivered() {
+    return (root, query, cb) -> cb.isFalse(root.get("delivered"));
+  }
+
+  // Igual que findUnpaidSummaries
+  public static Specification<LoanEntity> finePending() {
+    return (root, query, cb) -> cb.isFalse(root.get("finePaid"));
+  }
+}
@@ -0,0 +1,11 @@
+package com.toolrent.toolrent.repository;
+
+import com.toolrent.toolrent.entity.OverdueSweepCheckpointEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+
+@Repository
+public interface OverdueSweepCheckpointRepository
+    extends JpaRepository<OverdueSweepCheckpointEntity, LocalDate> {}
@@ -0,0 +1,32 @@
+package com.toolrent.toolrent.repository;
+
+import com.toolrent.toolrent.entity.ToolStatus;
+import com.toolrent.toolrent.entity.ToolsEntity;
+import org.springframework.data.jpa.domain.Specification;
+
+// Filtros de los listados paginados de unidades; un filtro sin valor no restringe
+public final class ToolSpecifications {
+
+  private ToolSpecifications() {}
+
+  public static Specification<ToolsEntity> hasStatus(ToolStatus status) {
+    if (status == null) {
+      return null;
+    }
+    return (root, query, cb) -> cb.equal(root.get("status"), status);
+  }
+
+  public static Specification<ToolsEntity> ofType(Long toolTypeId) {
+    if (toolTypeId == null) {
+      return null;
+    }
+    return (root, query, cb) -> cb.equal(root.get("toolType").get("id"), toolTypeId);
+  }
+
+  public static Specification<ToolsEntity> inCategory(String category) {
+    if (category == null || category.isBlank()) {
+      return null;
+    }
+    return (root, query, cb) -> cb.equal(root.get("toolType").get("category"), category);
+  }
+}
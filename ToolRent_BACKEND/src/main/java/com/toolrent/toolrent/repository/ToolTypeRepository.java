@@ -0,0 +1,13 @@
+package com.toolrent.toolrent.repository;
+
+import com.toolrent.toolrent.entity.ToolTypeEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ToolTypeRepository extends JpaRepository<ToolTypeEntity, Long> {
+  // Un tipo por nombre y categoría (restricción única uk_tool_types_name_category)
+  Optional<ToolTypeEntity> findByNameAndCategory(String name, String category);
+}
@@ -1,25 +1,61 @@
 package com.toolrent.toolrent.repository;
 
+import com.toolrent.toolrent.dto.ToolStockDTO;
 import com.toolrent.toolrent.entity.ToolStatus;
 import com.toolrent.toolrent.entity.ToolsEntity;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 
 @Repository
-public interface ToolsRepository extends JpaRepository<ToolsEntity, Long> {
-  // Buscar la primera herramienta disponible por nombre
-  Optional<ToolsEntity> findByIdAndStatus(Long id, ToolStatus status);
+public interface ToolsRepository
+    extends JpaRepository<ToolsEntity, Long>,
+        ToolsRepositoryCustom,
+        JpaSpecificationExecutor<ToolsEntity> {
+  // Stock por tipo de herramienta en una sola consulta agrupada
+  @Query(
+      "SELECT new com.toolrent.toolrent.dto.ToolStockDTO(tt.id, tt.name, tt.category, "
+          + "COUNT(CASE WHEN t.status = com.toolrent.toolrent.entity.ToolStatus.DISPONIBLE THEN 1 END), "
+          + "COUNT(CASE WHEN t.status = com.toolrent.toolrent.entity.ToolStatus.PRESTADA THEN 1 END), "
+          + "COUNT(CASE WHEN t.status = com.toolrent.toolrent.entity.ToolStatus.EN_REPARACION THEN 1 END), "
+          + "COUNT(CASE WHEN t.status = com.toolrent.toolrent.entity.ToolStatus.DADA_DE_BAJA THEN 1 END)) "
+          + "FROM ToolsEntity t JOIN t.toolType tt "
+          + "GROUP BY tt.id, tt.name, tt.category "
+          + "ORDER BY tt.name, tt.category")
+  List<ToolStockDTO> findToolsStock();
 
-  @Query("SELECT DISTINCT t.name, t.category FROM ToolsEntity t")
-  List<Object[]> findDistinctNameAndCategory();
+  // Cambio de estado condicional: solo afecta la fila si sigue en el estado esperado
+  @Modifying
+  @Query("UPDATE ToolsEntity t SET t.status = :newStatus WHERE t.id = :id AND t.status = :expected")
+  int updateStatusIfCurrent(Long id, ToolStatus expected, ToolStatus newStatus);
 
-  int countByNameAndCategoryAndStatus(String name, String category, ToolStatus status);
+  // Lo mismo para varias unidades en una sola sentencia. Deja el contexto de persistencia vacío:
+  // las unidades cargadas antes quedarían con el estado anterior
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(
+      "UPDATE ToolsEntity t SET t.status = :newStatus "
+          + "WHERE t.id IN :ids AND t.status = :expected")
+  int updateStatusIfCurrentIn(Collection<Long> ids, ToolStatus expected, ToolStatus newStatus);
+
+  // Unidades con su tipo, bloqueadas hasta el fin de la transacción; en orden de id para que dos
+  // solicitudes con unidades en común no se bloqueen mutuamente
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT t FROM ToolsEntity t JOIN FETCH t.toolType WHERE t.id IN :ids ORDER BY t.id")
+  List<ToolsEntity> findAllByIdForUpdate(Collection<Long> ids);
 
   List<ToolsEntity> findByStatus(ToolStatus status);
 
-  List<ToolsEntity> findByNameAndCategory(String name, String category);
+  // Solo ids, para el índice por estado del catálogo en memoria
+  @Query("SELECT t.id FROM ToolsEntity t ORDER BY t.id")
+  List<Long> findAllIds();
+
+  @Query("SELECT t.id FROM ToolsEntity t WHERE t.status = :status ORDER BY t.id")
+  List<Long> findIdsByStatus(ToolStatus status);
 }
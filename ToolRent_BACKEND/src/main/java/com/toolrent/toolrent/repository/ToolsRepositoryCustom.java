@@ -0,0 +1,10 @@
+package com.toolrent.toolrent.repository;
+
+import com.toolrent.toolrent.entity.ToolStatus;
+
+import java.util.List;
+
+public interface ToolsRepositoryCustom {
+  // Insertar varias unidades de un tipo en lotes JDBC y devolver sus ids en orden
+  List<Long> insertUnits(Long toolTypeId, ToolStatus status, int quantity);
+}
@@ -0,0 +1,53 @@
+package com.toolrent.toolrent.repository;
+
+import com.toolrent.toolrent.entity.ToolStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class ToolsRepositoryImpl implements ToolsRepositoryCustom {
+
+  private static final int BATCH_SIZE = 500;
+
+  private static final String INSERT_UNIT =
+      "INSERT INTO tools (tool_type_id, status) VALUES (?, ?)";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  @Override
+  public List<Long> insertUnits(Long toolTypeId, ToolStatus status, int quantity) {
+    List<Long> ids = new ArrayList<>(quantity);
+    for (int done = 0; done < quantity; done += BATCH_SIZE) {
+      int batch = Math.min(BATCH_SIZE, quantity - done);
+      KeyHolder keys = new GeneratedKeyHolder();
+      jdbcTemplate.batchUpdate(
+          con -> con.prepareStatement(INSERT_UNIT, new String[] {"id"}),
+          new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+              ps.setLong(1, toolTypeId);
+              ps.setString(2, status.name());
+            }
+
+            @Override
+            public int getBatchSize() {
+              return batch;
+            }
+          },
+          keys);
+      for (Map<String, Object> row : keys.getKeyList()) {
+        ids.add(((Number) row.values().iterator().next()).longValue());
+      }
+    }
+    return ids;
+  }
+}
@@ -1,45 +1,75 @@
 package com.toolrent.toolrent.repository;
 
+import com.toolrent.toolrent.dto.ClientEligibilityDTO;
+import com.toolrent.toolrent.dto.UserKeyConflictsDTO;
 import com.toolrent.toolrent.entity.UserEntity;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<UserEntity, Long> {
+public interface UserRepository
+    extends JpaRepository<UserEntity, Long>,
+        JpaSpecificationExecutor<UserEntity>,
+        UserRepositoryCustom {
+  // Qué claves únicas ya usa otro usuario (id null = usuario nuevo); cada condición del OR usa su
+  // índice único
   @Query(
-      "SELECT COUNT(l) "
-          + "FROM LoanEntity l "
-          + "WHERE l.client.id = :userId "
-          + "AND l.delivered = false")
-  long countActiveLoans(@Param("userId") Long userId);
+      "SELECT new com.toolrent.toolrent.dto.UserKeyConflictsDTO("
+          + "COUNT(CASE WHEN u.rut = :rut THEN 1 END), "
+          + "COUNT(CASE WHEN u.username = :username THEN 1 END), "
+          + "COUNT(CASE WHEN u.email = :email THEN 1 END), "
+          + "COUNT(CASE WHEN u.phoneNumber = :phoneNumber THEN 1 END)) "
+          + "FROM UserEntity u "
+          + "WHERE (u.rut = :rut OR u.username = :username "
+          + "OR u.email = :email OR u.phoneNumber = :phoneNumber) "
+          + "AND (:id IS NULL OR u.id <> :id)")
+  UserKeyConflictsDTO findKeyConflicts(
+      @Param("id") Long id,
+      @Param("rut") String rut,
+      @Param("username") String username,
+      @Param("email") String email,
+      @Param("phoneNumber") String phoneNumber);
 
-  @Query(
-      "SELECT COUNT(l) "
-          + "FROM LoanEntity l "
-          + "WHERE l.client.id = :clientId "
-          + "AND l.tool.name = :toolName "
-          + "AND l.delivered = false")
-  int countActiveLoansByToolName(
-      @Param("clientId") Long clientId, @Param("toolName") String toolName);
-
-  Optional<UserEntity> findByRut(String rut);
-
-  Optional<UserEntity> findByUsername(String username);
-
-  Optional<UserEntity> findByEmail(String email);
-
-  Optional<UserEntity> findByPhoneNumber(String phoneNumber);
+  // Bloquea la fila del cliente hasta el fin de la transacción: los préstamos de un mismo cliente se
+  // crean de a uno, así los límites contados después no cambian antes del INSERT
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT u FROM UserEntity u WHERE u.id = :id")
+  Optional<UserEntity> findByIdForUpdate(@Param("id") Long id);
 
+  // Todas las validaciones de préstamo del cliente en una sola consulta, leídas de la base de datos;
+  // toolId null deja sameTypeActiveLoans en 0
   @Query(
-      "SELECT COUNT(l) FROM LoanEntity l WHERE l.client.id = :userId AND l.finePaid = false AND (l.fine > 0 OR l.damagePrice > 0)")
-  long countUnpaidLoansByUserId(@Param("userId") Long userId);
+      "SELECT new com.toolrent.toolrent.dto.ClientEligibilityDTO(u.status, "
+          + "(SELECT COUNT(a) FROM LoanEntity a "
+          + "WHERE a.client.id = u.id AND a.delivered = false), "
+          + "(SELECT COUNT(p) FROM LoanEntity p "
+          + "WHERE p.client.id = u.id AND p.finePaid = false AND (p.fine > 0 OR p.damagePrice > 0)), "
+          + "(SELECT COUNT(o) FROM LoanEntity o "
+          + "WHERE o.client.id = u.id AND o.delivered = false AND o.scheduledReturnDate < :today), "
+          + "(SELECT COUNT(d) FROM LoanEntity d "
+          + "WHERE d.client.id = u.id AND d.delivered = false "
+          + "AND d.tool.toolType.id = (SELECT t.toolType.id FROM ToolsEntity t WHERE t.id = :toolId))) "
+          + "FROM UserEntity u WHERE u.id = :userId")
+  Optional<ClientEligibilityDTO> findClientEligibility(
+      @Param("userId") Long userId, @Param("toolId") Long toolId, @Param("today") LocalDate today);
 
+  // Restringir en una sola sentencia a todos los clientes con préstamos vencidos
+  @Modifying
+  @Transactional
   @Query(
-      "SELECT COUNT(l) FROM LoanEntity l WHERE l.client.id = :userId AND l.delivered = false AND l.scheduledReturnDate < :today")
-  long countOverdueLoansByUserId(@Param("userId") Long userId, @Param("today") LocalDate today);
+      "UPDATE UserEntity u SET u.status = 'RESTRINGIDO' "
+          + "WHERE (u.status IS NULL OR UPPER(u.status) <> 'RESTRINGIDO') "
+          + "AND u.id IN (SELECT l.client.id FROM LoanEntity l "
+          + "WHERE l.delivered = false AND l.scheduledReturnDate < :today)")
+  int restrictClientsWithOverdueLoans(@Param("today") LocalDate today);
 }
@@ -0,0 +1,16 @@
+package com.toolrent.toolrent.repository;
+
+import com.toolrent.toolrent.entity.UserEntity;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface UserRepositoryCustom {
+  // Recorrer rut, usuario, correo y teléfono de todos los usuarios (solo esos campos), por cursor
+  void forEachUniqueKey(Consumer<UserEntity> consumer);
+
+  // Insertar usuarios en lotes JDBC; todo o nada
+  @Transactional
+  void insertUsers(List<UserEntity> users);
+}
@@ -0,0 +1,62 @@
+package com.toolrent.toolrent.repository;
+
+import com.toolrent.toolrent.entity.UserEntity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.function.Consumer;
+
+@RequiredArgsConstructor
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+  private static final int BATCH_SIZE = 500;
+
+  private static final int FETCH_SIZE = 1000;
+
+  private static final String SELECT_UNIQUE_KEYS =
+      "SELECT rut, username, email, phone_number FROM users";
+
+  private static final String INSERT_USER =
+      "INSERT INTO users (rut, name, last_name, email, phone_number, status, username, role) "
+          + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  @Override
+  public void forEachUniqueKey(Consumer<UserEntity> consumer) {
+    jdbcTemplate.query(
+        con -> {
+          PreparedStatement ps = con.prepareStatement(SELECT_UNIQUE_KEYS);
+          ps.setFetchSize(FETCH_SIZE);
+          return ps;
+        },
+        rs -> {
+          UserEntity keys = new UserEntity();
+          keys.setRut(rs.getString(1));
+          keys.setUsername(rs.getString(2));
+          keys.setEmail(rs.getString(3));
+          keys.setPhoneNumber(rs.getString(4));
+          consumer.accept(keys);
+        });
+  }
+
+  @Override
+  public void insertUsers(List<UserEntity> users) {
+    jdbcTemplate.batchUpdate(
+        INSERT_USER,
+        users,
+        BATCH_SIZE,
+        (ps, user) -> {
+          ps.setString(1, user.getRut());
+          ps.setString(2, user.getName());
+          ps.setString(3, user.getLastName());
+          ps.setString(4, user.getEmail());
+          ps.setString(5, user.getPhoneNumber());
+          ps.setString(6, user.getStatus());
+          ps.setString(7, user.getUsername());
+          ps.setString(8, user.getRole());
+        });
+  }
+}
@@ -0,0 +1,18 @@
+package com.toolrent.toolrent.repository;
+
+import com.toolrent.toolrent.entity.UserEntity;
+import org.springframework.data.jpa.domain.Specification;
+
+// Filtros de los listados paginados de usuarios; un filtro sin valor no restringe
+public final class UserSpecifications {
+
+  private UserSpecifications() {}
+
+  // Estado sin distinguir mayúsculas ("Activo", "RESTRINGIDO")
+  public static Specification<UserEntity> hasStatus(String status) {
+    if (status == null || status.isBlank()) {
+      return null;
+    }
+    return (root, query, cb) -> cb.equal(cb.upper(root.get("status")), status.toUpperCase());
+  }
+}
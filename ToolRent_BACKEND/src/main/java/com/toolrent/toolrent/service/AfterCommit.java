@@ -0,0 +1,24 @@
+package com.toolrent.toolrent.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Ejecutar una acción solo cuando la transacción en curso se confirma (o de inmediato si no hay)
+final class AfterCommit {
+
+  private AfterCommit() {}
+
+  static void run(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              action.run();
+            }
+          });
+    } else {
+      action.run();
+    }
+  }
+}
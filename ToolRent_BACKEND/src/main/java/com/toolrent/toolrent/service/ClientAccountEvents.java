@@ -0,0 +1,57 @@
+package com.toolrent.toolrent.service;
+
+import com.toolrent.toolrent.dto.ClientLoanStateDTO;
+import com.toolrent.toolrent.entity.LoanEntity;
+
+import java.time.LocalDate;
+
+/**
+ * Eventos de dominio sobre la cuenta de un cliente. LoanService y UserService los publican dentro de
+ * su transacción y ClientAccountState los aplica una vez confirmada. Cada evento lleva el estado
+ * completo de lo que cambió (no un delta), así aplicarlo dos veces no descuadra los contadores.
+ */
+public final class ClientAccountEvents {
+
+  private ClientAccountEvents() {}
+
+  // Estado actual de un préstamo del cliente (creado, devuelto o con el pago de la multa cambiado)
+  public record LoanChanged(
+      Long clientId,
+      Long loanId,
+      boolean active,
+      LocalDate scheduledReturnDate,
+      Long toolTypeId,
+      boolean finePending) {
+
+    public static LoanChanged of(LoanEntity loan) {
+      return new LoanChanged(
+          loan.getClient().getId(),
+          loan.getId(),
+          !loan.isDelivered(),
+          loan.getScheduledReturnDate(),
+          loan.getTool() == null ? null : loan.getTool().getToolTypeId(),
+          finePending(loan.isFinePaid(), loan.getFine(), loan.getDamagePrice()));
+    }
+
+    public static LoanChanged of(Long clientId, ClientLoanStateDTO loan) {
+      return new LoanChanged(
+          clientId,
+          loan.getLoanId(),
+          !loan.isDelivered(),
+          loan.getScheduledReturnDate(),
+          loan.getToolTypeId(),
+          finePending(loan.isFinePaid(), loan.getFine(), loan.getDamagePrice()));
+    }
+
+    // Misma condición que /unpaid: multa o daño sin pagar
+    private static boolean finePending(boolean finePaid, double fine, double damagePrice) {
+      return !finePaid && (fine > 0 || damagePrice > 0);
+    }
+  }
+
+  // Nuevo estado del cliente (ACTIVO, RESTRINGIDO...)
+  public record StatusChanged(Long clientId, String status) {}
+
+  // Cambio masivo con sentencias por conjuntos (proceso de atrasos): las cuentas se releen
+  public record AllChanged() {}
+}
@@ -0,0 +1,185 @@
+package com.toolrent.toolrent.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.toolrent.toolrent.dto.ClientLoanStateDTO;
+import com.toolrent.toolrent.entity.UserEntity;
+import com.toolrent.toolrent.repository.LoanRepository;
+import com.toolrent.toolrent.repository.UserRepository;
+import com.toolrent.toolrent.service.ClientAccountEvents.AllChanged;
+import com.toolrent.toolrent.service.ClientAccountEvents.LoanChanged;
+import com.toolrent.toolrent.service.ClientAccountEvents.StatusChanged;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Cuenta de cada cliente en memoria: estado, préstamos activos (con vencimiento y tipo de
+ * herramienta) y préstamos con multa impaga. Se carga desde la base de datos la primera vez que se
+ * consulta un cliente y luego la mantienen los eventos de ClientAccountEvents, así validar un
+ * préstamo no hace consultas COUNT. Los atrasos se cuentan al leer comparando vencimientos con la
+ * fecha del día (a lo más 5 préstamos activos). Cada ttl-ms desde la carga la cuenta se relee para
+ * corregir cualquier desvío.
+ */
+@Component
+@RequiredArgsConstructor
+public class ClientAccountState implements MeterBinder {
+
+  private final UserRepository userRepository;
+
+  private final LoanRepository loanRepository;
+
+  @Value("${toolrent.accounts.max-size:10000}")
+  private long maxSize;
+
+  @Value("${toolrent.accounts.ttl-ms:600000}")
+  private long ttlMillis;
+
+  private Cache<Long, Account> accounts;
+
+  // Préstamo activo: lo necesario para contar atrasos y préstamos de un mismo tipo
+  public record OpenLoan(LocalDate scheduledReturnDate, Long toolTypeId) {}
+
+  // Foto inmutable de la cuenta; los eventos la reemplazan por una copia
+  public record Account(String status, Map<Long, OpenLoan> openLoans, Set<Long> unpaidLoanIds) {
+
+    public int activeLoans() {
+      return openLoans.size();
+    }
+
+    public long overdueLoans(LocalDate today) {
+      return openLoans.values().stream()
+          .filter(l -> l.scheduledReturnDate() != null && l.scheduledReturnDate().isBefore(today))
+          .count();
+    }
+
+    public int unpaidLoans() {
+      return unpaidLoanIds.size();
+    }
+
+    public long activeLoansOfType(Long toolTypeId) {
+      return openLoans.values().stream()
+          .filter(l -> Objects.equals(l.toolTypeId(), toolTypeId))
+          .count();
+    }
+
+    Account with(LoanChanged event) {
+      Map<Long, OpenLoan> open = new HashMap<>(openLoans);
+      Set<Long> unpaid = new HashSet<>(unpaidLoanIds);
+      put(open, unpaid, event);
+      return new Account(status, Map.copyOf(open), Set.copyOf(unpaid));
+    }
+
+    Account withStatus(String newStatus) {
+      return new Account(newStatus, openLoans, unpaidLoanIds);
+    }
+
+    private static void put(Map<Long, OpenLoan> open, Set<Long> unpaid, LoanChanged event) {
+      if (event.active()) {
+        open.put(event.loanId(), new OpenLoan(event.scheduledReturnDate(), event.toolTypeId()));
+      } else {
+        open.remove(event.loanId());
+      }
+      if (event.finePending()) {
+        unpaid.add(event.loanId());
+      } else {
+        unpaid.remove(event.loanId());
+      }
+    }
+  }
+
+  // Cuenta del cliente; solo consulta la base de datos si no estaba cargada
+  public Account get(Long clientId) {
+    return accounts().get(clientId, this::load);
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void on(LoanChanged event) {
+    if (event.clientId() == null || event.loanId() == null) {
+      return;
+    }
+    // Si la cuenta no está cargada no hay nada que mover: la próxima lectura la trae al día
+    accounts().asMap().computeIfPresent(event.clientId(), (id, account) -> account.with(event));
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void on(StatusChanged event) {
+    if (event.clientId() == null) {
+      return;
+    }
+    accounts()
+        .asMap()
+        .computeIfPresent(event.clientId(), (id, account) -> account.withStatus(event.status()));
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void on(AllChanged event) {
+    accounts().invalidateAll();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    CaffeineCacheMetrics.monitor(registry, accounts(), "clientAccounts");
+  }
+
+  // Corre dentro del cómputo de Caffeine para el cliente: un evento que llega mientras tanto espera
+  // a que termine la carga y se aplica sobre ella
+  private Account load(Long clientId) {
+    UserEntity user =
+        userRepository
+            .findById(clientId)
+            .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+    Map<Long, OpenLoan> open = new HashMap<>();
+    Set<Long> unpaid = new HashSet<>();
+    for (ClientLoanStateDTO loan : loanRepository.findAccountLoans(clientId)) {
+      Account.put(open, unpaid, LoanChanged.of(clientId, loan));
+    }
+    return new Account(user.getStatus(), Map.copyOf(open), Set.copyOf(unpaid));
+  }
+
+  private synchronized Cache<Long, Account> accounts() {
+    if (accounts == null) {
+      accounts =
+          Caffeine.newBuilder()
+              .maximumSize(maxSize)
+              .expireAfter(sinceLoad(Duration.ofMillis(ttlMillis)))
+              .recordStats()
+              .build();
+    }
+    return accounts;
+  }
+
+  // Vence ttl después de la carga; aplicar un evento no renueva el plazo
+  private static Expiry<Long, Account> sinceLoad(Duration ttl) {
+    return new Expiry<>() {
+      @Override
+      public long expireAfterCreate(Long key, Account value, long currentTime) {
+        return ttl.toNanos();
+      }
+
+      @Override
+      public long expireAfterUpdate(
+          Long key, Account value, long currentTime, long currentDuration) {
+        return currentDuration;
+      }
+
+      @Override
+      public long expireAfterRead(Long key, Account value, long currentTime, long currentDuration) {
+        return currentDuration;
+      }
+    };
+  }
+}
@@ -0,0 +1,116 @@
+package com.toolrent.toolrent.service;
+
+import com.toolrent.toolrent.entity.KardexEntity;
+import com.toolrent.toolrent.repository.KardexOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bitácora de movimientos de kardex (tabla kardex_outbox). Los movimientos de una transacción se
+ * juntan en memoria y se anotan con un solo lote JDBC justo antes del commit, así quedan
+ * confirmados o descartados junto con la operación. Después flushBatch los traspasa a kardex en
+ * lotes, fuera de la transacción de la petición. Si un lote falla por una fila que kardex no
+ * acepta, se traspasa fila por fila y la que falla se aparta en kardex_outbox_failed.
+ */
+@Service
+@RequiredArgsConstructor
+public class KardexOutboxService {
+
+  // Clave de los movimientos pendientes de la transacción en curso
+  private static final Object PENDING_KEY = new Object();
+
+  private final KardexOutboxRepository outboxRepository;
+
+  public void enqueue(KardexEntity movement) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      outboxRepository.append(List.of(movement));
+      return;
+    }
+    pendingMovements().add(movement);
+  }
+
+  public void enqueueAll(List<KardexEntity> movements) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      outboxRepository.append(movements);
+      return;
+    }
+    pendingMovements().addAll(movements);
+  }
+
+  public void appendMovements(
+      String type, List<Long> toolIds, String userRut, LocalDateTime dateTime) {
+    outboxRepository.appendMovements(type, toolIds, userRut, dateTime);
+  }
+
+  // Traspasar a kardex hasta limit movimientos, los más antiguos primero; en su propia transacción
+  // para que funcione también desde una lectura readOnly
+  @Transactional(propagation = Propagation.REQUIRES_NEW)
+  public int flushBatch(int limit) {
+    List<Long> ids = outboxRepository.lockOldestIds(limit);
+    if (ids.isEmpty()) {
+      return 0;
+    }
+    outboxRepository.copyToKardex(ids);
+    outboxRepository.deleteByIds(ids);
+    return ids.size();
+  }
+
+  public List<Long> findOldestIds(int limit) {
+    return outboxRepository.findOldestIds(limit);
+  }
+
+  // Traspasar un solo movimiento en su propia transacción; false si ya no estaba en la bitácora
+  @Transactional(propagation = Propagation.REQUIRES_NEW)
+  public boolean flushOne(Long id) {
+    if (outboxRepository.lockId(id).isEmpty()) {
+      return false;
+    }
+    List<Long> ids = List.of(id);
+    outboxRepository.copyToKardex(ids);
+    outboxRepository.deleteByIds(ids);
+    return true;
+  }
+
+  // Apartar un movimiento que no se puede traspasar, para que no detenga a los siguientes
+  @Transactional(propagation = Propagation.REQUIRES_NEW)
+  public void deadLetter(Long id, String error) {
+    List<Long> ids = List.of(id);
+    String message = error == null ? null : error.substring(0, Math.min(error.length(), 1000));
+    outboxRepository.copyToFailed(ids, message, LocalDateTime.now());
+    outboxRepository.deleteByIds(ids);
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<KardexEntity> pendingMovements() {
+    List<KardexEntity> pending =
+        (List<KardexEntity>) TransactionSynchronizationManager.getResource(PENDING_KEY);
+    if (pending != null) {
+      return pending;
+    }
+
+    List<KardexEntity> movements = new ArrayList<>();
+    TransactionSynchronizationManager.bindResource(PENDING_KEY, movements);
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void beforeCommit(boolean readOnly) {
+            // Los ids de préstamo se leen recién aquí, cuando ya fueron asignados
+            outboxRepository.append(movements);
+          }
+
+          @Override
+          public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(PENDING_KEY);
+          }
+        });
+    return movements;
+  }
+}
@@ -1,37 +1,238 @@
 package com.toolrent.toolrent.service;
 
+import com.toolrent.toolrent.dto.KardexMovementDTO;
+import com.toolrent.toolrent.dto.KardexPageDTO;
 import com.toolrent.toolrent.entity.KardexEntity;
 import com.toolrent.toolrent.entity.ToolsEntity;
 import com.toolrent.toolrent.repository.KardexRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+@Slf4j
 @Service
+@Timed("toolrent.service")
 @RequiredArgsConstructor
 public class KardexService {
 
   private final KardexRepository kardexRepository;
 
+  private final KardexOutboxService kardexOutboxService;
+
+  // Con la bitácora activa los movimientos llegan a kardex en segundo plano, en lotes
+  @Value("${toolrent.kardex.outbox.enabled:false}")
+  private boolean outboxEnabled;
+
+  @Value("${toolrent.kardex.outbox.batch-size:500}")
+  private int outboxBatchSize;
+
+  // Traspasar lo pendiente antes de cada lectura, para ver los movimientos recién registrados. Apagado
+  // por defecto: cada lectura esperaría el traspaso (flushLock y FOR UPDATE) y las lecturas quedarían
+  // en fila; sin él, un movimiento aparece en kardex hasta flush-interval-ms después de confirmarse
+  @Value("${toolrent.kardex.outbox.read-your-writes:false}")
+  private boolean readYourWrites;
+
+  private static final int MAX_PAGE_SIZE = 1000;
+
+  // Un solo traspaso a la vez (proceso periódico o lecturas); lock y no synchronized para no fijar
+  // el hilo portador mientras se espera a la base de datos con hilos virtuales
+  private final ReentrantLock flushLock = new ReentrantLock();
+
+  // Cursor inicial: más reciente que cualquier movimiento registrado
+  private static final LocalDateTime NEWEST_DATE_TIME = LocalDateTime.of(9999, 12, 31, 23, 59);
+
+  // Con la bitácora activa el movimiento devuelto aún no tiene id
   public KardexEntity save(KardexEntity movement) {
+    if (outboxEnabled) {
+      kardexOutboxService.enqueue(movement);
+      return movement;
+    }
     return kardexRepository.save(movement);
   }
 
+  // Varios movimientos ya armados (p. ej. PRESTAMO de un préstamo múltiple), en lotes JDBC
+  public void saveAll(List<KardexEntity> movements) {
+    if (outboxEnabled) {
+      kardexOutboxService.enqueueAll(movements);
+      return;
+    }
+    kardexRepository.insertAll(movements);
+  }
+
+  // Mismo movimiento para varias unidades (p. ej. INGRESO de un lote), insertado en lotes JDBC
+  public void registerMovements(String type, List<Long> toolIds, String rut) {
+    if (outboxEnabled) {
+      kardexOutboxService.appendMovements(type, toolIds, rut, LocalDateTime.now());
+      return;
+    }
+    kardexRepository.insertMovements(type, toolIds, rut, LocalDateTime.now());
+  }
+
+  // Traspasar la bitácora a kardex por lotes hasta vaciarla
+  @Scheduled(fixedDelayString = "${toolrent.kardex.outbox.flush-interval-ms:1000}")
+  public int flushOutbox() {
+    if (!outboxEnabled) {
+      return 0;
+    }
+    int batchSize = Math.max(1, outboxBatchSize);
+    int total = 0;
+    int moved;
+    flushLock.lock();
+    try {
+      do {
+        moved = flushBatch(batchSize);
+        total += moved;
+      } while (moved == batchSize);
+    } finally {
+      flushLock.unlock();
+    }
+    return total;
+  }
+
+  private int flushBatch(int batchSize) {
+    try {
+      return kardexOutboxService.flushBatch(batchSize);
+    } catch (DataIntegrityViolationException e) {
+      // Alguna fila del lote no entra en kardex: se sigue de a una para apartar solo esa
+      log.warn("Lote de la bitácora de kardex rechazado, se traspasa fila por fila");
+      return flushOneByOne(batchSize);
+    }
+  }
+
+  private int flushOneByOne(int batchSize) {
+    List<Long> ids = kardexOutboxService.findOldestIds(batchSize);
+    for (Long id : ids) {
+      try {
+        kardexOutboxService.flushOne(id);
+      } catch (DataIntegrityViolationException e) {
+        log.error("Movimiento {} de la bitácora de kardex apartado: {}", id, e.getMessage());
+        kardexOutboxService.deadLetter(id, e.getMostSpecificCause().getMessage());
+      }
+    }
+    return ids.size();
+  }
+
+  private void catchUp() {
+    if (!outboxEnabled || !readYourWrites) {
+      return;
+    }
+    try {
+      flushOutbox();
+    } catch (RuntimeException e) {
+      // Se responde con lo que ya está en kardex; el proceso periódico reintentará
+      log.warn("No se pudo traspasar la bitácora de kardex antes de leer: {}", e.getMessage());
+    }
+  }
+
   public List<KardexEntity> getMovementsByTool(ToolsEntity tool) {
+    catchUp();
     return kardexRepository.findByTool(tool);
   }
 
   public List<KardexEntity> getMovementsByDateRange(LocalDateTime start, LocalDateTime end) {
+    catchUp();
     return kardexRepository.findByDateTimeBetween(start, end);
   }
 
   public List<KardexEntity> getAll() {
+    catchUp();
     return kardexRepository.findAllByOrderByDateTimeDesc();
   }
 
   public List<KardexEntity> getFilteredKardex(Long toolId, LocalDateTime start, LocalDateTime end) {
+    catchUp();
     return kardexRepository.findByToolAndDateRange(toolId, start, end);
   }
+
+  // Página de movimientos (más recientes primero) a partir de un cursor opaco
+  public KardexPageDTO getPage(String cursor, int size) {
+    Cursor position = decodeCursor(cursor);
+    catchUp();
+    PageRequest page = PageRequest.of(0, clampSize(size));
+    List<KardexMovementDTO> items =
+        kardexRepository.findPageBefore(position.dateTime(), position.id(), page);
+    return toPage(items, page.getPageSize());
+  }
+
+  public KardexPageDTO getPageByDateRange(
+      LocalDateTime start, LocalDateTime end, String cursor, int size) {
+    Cursor position = decodeCursor(cursor);
+    catchUp();
+    PageRequest page = PageRequest.of(0, clampSize(size));
+    List<KardexMovementDTO> items =
+        kardexRepository.findPageBetweenBefore(
+            start, end, position.dateTime(), position.id(), page);
+    return toPage(items, page.getPageSize());
+  }
+
+  // Recorrer todos los movimientos fila a fila desde un cursor JDBC
+  @Transactional(readOnly = true)
+  public void streamAll(Consumer<KardexMovementDTO> consumer) {
+    catchUp();
+    try (Stream<KardexMovementDTO> movements = kardexRepository.streamAll()) {
+      movements.forEach(consumer);
+    }
+  }
+
+  @Transactional(readOnly = true)
+  public void streamByDateRange(
+      LocalDateTime start, LocalDateTime end, Consumer<KardexMovementDTO> consumer) {
+    catchUp();
+    try (Stream<KardexMovementDTO> movements = kardexRepository.streamByDateRange(start, end)) {
+      movements.forEach(consumer);
+    }
+  }
+
+  private static int clampSize(int size) {
+    return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+  }
+
+  private static KardexPageDTO toPage(List<KardexMovementDTO> items, int size) {
+    String nextCursor = null;
+    if (items.size() == size) {
+      KardexMovementDTO last = items.get(items.size() - 1);
+      nextCursor = encodeCursor(last.getDateTime(), last.getId());
+    }
+    return new KardexPageDTO(items, nextCursor);
+  }
+
+  static String encodeCursor(LocalDateTime dateTime, Long id) {
+    String raw = dateTime + "_" + id;
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static Cursor decodeCursor(String cursor) {
+    if (cursor == null || cursor.isBlank()) {
+      return new Cursor(NEWEST_DATE_TIME, Long.MAX_VALUE);
+    }
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      int separator = raw.lastIndexOf('_');
+      return new Cursor(
+          LocalDateTime.parse(raw.substring(0, separator)),
+          Long.parseLong(raw.substring(separator + 1)));
+    } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+      throw new IllegalArgumentException("Cursor de kardex inválido");
+    }
+  }
+
+  // Posición (dateTime, id) del último movimiento entregado
+  private record Cursor(LocalDateTime dateTime, Long id) {}
 }
@@ -0,0 +1,131 @@
+package com.toolrent.toolrent.service;
+
+import com.toolrent.toolrent.dto.LoanDayCountsDTO;
+import com.toolrent.toolrent.dto.LoanReportSummaryDTO;
+import com.toolrent.toolrent.dto.ToolRankingDTO;
+import com.toolrent.toolrent.entity.LoanEntity;
+import com.toolrent.toolrent.repository.LoanDailyRollupRepository;
+import com.toolrent.toolrent.repository.LoanRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reportes por rango de fechas servidos desde loan_daily_rollup, una fila por día de inicio y
+ * tipo de herramienta. Los contadores se ajustan en la misma transacción que el cambio del
+ * préstamo (creación, devolución, paso a ATRASADO), así que un reporte es una suma sobre pocas filas
+ * en vez de un recorrido con GROUP BY sobre loans.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LoanReportService {
+
+  private final LoanDailyRollupRepository rollupRepository;
+
+  private final LoanRepository loanRepository;
+
+  public void loanCreated(LoanEntity loan) {
+    rollupRepository.addCounts(loan.getStartDate(), toolTypeId(loan), 1, 1, 0);
+  }
+
+  // Varios préstamos nuevos: una actualización por día de inicio y tipo de herramienta
+  public void loansCreated(List<LoanEntity> loans) {
+    Map<LocalDate, Map<Long, Long>> counts = new HashMap<>();
+    for (LoanEntity loan : loans) {
+      counts
+          .computeIfAbsent(loan.getStartDate(), k -> new HashMap<>())
+          .merge(toolTypeId(loan), 1L, Long::sum);
+    }
+    counts.forEach(
+        (day, byType) ->
+            byType.forEach((typeId, n) -> rollupRepository.addCounts(day, typeId, n, n, 0)));
+  }
+
+  public void loanReturned(LoanEntity loan, boolean wasOverdue) {
+    rollupRepository.addCounts(loan.getStartDate(), toolTypeId(loan), 0, -1, wasOverdue ? -1 : 0);
+  }
+
+  // Devolución múltiple: un solo ajuste por día y tipo; overdueLoanIds son los que estaban atrasados
+  public void loansReturned(List<LoanEntity> loans, Set<Long> overdueLoanIds) {
+    Map<LocalDate, Map<Long, long[]>> counts = new HashMap<>();
+    for (LoanEntity loan : loans) {
+      long[] activeAndOverdue =
+          counts
+              .computeIfAbsent(loan.getStartDate(), k -> new HashMap<>())
+              .computeIfAbsent(toolTypeId(loan), k -> new long[2]);
+      activeAndOverdue[0]--;
+      if (overdueLoanIds.contains(loan.getId())) {
+        activeAndOverdue[1]--;
+      }
+    }
+    counts.forEach(
+        (day, byType) ->
+            byType.forEach(
+                (typeId, n) -> rollupRepository.addCounts(day, typeId, 0, n[0], n[1])));
+  }
+
+  // Un tramo del proceso de atrasos: contar los que pasan a ATRASADO y luego marcarlos
+  @Transactional
+  public int markOverdueChunk(LocalDate today, long afterId, long upToId) {
+    rollupRepository.addNewlyOverdueInRange(today, afterId, upToId);
+    return loanRepository.markOverdueLoansInRange(today, afterId, upToId);
+  }
+
+  // Una unidad cambió de tipo: sus préstamos se restan de las filas del tipo anterior y se suman a
+  // las del nuevo, sin tocar las demás filas. Devuelve los contadores movidos por día.
+  public List<LoanDayCountsDTO> unitMoved(Long toolId, Long oldTypeId, Long newTypeId) {
+    List<LoanDayCountsDTO> days = loanRepository.countByStartDayForTool(toolId);
+    for (LoanDayCountsDTO d : days) {
+      if (oldTypeId != null) {
+        rollupRepository.addCounts(
+            d.getStartDay(), oldTypeId, -d.getLoansStarted(), -d.getActiveLoans(),
+            -d.getOverdueLoans());
+      }
+      rollupRepository.addCounts(
+          d.getStartDay(), newTypeId, d.getLoansStarted(), d.getActiveLoans(),
+          d.getOverdueLoans());
+    }
+    return days;
+  }
+
+  // Recalcular todos los totales desde loans (p. ej. para corregir un desvío)
+  @Transactional
+  public int rebuild() {
+    rollupRepository.deleteAllRows();
+    int rows = rollupRepository.insertFromLoans();
+    log.info("Totales diarios de préstamos recalculados: {} filas", rows);
+    return rows;
+  }
+
+  public List<ToolRankingDTO> getTopTools(LocalDate startDate, LocalDate endDate) {
+    return rollupRepository.sumLoansByToolType(startDate, endDate);
+  }
+
+  public LoanReportSummaryDTO getSummary(LocalDate startDate, LocalDate endDate) {
+    LoanReportSummaryDTO summary = rollupRepository.sumBetween(startDate, endDate);
+    if (summary == null) {
+      summary = new LoanReportSummaryDTO(0L, 0L, 0L);
+    }
+    summary.setStartDate(startDate);
+    summary.setEndDate(endDate);
+    return summary;
+  }
+
+  // Totales sin filtro de fechas (préstamos activos y atrasados de hoy)
+  public LoanReportSummaryDTO getTotals() {
+    LoanReportSummaryDTO totals = rollupRepository.sumAllTime();
+    return totals == null ? new LoanReportSummaryDTO(0L, 0L, 0L) : totals;
+  }
+
+  private static Long toolTypeId(LoanEntity loan) {
+    return loan.getTool() == null ? null : loan.getTool().getToolTypeId();
+  }
+}
@@ -1,18 +1,50 @@
 package com.toolrent.toolrent.service;
 
+import com.toolrent.toolrent.dto.BulkLoanItemDTO;
+import com.toolrent.toolrent.dto.BulkLoanRequestDTO;
+import com.toolrent.toolrent.dto.BulkLoanResultDTO;
+import com.toolrent.toolrent.dto.BulkReturnEntryDTO;
+import com.toolrent.toolrent.dto.BulkReturnItemDTO;
+import com.toolrent.toolrent.dto.BulkReturnResultDTO;
+import com.toolrent.toolrent.dto.ClientEligibilityDTO;
+import com.toolrent.toolrent.dto.LoanFilterDTO;
+import com.toolrent.toolrent.dto.LoanReportSummaryDTO;
+import com.toolrent.toolrent.dto.LoanSummaryDTO;
+import com.toolrent.toolrent.dto.OverdueSweepProgressDTO;
+import com.toolrent.toolrent.dto.PageDTO;
+import com.toolrent.toolrent.dto.ToolRankingDTO;
 import com.toolrent.toolrent.entity.*;
 import com.toolrent.toolrent.repository.LoanRepository;
-import jakarta.annotation.PostConstruct;
+import com.toolrent.toolrent.repository.LoanSpecifications;
+import com.toolrent.toolrent.service.ClientAccountEvents.AllChanged;
+import com.toolrent.toolrent.service.ClientAccountEvents.LoanChanged;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
+@Timed("toolrent.service")
 @RequiredArgsConstructor
 public class LoanService {
 
@@ -24,7 +56,43 @@ public class LoanService {
 
   private final KardexService kardexService;
 
-  @Transactional
+  private final ToolStockView toolStockView;
+
+  private final OverdueSweepService overdueSweepService;
+
+  private final LoanReportService loanReportService;
+
+  private final ToolLeaderboard toolLeaderboard;
+
+  private final ToolCatalogCache toolCatalog;
+
+  private final ClientAccountState accountState;
+
+  private final ApplicationEventPublisher events;
+
+  private static final int MAX_ACTIVE_LOANS = 5;
+
+  private static final String ACTIVE_LIMIT_MESSAGE =
+      "El usuario ya tiene 5 prestamos activos no puede tomar otro prestamo.";
+
+  private static final String SAME_TOOL_MESSAGE =
+      "El usuario ya tiene el máximo de préstamos permitidos para esta herramienta";
+
+  // Campos por los que se pueden ordenar los listados paginados
+  private static final Map<String, String> SORTABLE =
+      Map.of(
+          "id", "id",
+          "startDate", "startDate",
+          "scheduledReturnDate", "scheduledReturnDate",
+          "returnDate", "returnDate",
+          "createdLoan", "createdLoan",
+          "loanStatus", "loanStatus",
+          "total", "total",
+          "fineTotal", "fineTotal");
+
+  // READ_COMMITTED: las cifras leídas tras bloquear al cliente deben ver los préstamos que otra
+  // transacción confirmó mientras esperábamos el bloqueo, no una foto tomada antes
+  @Transactional(isolation = Isolation.READ_COMMITTED)
   public LoanEntity createLoan(LoanEntity loan, String rut) {
 
     if (loan.getClient() == null) {
@@ -37,42 +105,33 @@ public class LoanService {
     Long userId = loan.getClient().getId();
     Long toolUnitId = loan.getTool().getId();
 
-    // Verificar que no tenga más de 5 préstamos activos
-    userService.checkActiveLoans(userId);
-
-    // Validar cliente adicional
-    validateClient(userId);
+    // Cuenta del cliente en memoria: solo rechaza rápido, puede estar desfasada (local a esta
+    // instancia y sin ver préstamos concurrentes)
+    ClientAccountState.Account account = accountState.get(userId);
+    validateLimits(account.status(), account.activeLoans(), account.unpaidLoans(),
+        account.overdueLoans(LocalDate.now()));
 
     // Validar fechas
-    if (loan.getStartDate() == null || loan.getScheduledReturnDate() == null) {
-      throw new IllegalArgumentException("Se deben ingresar fechas de préstamo y devolución");
-    }
-    if (loan.getScheduledReturnDate().isBefore(loan.getStartDate())) {
-      throw new IllegalArgumentException(
-          "La fecha de devolución no puede ser anterior a la fecha de entrega");
-    }
+    validateDates(loan.getStartDate(), loan.getScheduledReturnDate());
 
-    // Obtener unidad disponible desde ToolsService
-    ToolsEntity availableUnit = toolsService.getAvailableTool(toolUnitId);
+    // Validación definitiva: cliente bloqueado y cifras leídas de la base de datos
+    ClientEligibilityDTO eligibility = userService.lockForLoan(userId, toolUnitId);
+    validateLimits(eligibility.getStatus(), eligibility.getActiveLoans(),
+        eligibility.getUnpaidLoans(), eligibility.getOverdueLoans());
 
-    // Marcar la unidad como prestada
-    toolsService.loanTool(toolUnitId);
+    // Marcar la unidad como prestada (UPDATE condicional, falla si ya no está disponible)
+    ToolsEntity availableUnit = toolsService.checkoutTool(toolUnitId);
 
     // Asociar la unidad al préstamo
     loan.setTool(availableUnit);
 
     // Verificar que no tenga un préstamo activo de la misma herramienta
-    userService.checkDuplicateToolLoan(userId, loan.getTool().getName());
+    if (eligibility.getSameTypeActiveLoans() >= 1) {
+      throw new IllegalStateException(SAME_TOOL_MESSAGE);
+    }
 
     // Calcular el precio del pretamo
-    long days =
-        java.time.temporal.ChronoUnit.DAYS.between(
-            loan.getStartDate(), loan.getScheduledReturnDate());
-    if (days <= 0) {
-      days = 1; // mínimo 1 día de cobro
-    }
-    double price = days * availableUnit.getDailyRate();
-    loan.setLoanPrice(price);
+    loan.setLoanPrice(loanPrice(loan.getStartDate(), loan.getScheduledReturnDate(), availableUnit));
 
     KardexEntity movement = new KardexEntity();
     movement.setType("PRESTAMO");
@@ -83,21 +142,152 @@ public class LoanService {
     movement.setUserRut(rut);
     kardexService.save(movement);
 
-    return loanRepository.save(loan);
+    LoanEntity saved = loanRepository.save(loan);
+    events.publishEvent(LoanChanged.of(saved));
+    loanReportService.loanCreated(saved);
+    toolLeaderboard.recordLoan(availableUnit.getToolTypeId(), availableUnit.getName());
+    return saved;
   }
 
-  private void validateClient(long userId) {
-    UserEntity user = userService.findById(userId);
-    String status = user.getStatus();
+  // Varias unidades para un cliente en una transacción: el cliente se valida una vez, las unidades se
+  // bloquean en una consulta y se marcan PRESTADA con un solo UPDATE, y préstamos y movimientos
+  // PRESTAMO se insertan en lotes. Sin partial, una unidad rechazada deja todo sin efecto
+  @Transactional(isolation = Isolation.READ_COMMITTED)
+  public BulkLoanResultDTO createLoans(BulkLoanRequestDTO request, String rut) {
+    if (request.getClientId() == null) {
+      throw new IllegalArgumentException("Se debe ingresar un cliente");
+    }
+    if (request.getToolIds() == null || request.getToolIds().isEmpty()) {
+      throw new IllegalArgumentException("Se debe ingresar al menos una herramienta");
+    }
+    validateDates(request.getStartDate(), request.getScheduledReturnDate());
+
+    Long clientId = request.getClientId();
+    ClientAccountState.Account account = accountState.get(clientId);
+    validateClient(account.status(), account.unpaidLoans(), account.overdueLoans(LocalDate.now()));
+
+    // Mismo orden de bloqueo que createLoan (cliente y luego unidades) y cifras de la base de datos
+    ClientEligibilityDTO eligibility = userService.lockForLoan(clientId, null);
+    validateClient(eligibility.getStatus(), eligibility.getUnpaidLoans(),
+        eligibility.getOverdueLoans());
+    Set<Long> activeTypes = new HashSet<>(loanRepository.findActiveToolTypeIds(clientId));
+
+    BulkLoanResultDTO result = new BulkLoanResultDTO();
+    result.setPartial(request.isPartial());
+    result.setRequested(request.getToolIds().size());
+
+    Set<Long> toolIds = new LinkedHashSet<>(request.getToolIds());
+    toolIds.remove(null);
+    Map<Long, ToolsEntity> units = toolsService.lockUnits(toolIds);
+    long freeSlots = MAX_ACTIVE_LOANS - eligibility.getActiveLoans();
+    Set<Long> seen = new HashSet<>();
+    Set<Long> requestedTypes = new HashSet<>();
+    List<ToolsEntity> accepted = new ArrayList<>();
+    List<BulkLoanItemDTO> acceptedItems = new ArrayList<>();
+    for (Long toolId : request.getToolIds()) {
+      BulkLoanItemDTO item = new BulkLoanItemDTO(toolId);
+      result.getItems().add(item);
+      ToolsEntity unit = units.get(toolId);
+      if (toolId == null || !seen.add(toolId)) {
+        item.setError("Herramienta repetida en la solicitud");
+      } else if (unit == null) {
+        item.setError("Herramienta no encontrada");
+      } else if (unit.getStatus() != ToolStatus.DISPONIBLE) {
+        item.setError("La herramienta no está disponible");
+      } else if (activeTypes.contains(unit.getToolTypeId())
+          || !requestedTypes.add(unit.getToolTypeId())) {
+        item.setError(SAME_TOOL_MESSAGE);
+      } else if (accepted.size() >= freeSlots) {
+        item.setError(ACTIVE_LIMIT_MESSAGE);
+      } else {
+        accepted.add(unit);
+        acceptedItems.add(item);
+      }
+    }
+    result.setRejected(result.getRequested() - accepted.size());
+    if (accepted.isEmpty() || (result.getRejected() > 0 && !request.isPartial())) {
+      return result; // nada escrito; los bloqueos se liberan al terminar la transacción
+    }
+
+    toolsService.checkoutUnits(accepted);
+
+    UserEntity client = new UserEntity(); // solo el id, para el INSERT y los eventos
+    client.setId(clientId);
+    LocalDateTime now = LocalDateTime.now();
+    List<LoanEntity> loans = new ArrayList<>(accepted.size());
+    List<KardexEntity> movements = new ArrayList<>(accepted.size());
+    for (ToolsEntity unit : accepted) {
+      LoanEntity loan = new LoanEntity();
+      loan.setClient(client);
+      loan.setTool(unit);
+      loan.setStartDate(request.getStartDate());
+      loan.setScheduledReturnDate(request.getScheduledReturnDate());
+      loan.setCreatedLoan(request.getCreatedLoan() != null ? request.getCreatedLoan() : now);
+      loan.setLoanPrice(loanPrice(request.getStartDate(), request.getScheduledReturnDate(), unit));
+      loans.add(loan);
+
+      KardexEntity movement = new KardexEntity();
+      movement.setType("PRESTAMO");
+      movement.setQuantity(1);
+      movement.setTool(unit);
+      movement.setDateTime(now);
+      movement.setLoan(loan);
+      movement.setUserRut(rut);
+      movements.add(movement);
+    }
+    loanRepository.insertLoans(loans);
+    kardexService.saveAll(movements);
+    loanReportService.loansCreated(loans);
+
+    for (int i = 0; i < loans.size(); i++) {
+      LoanEntity loan = loans.get(i);
+      acceptedItems.get(i).setLoanId(loan.getId());
+      acceptedItems.get(i).setLoanPrice(loan.getLoanPrice());
+      toolLeaderboard.recordLoan(loan.getTool().getToolTypeId(), loan.getTool().getName());
+      events.publishEvent(LoanChanged.of(loan));
+    }
+    result.setCreated(loans.size());
+    return result;
+  }
+
+  private static void validateDates(LocalDate startDate, LocalDate scheduledReturnDate) {
+    if (startDate == null || scheduledReturnDate == null) {
+      throw new IllegalArgumentException("Se deben ingresar fechas de préstamo y devolución");
+    }
+    if (scheduledReturnDate.isBefore(startDate)) {
+      throw new IllegalArgumentException(
+          "La fecha de devolución no puede ser anterior a la fecha de entrega");
+    }
+  }
+
+  // Días de préstamo por la tarifa diaria de la unidad
+  private static double loanPrice(
+      LocalDate startDate, LocalDate scheduledReturnDate, ToolsEntity unit) {
+    long days = java.time.temporal.ChronoUnit.DAYS.between(startDate, scheduledReturnDate);
+    if (days <= 0) {
+      days = 1; // mínimo 1 día de cobro
+    }
+    return days * unit.getDailyRate();
+  }
+
+  // Verificar que no tenga más de 5 préstamos activos y que el cliente esté habilitado
+  private void validateLimits(String status, long activeLoans, long unpaidLoans, long overdueLoans) {
+    if (activeLoans >= MAX_ACTIVE_LOANS) {
+      throw new IllegalStateException(ACTIVE_LIMIT_MESSAGE);
+    }
+    validateClient(status, unpaidLoans, overdueLoans);
+  }
+
+  private void validateClient(String status, long unpaidLoans, long overdueLoans) {
     if (!"Activo".equalsIgnoreCase(status)) {
       // 1. Verificar si la restricción es por multas/deudas impagas
-      if (userService.hasUnpaidFinesOrDebts(userId)) {
+      if (unpaidLoans > 0) {
         throw new IllegalStateException(
             "El cliente registra multas sin pagar.");
       }
 
       // 2. Verificar si la restricción es por préstamos atrasados
-      if (userService.hasOverdueLoans(userId)) {
+      if (overdueLoans > 0) {
         throw new IllegalStateException(
             "El cliente tiene préstamos vencidos que no han sido devueltos.");
       }
@@ -106,6 +296,7 @@ public class LoanService {
     }
   }
 
+  @Transactional
   public LoanEntity returnLoan(Long loanId, boolean damaged, boolean irreparable, String rut) {
     LoanEntity loan =
         loanRepository
@@ -116,6 +307,7 @@ public class LoanService {
       throw new IllegalStateException("El préstamo ya fue devuelto");
     }
 
+    boolean wasOverdue = "ATRASADO".equals(loan.getLoanStatus());
     LocalDate today = LocalDate.now();
     loan.setReturnDate(today);
     loan.setDelivered(true);
@@ -129,6 +321,8 @@ public class LoanService {
         damagePrice = tool.getReplacementValue();
       } else {
         tool.setStatus(ToolStatus.EN_REPARACION);
+        toolStockView.move(tool, ToolStatus.PRESTADA, ToolStatus.EN_REPARACION);
+        toolCatalog.moved(tool.getId(), ToolStatus.PRESTADA, ToolStatus.EN_REPARACION);
 
         KardexEntity reparacion = new KardexEntity();
         reparacion.setType("REPARACION");
@@ -161,50 +355,227 @@ public class LoanService {
     devolucion.setUserRut(rut);
     kardexService.save(devolucion);
 
-    return loanRepository.save(loan);
+    loanReportService.loanReturned(loan, wasOverdue);
+    LoanEntity saved = loanRepository.save(loan);
+    if (loan.getClient() != null) {
+      events.publishEvent(LoanChanged.of(loan));
+    }
+    return saved;
   }
 
-  public List<LoanEntity> getAllLoans() {
-    return loanRepository.findAll();
+  // Devolución de varios préstamos en una transacción. Préstamos y unidades se leen en una consulta,
+  // los préstamos se marcan devueltos con un UPDATE por conjunto, las unidades con un UPDATE por
+  // estado de destino y los movimientos de kardex van en un lote. Se devuelven los préstamos que
+  // pasan; los demás quedan en el resultado con su motivo
+  @Transactional
+  public BulkReturnResultDTO returnLoans(List<BulkReturnEntryDTO> entries, String rut) {
+    if (entries == null || entries.isEmpty()) {
+      throw new IllegalArgumentException("Se debe ingresar al menos un préstamo");
+    }
+    BulkReturnResultDTO result = new BulkReturnResultDTO();
+    result.setRequested(entries.size());
+
+    Set<Long> loanIds = new LinkedHashSet<>();
+    for (BulkReturnEntryDTO entry : entries) {
+      if (entry != null && entry.getLoanId() != null) {
+        loanIds.add(entry.getLoanId());
+      }
+    }
+    Map<Long, LoanEntity> found = new HashMap<>(loanIds.size() * 2);
+    if (!loanIds.isEmpty()) {
+      for (LoanEntity loan : loanRepository.findAllForReturn(loanIds)) {
+        found.put(loan.getId(), loan);
+      }
+    }
+
+    Set<Long> seen = new HashSet<>();
+    List<LoanEntity> accepted = new ArrayList<>();
+    List<BulkReturnEntryDTO> acceptedEntries = new ArrayList<>();
+    List<BulkReturnItemDTO> acceptedItems = new ArrayList<>();
+    for (BulkReturnEntryDTO entry : entries) {
+      // Un elemento nulo o sin id se rechaza solo, como cualquier otro préstamo inválido
+      Long loanId = entry == null ? null : entry.getLoanId();
+      BulkReturnItemDTO item = new BulkReturnItemDTO(loanId);
+      result.getItems().add(item);
+      LoanEntity loan = loanId == null ? null : found.get(loanId);
+      if (loanId == null) {
+        item.setError("Se debe ingresar el id del préstamo");
+      } else if (loan == null) {
+        item.setError("Préstamo no encontrado");
+      } else if (!seen.add(loan.getId())) {
+        item.setError("Préstamo repetido en la solicitud");
+      } else if (loan.isDelivered()) {
+        item.setError("El préstamo ya fue devuelto");
+      } else if (loan.getTool().getStatus() != ToolStatus.PRESTADA) {
+        item.setError("La herramienta no estaba prestada");
+      } else {
+        accepted.add(loan);
+        acceptedEntries.add(entry);
+        acceptedItems.add(item);
+      }
+    }
+    result.setRejected(result.getRequested() - accepted.size());
+    if (accepted.isEmpty()) {
+      return result;
+    }
+
+    // Antes de cambiar las entidades: el UPDATE limpia el contexto y las deja desconectadas
+    LocalDate today = LocalDate.now();
+    List<Long> acceptedIds = accepted.stream().map(LoanEntity::getId).toList();
+    if (loanRepository.markReturnedIn(acceptedIds, today) != acceptedIds.size()) {
+      throw new IllegalStateException("Uno de los préstamos ya fue devuelto");
+    }
+
+    Set<Long> overdueIds = new HashSet<>();
+    Map<ToolStatus, List<ToolsEntity>> unitsByStatus = new EnumMap<>(ToolStatus.class);
+    List<LoanEntity> damaged = new ArrayList<>();
+    List<KardexEntity> movements = new ArrayList<>(accepted.size() + 4);
+    LocalDateTime now = LocalDateTime.now();
+    for (int i = 0; i < accepted.size(); i++) {
+      LoanEntity loan = accepted.get(i);
+      BulkReturnEntryDTO entry = acceptedEntries.get(i);
+      ToolsEntity tool = loan.getTool();
+      if ("ATRASADO".equals(loan.getLoanStatus())) {
+        overdueIds.add(loan.getId());
+      }
+
+      // Mismas reglas que returnLoan: irreparable solo cuenta si hay daño
+      ToolStatus newStatus = ToolStatus.DISPONIBLE;
+      double damagePrice = 0.0;
+      if (entry.isDamaged() && entry.isIrreparable()) {
+        newStatus = ToolStatus.DADA_DE_BAJA;
+        damagePrice = tool.getReplacementValue();
+        movements.add(movement("BAJA", tool, null, now, rut));
+      } else if (entry.isDamaged()) {
+        newStatus = ToolStatus.EN_REPARACION;
+        damagePrice = tool.getRepairValue();
+        movements.add(movement("REPARACION", tool, loan, now, rut));
+      }
+      movements.add(movement("DEVOLUCION", tool, loan, now, rut));
+      unitsByStatus.computeIfAbsent(newStatus, k -> new ArrayList<>()).add(tool);
+      acceptedItems.get(i).setToolStatus(newStatus);
+
+      loan.setReturnDate(today);
+      loan.setDelivered(true);
+      loan.setDamagePrice(damagePrice);
+      loan.setTotal(loan.getLoanPrice() + damagePrice + loan.getFine());
+      loan.setFineTotal(loan.getFine() + damagePrice);
+      loan.setLoanStatus("DEVUELTO");
+      if (damagePrice > 0) {
+        damaged.add(loan);
+      }
+    }
+
+    unitsByStatus.forEach((status, units) -> toolsService.returnUnits(units, status));
+    if (!damaged.isEmpty()) {
+      loanRepository.updateDamages(damaged);
+    }
+    kardexService.saveAll(movements);
+    loanReportService.loansReturned(accepted, overdueIds);
+
+    for (int i = 0; i < accepted.size(); i++) {
+      LoanEntity loan = accepted.get(i);
+      BulkReturnItemDTO item = acceptedItems.get(i);
+      item.setToolId(loan.getTool().getId());
+      item.setDamagePrice(loan.getDamagePrice());
+      item.setTotal(loan.getTotal());
+      if (loan.getClient() != null) {
+        events.publishEvent(LoanChanged.of(loan));
+      }
+    }
+    result.setReturned(accepted.size());
+    return result;
   }
 
-  // Obtener préstamos activos ordenados
+  private static KardexEntity movement(
+      String type, ToolsEntity tool, LoanEntity loan, LocalDateTime dateTime, String rut) {
+    KardexEntity movement = new KardexEntity();
+    movement.setType(type);
+    movement.setQuantity(1);
+    movement.setTool(tool);
+    movement.setDateTime(dateTime);
+    movement.setLoan(loan);
+    movement.setUserRut(rut);
+    return movement;
+  }
 
-  public List<LoanEntity> getActiveLoans() {
-    return loanRepository.findActiveLoansOrderedByDateDesc();
+  public List<LoanSummaryDTO> getAllLoans() {
+    return loanRepository.findAllSummaries();
   }
 
-  public List<LoanEntity> getActiveLoansByDate(LocalDate startDate, LocalDate endDate) {
-    return loanRepository.findActiveLoansByDateRange(startDate, endDate);
+  // Versiones paginadas de los listados, con los mismos órdenes por defecto
+  public PageDTO<LoanSummaryDTO> getLoansPage(
+      LoanFilterDTO filter, int page, int size, String sort, boolean count) {
+    return summaryPage(
+        LoanSpecifications.matching(filter), Sort.by("id"), page, size, sort, count);
   }
 
-  @Scheduled(cron = "0 0 0 * * ?", zone = "America/Santiago") // todos los días a medianoche
-  public void updateOverdueLoans() {
-    LocalDate today = LocalDate.now();
-    List<LoanEntity> activeLoans = loanRepository.findActiveLoansOrderedByDateDesc();
+  public PageDTO<LoanSummaryDTO> getActiveLoansPage(
+      LoanFilterDTO filter, int page, int size, String sort, boolean count) {
+    return summaryPage(
+        LoanSpecifications.matching(filter).and(LoanSpecifications.notDelivered()),
+        Sort.by(Sort.Direction.DESC, "createdLoan"),
+        page,
+        size,
+        sort,
+        count);
+  }
 
-    for (LoanEntity loan : activeLoans) {
-      if (!loan.isDelivered() && loan.getScheduledReturnDate().isBefore(today)) {
-        loan.setLoanStatus("ATRASADO");
+  public PageDTO<LoanSummaryDTO> getUnpaidLoansPage(
+      LoanFilterDTO filter, int page, int size, String sort, boolean count) {
+    return summaryPage(
+        LoanSpecifications.matching(filter).and(LoanSpecifications.finePending()),
+        Sort.by("id"),
+        page,
+        size,
+        sort,
+        count);
+  }
 
-        // Restringir al cliente por futuros prestamos
-        long client = loan.getClient().getId();
-        userService.restrictUserById(client);
+  // Unidad, tipo y cliente se traen en la misma consulta que la página
+  private PageDTO<LoanSummaryDTO> summaryPage(
+      Specification<LoanEntity> spec,
+      Sort fallback,
+      int page,
+      int size,
+      String sort,
+      boolean count) {
+    Pageable pageable = Paging.pageable(page, size, sort, SORTABLE, fallback);
+    return PageDTO.of(
+        loanRepository
+            .findBy(
+                spec,
+                q -> Paging.fetch(q.project("tool", "tool.toolType", "client"), pageable, count))
+            .map(LoanSummaryDTO::of));
+  }
 
-        // Calcular días de atraso
-        long daysLate =
-            java.time.temporal.ChronoUnit.DAYS.between(loan.getScheduledReturnDate(), today);
-        if (daysLate < 0) {
-          daysLate = 0;
-        }
+  // Obtener préstamos activos ordenados
 
-        // Calcular multa acumulada
-        double fine = daysLate * loan.getTool().getDailyLateRate();
-        loan.setFine(fine);
+  public List<LoanSummaryDTO> getActiveLoans() {
+    return loanRepository.findActiveSummariesOrderedByDateDesc();
+  }
 
-        loanRepository.save(loan);
-      }
-    }
+  public List<LoanSummaryDTO> getActiveLoansByDate(LocalDate startDate, LocalDate endDate) {
+    return loanRepository.findActiveSummariesByDateRange(startDate, endDate);
+  }
+
+  @Scheduled(cron = "0 0 0 * * ?", zone = "America/Santiago") // todos los días a medianoche
+  public void updateOverdueLoans() {
+    overdueSweepService.sweep(LocalDate.now());
+    // Multas y restricciones cambiaron con sentencias por conjuntos
+    events.publishEvent(new AllChanged());
+  }
+
+  // Ejecución manual: recorre de nuevo aunque el día ya esté calculado, para tomar préstamos
+  // creados o con fechas corregidas después del proceso del día
+  public OverdueSweepProgressDTO forceOverdueSweep() {
+    OverdueSweepProgressDTO result = overdueSweepService.sweep(LocalDate.now(), true);
+    events.publishEvent(new AllChanged());
+    return result;
+  }
+
+  public OverdueSweepProgressDTO getOverdueSweepProgress() {
+    return overdueSweepService.getProgress();
   }
 
   public LoanEntity updateFinePaid(Long loanId, boolean finePaid) {
@@ -214,34 +585,53 @@ public class LoanService {
             .orElseThrow(() -> new RuntimeException("Préstamo no encontrado"));
     loan.setFinePaid(finePaid);
     userService.updateUserStatus(loan.getClient().getId(), finePaid);
-    return loanRepository.save(loan);
+    LoanEntity saved = loanRepository.save(loan);
+    events.publishEvent(LoanChanged.of(loan));
+    return saved;
   }
 
   // Clientes con préstamos atrasados
-  public List<LoanEntity> getOverdueLoans(LocalDate today) {
-    return loanRepository.findOverdueLoans(today);
+  public List<LoanSummaryDTO> getOverdueLoans(LocalDate today) {
+    return loanRepository.findOverdueSummaries(today);
   }
 
   // Clientes con préstamos atrasados - filtrados por rango de fechas
-  public List<LoanEntity> getOverdueLoansByDate(
+  public List<LoanSummaryDTO> getOverdueLoansByDate(
       LocalDate today, LocalDate startDate, LocalDate endDate) {
-    return loanRepository.findOverdueLoansByDate(today, startDate, endDate);
+    return loanRepository.findOverdueSummariesByDate(today, startDate, endDate);
   }
 
-  @PostConstruct
+  // Ponerse al día con los atrasos en segundo plano, sin retrasar el arranque
+  @Async
+  @EventListener(ApplicationReadyEvent.class)
   public void checkOverdueLoansOnStartup() {
     updateOverdueLoans();
   }
 
-  public List<Object[]> getTopLentToolsAllTime() {
-    return loanRepository.findTopLentToolsAllTime();
+  // Ranking histórico desde el ranking en memoria (limit <= 0: todas)
+  public List<ToolRankingDTO> getTopLentToolsAllTime(int limit) {
+    return toolLeaderboard.top(limit);
+  }
+
+  // Ranking de tendencia: préstamos recientes pesan más
+  public List<ToolRankingDTO> getTrendingTools(int limit) {
+    return toolLeaderboard.trending(limit);
+  }
+
+  public List<ToolRankingDTO> getTopLentTools(LocalDate startDate, LocalDate endDate) {
+    return loanReportService.getTopTools(startDate, endDate);
+  }
+
+  // Préstamos iniciados, activos y atrasados en un rango de fechas
+  public LoanReportSummaryDTO getReportSummary(LocalDate startDate, LocalDate endDate) {
+    return loanReportService.getSummary(startDate, endDate);
   }
 
-  public List<Object[]> getTopLentTools(LocalDate startDate, LocalDate endDate) {
-    return loanRepository.findTopLentToolsByName(startDate, endDate);
+  public int rebuildReportRollup() {
+    return loanReportService.rebuild();
   }
 
-  public List<LoanEntity> getUnpaidLoans() {
-    return loanRepository.findByFinePaidFalse();
+  public List<LoanSummaryDTO> getUnpaidLoans() {
+    return loanRepository.findUnpaidSummaries();
   }
 }
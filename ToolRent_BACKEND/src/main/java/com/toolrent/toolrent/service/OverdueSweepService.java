@@ -0,0 +1,176 @@
+package com.toolrent.toolrent.service;
+
+import com.toolrent.toolrent.dto.OverdueSweepProgressDTO;
+import com.toolrent.toolrent.entity.OverdueSweepCheckpointEntity;
+import com.toolrent.toolrent.repository.LoanRepository;
+import com.toolrent.toolrent.repository.OverdueSweepCheckpointRepository;
+import com.toolrent.toolrent.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Proceso de atrasos por conjuntos: recorre los préstamos vencidos en tramos de ids, marcando cada
+ * tramo como ATRASADO y calculando su multa con un único UPDATE, y al final restringe a todos los
+ * clientes afectados con otra sentencia. Tras cada tramo se guarda un punto de control, de modo que
+ * un reinicio a mitad del proceso continúa donde quedó. Un día ya completo se omite salvo que la
+ * ejecución sea forzada (manual), que vuelve a recorrer desde el inicio para tomar préstamos
+ * creados o con fechas corregidas después del primer recorrido.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OverdueSweepService {
+
+  private final LoanRepository loanRepository;
+
+  private final UserRepository userRepository;
+
+  private final OverdueSweepCheckpointRepository checkpointRepository;
+
+  private final LoanReportService loanReportService;
+
+  @Value("${toolrent.overdue.chunk-size:1000}")
+  private int chunkSize;
+
+  private final AtomicBoolean running = new AtomicBoolean(false);
+
+  private volatile OverdueSweepProgressDTO progress = new OverdueSweepProgressDTO();
+
+  // Último día para el que los atrasos quedaron completamente calculados
+  private volatile LocalDate consistentFor;
+
+  // Ejecución de arranque y programada: un día ya completo no se vuelve a recorrer
+  public OverdueSweepProgressDTO sweep(LocalDate today) {
+    return sweep(today, false);
+  }
+
+  public OverdueSweepProgressDTO sweep(LocalDate today, boolean force) {
+    if (!running.compareAndSet(false, true)) {
+      log.info("Proceso de atrasos ya en ejecución, se omite");
+      return getProgress();
+    }
+    try {
+      return runSweep(today, force);
+    } finally {
+      progress.setRunning(false);
+      running.set(false);
+    }
+  }
+
+  private OverdueSweepProgressDTO runSweep(LocalDate today, boolean force) {
+    OverdueSweepCheckpointEntity checkpoint =
+        checkpointRepository.findById(today).orElseGet(() -> newCheckpoint(today));
+    if (force && checkpoint.isCompleted()) {
+      // Marcar de nuevo es idempotente: el rollup solo cuenta los que aún no estaban ATRASADO
+      log.info("Atrasos del {} ya calculados, se recorren de nuevo por ejecución manual", today);
+      checkpoint.setLastLoanId(0L);
+      checkpoint.setCompleted(false);
+    }
+
+    OverdueSweepProgressDTO current = new OverdueSweepProgressDTO();
+    current.setSweepDate(today);
+    current.setStartedAt(LocalDateTime.now());
+    current.setLastLoanId(checkpoint.getLastLoanId());
+
+    if (checkpoint.isCompleted()) {
+      log.info("Atrasos del {} ya calculados, se omite el proceso", today);
+      return finish(current, today);
+    }
+
+    current.setRunning(true);
+    progress = current;
+
+    long afterId = checkpoint.getLastLoanId();
+    if (afterId > 0) {
+      log.info("Reanudando proceso de atrasos del {} desde el id {}", today, afterId);
+    }
+
+    PageRequest chunk = PageRequest.of(0, Math.max(1, chunkSize));
+    List<Long> ids = loanRepository.findOverdueLoanIdsAfter(today, afterId, chunk);
+    while (!ids.isEmpty()) {
+      long upToId = ids.get(ids.size() - 1);
+      int updated = loanReportService.markOverdueChunk(today, afterId, upToId);
+      saveCheckpoint(checkpoint, upToId, false);
+
+      current.setChunksProcessed(current.getChunksProcessed() + 1);
+      current.setLoansUpdated(current.getLoansUpdated() + updated);
+      current.setLastLoanId(upToId);
+      log.debug(
+          "Tramo {} de atrasos: {} préstamos hasta id {}",
+          current.getChunksProcessed(),
+          updated,
+          upToId);
+
+      afterId = upToId;
+      ids = loanRepository.findOverdueLoanIdsAfter(today, afterId, chunk);
+    }
+
+    current.setClientsRestricted(userRepository.restrictClientsWithOverdueLoans(today));
+    saveCheckpoint(checkpoint, afterId, true);
+
+    finish(current, today);
+    log.info(
+        "Proceso de atrasos {}: {} préstamos en {} tramos, {} clientes restringidos ({} ms)",
+        today,
+        current.getLoansUpdated(),
+        current.getChunksProcessed(),
+        current.getClientsRestricted(),
+        current.getElapsedMillis());
+    return current;
+  }
+
+  private OverdueSweepProgressDTO finish(OverdueSweepProgressDTO current, LocalDate today) {
+    current.setRunning(false);
+    current.setConsistent(true);
+    current.setFinishedAt(LocalDateTime.now());
+    current.setElapsedMillis(
+        Duration.between(current.getStartedAt(), current.getFinishedAt()).toMillis());
+    consistentFor = today;
+    progress = current;
+    return current;
+  }
+
+  private OverdueSweepCheckpointEntity newCheckpoint(LocalDate today) {
+    OverdueSweepCheckpointEntity checkpoint = new OverdueSweepCheckpointEntity();
+    checkpoint.setSweepDate(today);
+    return checkpoint;
+  }
+
+  private void saveCheckpoint(
+      OverdueSweepCheckpointEntity checkpoint, long lastLoanId, boolean completed) {
+    checkpoint.setLastLoanId(lastLoanId);
+    checkpoint.setCompleted(completed);
+    checkpoint.setUpdatedAt(LocalDateTime.now());
+    checkpointRepository.save(checkpoint);
+  }
+
+  // Indica si el estado de atrasos está al día para la fecha dada
+  public boolean isConsistent(LocalDate today) {
+    return today.equals(consistentFor);
+  }
+
+  // Copia del progreso: el objeto compartido lo sigue modificando el proceso en curso
+  public OverdueSweepProgressDTO getProgress() {
+    OverdueSweepProgressDTO current = progress;
+    return new OverdueSweepProgressDTO(
+        current.getSweepDate(),
+        current.isRunning(),
+        isConsistent(LocalDate.now()),
+        current.getChunksProcessed(),
+        current.getLoansUpdated(),
+        current.getClientsRestricted(),
+        current.getLastLoanId(),
+        current.getStartedAt(),
+        current.getFinishedAt(),
+        current.getElapsedMillis());
+  }
+}
@@ -0,0 +1,59 @@
+package com.toolrent.toolrent.service;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.repository.query.FluentQuery.FetchableFluentQuery;
+
+import java.util.Map;
+
+/**
+ * Parámetros de los listados paginados. El orden se pide como "campo" o "campo,desc" y solo se
+ * aceptan los campos de la lista blanca de cada listado, traducidos a su ruta en la entidad; el id
+ * se agrega como desempate para que dos páginas no repitan ni salten filas.
+ */
+final class Paging {
+
+  static final int MAX_SIZE = 200;
+
+  private Paging() {}
+
+  static Pageable pageable(
+      int page, int size, String sort, Map<String, String> sortable, Sort fallback) {
+    if (page < 0) {
+      throw new IllegalArgumentException("La página no puede ser negativa");
+    }
+    if (size < 1 || size > MAX_SIZE) {
+      throw new IllegalArgumentException(
+          "El tamaño de página debe estar entre 1 y " + MAX_SIZE);
+    }
+    Sort order = sort == null || sort.isBlank() ? fallback : parse(sort, sortable);
+    if (order.getOrderFor("id") == null) {
+      order = order.and(Sort.by("id"));
+    }
+    return PageRequest.of(page, size, order);
+  }
+
+  // Con conteo una Page (un COUNT(*) extra); sin conteo una Slice que solo sabe si hay más
+  static <T> Slice<T> fetch(FetchableFluentQuery<T> query, Pageable pageable, boolean count) {
+    return count ? query.page(pageable) : query.slice(pageable);
+  }
+
+  private static Sort parse(String sort, Map<String, String> sortable) {
+    String[] parts = sort.split(",");
+    String field = parts[0].trim();
+    String path = sortable.get(field);
+    if (path == null) {
+      throw new IllegalArgumentException("No se puede ordenar por " + field);
+    }
+    Sort.Direction direction = Sort.Direction.ASC;
+    if (parts.length > 1) {
+      direction =
+          Sort.Direction.fromOptionalString(parts[1].trim())
+              .orElseThrow(
+                  () -> new IllegalArgumentException("Dirección de orden inválida: " + parts[1]));
+    }
+    return Sort.by(direction, path);
+  }
+}
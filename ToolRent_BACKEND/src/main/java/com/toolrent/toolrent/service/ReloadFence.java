@@ -0,0 +1,97 @@
+package com.toolrent.toolrent.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongConsumer;
+
+/**
+ * Orden entre los cambios confirmados y las recargas completas de una vista en memoria. Cada
+ * transacción toma un número justo antes del commit y retiene la compuerta (lectura) hasta
+ * terminar; una recarga consulta la base de datos con la compuerta tomada (escritura), así que
+ * ningún commit queda a medias mientras lee. Todo número menor o igual al de la recarga ya está en
+ * lo que leyó y su cambio se descarta; los mayores se aplican.
+ *
+ * <p>La vista no debe tener tomado su propio lock al llamar a reload: quien aplica cambios
+ * retiene la compuerta de otras vistas de la misma transacción mientras espera ese lock.
+ */
+final class ReloadFence {
+
+  private final ReentrantReadWriteLock gate = new ReentrantReadWriteLock();
+
+  private final AtomicLong sequence = new AtomicLong();
+
+  // Clave por instancia para los cambios pendientes de la transacción en curso
+  private final Object pendingKey = new Object();
+
+  // Ejecutar el cambio con su número de confirmación una vez confirmada la transacción en curso
+  // (o de inmediato si no hay). Los cambios de una transacción comparten número.
+  void afterCommit(LongConsumer change) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      change.accept(nextNumber());
+      return;
+    }
+    pendingChanges().add(change);
+  }
+
+  // Recargar sin commits en curso; reload recibe el último número ya incluido en la base de datos
+  void reload(LongConsumer reload) {
+    gate.writeLock().lock();
+    try {
+      reload.accept(sequence.get());
+    } finally {
+      gate.writeLock().unlock();
+    }
+  }
+
+  private long nextNumber() {
+    gate.readLock().lock();
+    try {
+      return sequence.incrementAndGet();
+    } finally {
+      gate.readLock().unlock();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<LongConsumer> pendingChanges() {
+    List<LongConsumer> pending =
+        (List<LongConsumer>) TransactionSynchronizationManager.getResource(pendingKey);
+    if (pending != null) {
+      return pending;
+    }
+
+    List<LongConsumer> changes = new ArrayList<>();
+    TransactionSynchronizationManager.bindResource(pendingKey, changes);
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          private boolean holding;
+
+          private long number;
+
+          @Override
+          public void beforeCommit(boolean readOnly) {
+            gate.readLock().lock();
+            holding = true;
+            number = sequence.incrementAndGet();
+          }
+
+          @Override
+          public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(pendingKey);
+            if (holding) {
+              holding = false;
+              gate.readLock().unlock();
+            }
+            if (status == STATUS_COMMITTED) {
+              changes.forEach(change -> change.accept(number));
+            }
+          }
+        });
+    return changes;
+  }
+}
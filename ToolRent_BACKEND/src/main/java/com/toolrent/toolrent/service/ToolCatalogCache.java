@@ -0,0 +1,208 @@
+package com.toolrent.toolrent.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.toolrent.toolrent.entity.ToolStatus;
+import com.toolrent.toolrent.entity.ToolsEntity;
+import com.toolrent.toolrent.repository.ToolsRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Catálogo de unidades en memoria para las lecturas de /api/tools. Las unidades se guardan en una
+ * caché acotada (Caffeine, desalojo W-TinyLFU) y aparte se lleva un índice de ids por estado, así
+ * /available no consulta la base de datos. Cada cambio de estado confirmado mueve el id en el índice
+ * y descarta la unidad de la caché; cada ttl-ms el índice se recarga completo.
+ */
+@Component
+@RequiredArgsConstructor
+public class ToolCatalogCache implements MeterBinder {
+
+  // Tamaño de los IN (...) al cargar unidades que no están en caché
+  private static final int LOAD_CHUNK = 1000;
+
+  private final ToolsRepository toolsRepository;
+
+  @Value("${toolrent.tools.cache.enabled:false}")
+  private boolean enabled;
+
+  @Value("${toolrent.tools.cache.max-size:10000}")
+  private long maxSize;
+
+  @Value("${toolrent.tools.cache.ttl-ms:600000}")
+  private long ttlMillis;
+
+  private Cache<Long, ToolsEntity> units;
+
+  // Índice secundario: estado -> ids de sus unidades; solo los estados ya consultados
+  private final Map<ToolStatus, Set<Long>> idsByStatus = new EnumMap<>(ToolStatus.class);
+
+  // Todas las unidades, para /getTools (null = sin cargar)
+  private Set<Long> allIds;
+
+  private long indexLoadedAt;
+
+  // Protege el índice; es un lock y no synchronized porque ids() consulta la base de datos
+  // (un monitor tomado durante JDBC fija el hilo portador de un hilo virtual)
+  private final ReentrantLock indexLock = new ReentrantLock();
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public Optional<ToolsEntity> findById(Long id) {
+    return Optional.ofNullable(units().get(id, k -> toolsRepository.findById(k).orElse(null)));
+  }
+
+  public List<ToolsEntity> findAll() {
+    return load(ids(null));
+  }
+
+  public List<ToolsEntity> findByStatus(ToolStatus status) {
+    List<ToolsEntity> result = load(ids(status));
+    // Una unidad leída justo antes de un cambio de estado puede seguir en caché un instante
+    result.removeIf(tool -> tool.getStatus() != status);
+    return result;
+  }
+
+  // Registrar unidades nuevas en un estado
+  public void added(List<Long> ids, ToolStatus status) {
+    if (!enabled) {
+      return;
+    }
+    AfterCommit.run(() -> applyAdded(ids, status));
+  }
+
+  // Registrar el cambio de estado de una unidad (o un cambio de datos si from == to)
+  public void moved(Long id, ToolStatus from, ToolStatus to) {
+    if (!enabled) {
+      return;
+    }
+    AfterCommit.run(() -> applyMove(id, from, to));
+  }
+
+  // Descartar todas las unidades en caché de un tipo de herramienta (cambio de precios)
+  public void evictByToolType(Long toolTypeId) {
+    if (!enabled) {
+      return;
+    }
+    AfterCommit.run(
+        () ->
+            units()
+                .asMap()
+                .values()
+                .removeIf(tool -> Objects.equals(tool.getToolTypeId(), toolTypeId)));
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    CaffeineCacheMetrics.monitor(registry, units(), "toolCatalog");
+  }
+
+  private synchronized Cache<Long, ToolsEntity> units() {
+    if (units == null) {
+      units =
+          Caffeine.newBuilder()
+              .maximumSize(maxSize)
+              .expireAfterWrite(Duration.ofMillis(ttlMillis))
+              .recordStats()
+              .build();
+    }
+    return units;
+  }
+
+  private List<Long> ids(ToolStatus status) {
+    indexLock.lock();
+    try {
+      long now = System.currentTimeMillis();
+      if (now - indexLoadedAt > ttlMillis) {
+        idsByStatus.clear();
+        allIds = null;
+        indexLoadedAt = now;
+      }
+      if (status == null) {
+        if (allIds == null) {
+          allIds = new TreeSet<>(toolsRepository.findAllIds());
+        }
+        return new ArrayList<>(allIds);
+      }
+      return new ArrayList<>(
+          idsByStatus.computeIfAbsent(
+              status, s -> new TreeSet<>(toolsRepository.findIdsByStatus(s))));
+    } finally {
+      indexLock.unlock();
+    }
+  }
+
+  // Unidades en el orden de ids, trayendo de la base de datos solo las que faltan
+  private List<ToolsEntity> load(List<Long> ids) {
+    Map<Long, ToolsEntity> found = units().getAll(ids, this::loadMissing);
+    List<ToolsEntity> result = new ArrayList<>(found.size());
+    for (Long id : ids) {
+      ToolsEntity tool = found.get(id);
+      if (tool != null) {
+        result.add(tool);
+      }
+    }
+    return result;
+  }
+
+  private Map<Long, ToolsEntity> loadMissing(Set<? extends Long> missing) {
+    List<Long> ids = new ArrayList<>(missing);
+    Map<Long, ToolsEntity> loaded = new HashMap<>(ids.size() * 2);
+    for (int from = 0; from < ids.size(); from += LOAD_CHUNK) {
+      List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + LOAD_CHUNK));
+      toolsRepository.findAllById(chunk).forEach(tool -> loaded.put(tool.getId(), tool));
+    }
+    return loaded;
+  }
+
+  private void applyAdded(List<Long> ids, ToolStatus status) {
+    indexLock.lock();
+    try {
+      if (allIds != null) {
+        allIds.addAll(ids);
+      }
+      Set<Long> statusIds = idsByStatus.get(status);
+      if (statusIds != null) {
+        statusIds.addAll(ids);
+      }
+    } finally {
+      indexLock.unlock();
+    }
+  }
+
+  private void applyMove(Long id, ToolStatus from, ToolStatus to) {
+    units().invalidate(id);
+    if (from == to) {
+      return;
+    }
+    indexLock.lock();
+    try {
+      if (from != null && idsByStatus.containsKey(from)) {
+        idsByStatus.get(from).remove(id);
+      }
+      if (to != null && idsByStatus.containsKey(to)) {
+        idsByStatus.get(to).add(id);
+      }
+    } finally {
+      indexLock.unlock();
+    }
+  }
+}
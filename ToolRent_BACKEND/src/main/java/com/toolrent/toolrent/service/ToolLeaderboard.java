@@ -0,0 +1,274 @@
+package com.toolrent.toolrent.service;
+
+import com.toolrent.toolrent.dto.LoanDayCountsDTO;
+import com.toolrent.toolrent.dto.ToolRankingDTO;
+import com.toolrent.toolrent.entity.LoanDailyRollupEntity;
+import com.toolrent.toolrent.repository.LoanDailyRollupRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Ranking en memoria de herramientas más prestadas, por tipo de herramienta. Se siembra una vez desde
+ * loan_daily_rollup y luego cada préstamo confirmado suma uno, así que /topTools no recorre la base
+ * de datos. Además lleva un puntaje de tendencia que pierde la mitad de su peso cada
+ * half-life-days. Cada cierto tiempo se recarga completo para corregir cualquier desvío;
+ * ReloadFence descarta los préstamos que la recarga ya leyó de loan_daily_rollup.
+ */
+@Component
+@RequiredArgsConstructor
+public class ToolLeaderboard {
+
+  private static final double DAY_MILLIS = 24 * 60 * 60 * 1000.0;
+
+  // Días de historia usados al sembrar la tendencia (más atrás el peso es despreciable)
+  private static final int TRENDING_HALF_LIVES = 8;
+
+  // Mayor puntaje primero, a igual puntaje por nombre
+  private static final Comparator<ToolRankingDTO> RANKING =
+      Comparator.comparingDouble(ToolRankingDTO::getScore)
+          .reversed()
+          .thenComparing(ToolRankingDTO::getName);
+
+  private final LoanDailyRollupRepository rollupRepository;
+
+  @Value("${toolrent.leaderboard.refresh-ms:600000}")
+  private long refreshMillis;
+
+  @Value("${toolrent.leaderboard.half-life-days:7}")
+  private double halfLifeDays;
+
+  private final Map<Long, Entry> entries = new HashMap<>();
+
+  private boolean loaded = false;
+
+  private long loadedAt;
+
+  // Último número de confirmación incluido en la carga; los préstamos hasta ese número se descartan
+  private long loadedThrough;
+
+  private final ReloadFence fence = new ReloadFence();
+
+  // Referencia de tiempo de los puntajes de tendencia; se renueva en cada recarga
+  private long epochMillis;
+
+  // ReentrantLock y no un monitor: reload() hace JDBC y no debe fijar el hilo portador
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private static final class Entry {
+    private String name;
+    private long count;
+    private double trend; // suma de 2^((t - epoch) / vida media) por préstamo
+  }
+
+  // Las k herramientas más prestadas (k <= 0: todas)
+  public List<ToolRankingDTO> top(int limit) {
+    ensureLoaded();
+    List<ToolRankingDTO> rows = new ArrayList<>();
+    lock.lock();
+    try {
+      entries.forEach(
+          (typeId, e) -> rows.add(new ToolRankingDTO(typeId, e.name, e.count, e.count)));
+    } finally {
+      lock.unlock();
+    }
+    return topK(rows, limit);
+  }
+
+  // Las k herramientas con más préstamos recientes, con peso decreciente en el tiempo
+  public List<ToolRankingDTO> trending(int limit) {
+    ensureLoaded();
+    List<ToolRankingDTO> rows = new ArrayList<>();
+    lock.lock();
+    try {
+      double toNow = Math.pow(2, -(System.currentTimeMillis() - epochMillis) / halfLifeMillis());
+      entries.forEach(
+          (typeId, e) -> rows.add(new ToolRankingDTO(typeId, e.name, e.count, e.trend * toNow)));
+    } finally {
+      lock.unlock();
+    }
+    return topK(rows, limit);
+  }
+
+  // Sumar un préstamo al tipo de herramienta una vez confirmada la transacción
+  public void recordLoan(Long toolTypeId, String toolName) {
+    if (toolTypeId == null) {
+      return;
+    }
+    fence.afterCommit(number -> apply(number, toolTypeId, toolName, System.currentTimeMillis()));
+  }
+
+  // Pasar los préstamos de una unidad que cambió de tipo, una vez confirmada la transacción
+  public void moveLoans(
+      Long fromTypeId, Long toTypeId, String toName, List<LoanDayCountsDTO> days) {
+    if (toTypeId == null || days.isEmpty()) {
+      return;
+    }
+    fence.afterCommit(number -> applyMove(number, fromTypeId, toTypeId, toName, days));
+  }
+
+  // Forzar la recarga en la próxima lectura (p. ej. al renombrar una herramienta)
+  public void invalidate() {
+    AfterCommit.run(
+        () -> {
+          lock.lock();
+          try {
+            loaded = false;
+          } finally {
+            lock.unlock();
+          }
+        });
+  }
+
+  // Selección con un montículo de tamaño k: O(N log k)
+  static List<ToolRankingDTO> topK(Collection<ToolRankingDTO> rows, int limit) {
+    if (limit <= 0 || limit >= rows.size()) {
+      List<ToolRankingDTO> all = new ArrayList<>(rows);
+      all.sort(RANKING);
+      return all;
+    }
+    PriorityQueue<ToolRankingDTO> heap = new PriorityQueue<>(limit + 1, RANKING.reversed());
+    for (ToolRankingDTO row : rows) {
+      heap.offer(row);
+      if (heap.size() > limit) {
+        heap.poll(); // descarta el peor de los k + 1
+      }
+    }
+    List<ToolRankingDTO> result = new ArrayList<>(heap.size());
+    while (!heap.isEmpty()) {
+      result.add(heap.poll());
+    }
+    Collections.reverse(result);
+    return result;
+  }
+
+  // Sin el lock tomado: la recarga espera primero la compuerta de ReloadFence
+  private void ensureLoaded() {
+    if (isStale()) {
+      fence.reload(this::reload);
+    }
+  }
+
+  private boolean isStale() {
+    lock.lock();
+    try {
+      return !loaded || System.currentTimeMillis() - loadedAt > refreshMillis;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  // Con la compuerta tomada; through es el último commit que ya está en loan_daily_rollup
+  private void reload(long through) {
+    lock.lock();
+    try {
+      if (!isStale()) {
+        return; // otro hilo recargó mientras se esperaba la compuerta
+      }
+      load();
+      loadedThrough = through;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void load() {
+    entries.clear();
+    epochMillis = System.currentTimeMillis();
+
+    for (ToolRankingDTO row : rollupRepository.sumLoansByToolTypeAllTime()) {
+      Entry entry = entries.computeIfAbsent(row.getToolTypeId(), k -> new Entry());
+      entry.name = row.getName();
+      entry.count = row.getCount();
+    }
+
+    // Cada día de historia reciente aporta sus préstamos con el peso de su antigüedad
+    for (LoanDailyRollupEntity row : rollupRepository.findStartedSince(trendingSince())) {
+      Entry entry = entries.get(row.getId().getToolTypeId());
+      if (entry != null) {
+        entry.trend += row.getLoansStarted() * dayWeight(row.getId().getStartDay());
+      }
+    }
+
+    loaded = true;
+    loadedAt = epochMillis;
+  }
+
+  private void apply(long number, Long toolTypeId, String toolName, long atMillis) {
+    lock.lock();
+    try {
+      if (!loaded || number <= loadedThrough) {
+        return; // sin cargar: la próxima lectura recarga; ya leído por la última recarga
+      }
+      Entry entry = entries.computeIfAbsent(toolTypeId, k -> new Entry());
+      entry.name = toolName;
+      entry.count++;
+      entry.trend += weight(atMillis);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void applyMove(
+      long number, Long fromTypeId, Long toTypeId, String toName, List<LoanDayCountsDTO> days) {
+    lock.lock();
+    try {
+      if (!loaded || number <= loadedThrough) {
+        return;
+      }
+      LocalDate since = trendingSince();
+      Entry from = fromTypeId == null ? null : entries.get(fromTypeId);
+      Entry to = entries.computeIfAbsent(toTypeId, k -> new Entry());
+      to.name = toName;
+      for (LoanDayCountsDTO day : days) {
+        // Igual que al cargar: solo los días recientes pesan en la tendencia
+        double trend =
+            day.getStartDay().isBefore(since)
+                ? 0
+                : day.getLoansStarted() * dayWeight(day.getStartDay());
+        to.count += day.getLoansStarted();
+        to.trend += trend;
+        if (from != null) {
+          from.count -= day.getLoansStarted();
+          from.trend -= trend;
+        }
+      }
+      if (from != null && from.count <= 0) {
+        entries.remove(fromTypeId); // la carga tampoco trae tipos sin préstamos
+      }
+      if (to.count <= 0) {
+        entries.remove(toTypeId);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private LocalDate trendingSince() {
+    return LocalDate.now().minusDays((long) Math.ceil(halfLifeDays * TRENDING_HALF_LIVES));
+  }
+
+  private double dayWeight(LocalDate day) {
+    return weight(day.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli());
+  }
+
+  private double weight(long atMillis) {
+    return Math.pow(2, (atMillis - epochMillis) / halfLifeMillis());
+  }
+
+  private double halfLifeMillis() {
+    return Math.max(halfLifeDays, 0.01) * DAY_MILLIS;
+  }
+}
@@ -0,0 +1,178 @@
+package com.toolrent.toolrent.service;
+
+import com.toolrent.toolrent.dto.ToolStockDTO;
+import com.toolrent.toolrent.entity.ToolStatus;
+import com.toolrent.toolrent.entity.ToolTypeEntity;
+import com.toolrent.toolrent.entity.ToolsEntity;
+import com.toolrent.toolrent.repository.ToolsRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Vista en memoria del stock por tipo de herramienta. Se carga una vez con la consulta agrupada y
+ * luego se actualiza con cada transición de estado confirmada (préstamo, devolución, baja,
+ * ingreso). Cada cierto tiempo se recarga completa para corregir cualquier desvío; ReloadFence
+ * descarta los cambios que la recarga ya leyó de la base de datos.
+ */
+@Component
+@RequiredArgsConstructor
+public class ToolStockView {
+
+  // Mismo orden que la consulta agrupada
+  private static final Comparator<ToolStockDTO> BY_NAME_AND_CATEGORY =
+      Comparator.comparing(ToolStockDTO::getName, Comparator.nullsFirst(Comparator.naturalOrder()))
+          .thenComparing(
+              ToolStockDTO::getCategory, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+  private final ToolsRepository toolsRepository;
+
+  @Value("${toolrent.stock.view.enabled:false}")
+  private boolean enabled;
+
+  @Value("${toolrent.stock.view.refresh-ms:300000}")
+  private long refreshMillis;
+
+  // id del tipo de herramienta -> fila de stock
+  private final Map<Long, ToolStockDTO> rows = new HashMap<>();
+
+  private boolean loaded = false;
+
+  private long loadedAt;
+
+  // Último número de confirmación incluido en la carga; los cambios hasta ese número se descartan
+  private long loadedThrough;
+
+  private final ReloadFence fence = new ReloadFence();
+
+  // Lock explícito en vez de synchronized: la recarga consulta la base de datos y, con hilos
+  // virtuales (Java 21), un monitor tomado durante JDBC deja fijo el hilo portador
+  private final ReentrantLock lock = new ReentrantLock();
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public List<ToolStockDTO> snapshot() {
+    if (isStale()) {
+      fence.reload(this::reload);
+    }
+    List<ToolStockDTO> copy;
+    lock.lock();
+    try {
+      copy = new ArrayList<>(rows.size());
+      for (ToolStockDTO row : rows.values()) {
+        copy.add(
+            new ToolStockDTO(
+                row.getToolTypeId(),
+                row.getName(),
+                row.getCategory(),
+                row.getDisponible(),
+                row.getPrestada(),
+                row.getEnReparacion(),
+                row.getDadaDeBaja()));
+      }
+    } finally {
+      lock.unlock();
+    }
+    copy.sort(BY_NAME_AND_CATEGORY);
+    return copy;
+  }
+
+  // Registrar unidades nuevas en un estado
+  public void add(ToolTypeEntity type, ToolStatus status, long units) {
+    if (!enabled) {
+      return;
+    }
+    Long typeId = type.getId();
+    String name = type.getName();
+    String category = type.getCategory();
+    fence.afterCommit(number -> apply(number, typeId, name, category, status, units));
+  }
+
+  // Registrar el cambio de estado de una unidad
+  public void move(ToolsEntity tool, ToolStatus from, ToolStatus to) {
+    if (!enabled || from == to) {
+      return;
+    }
+    Long typeId = tool.getToolTypeId();
+    String name = tool.getName();
+    String category = tool.getCategory();
+    fence.afterCommit(
+        number -> {
+          apply(number, typeId, name, category, from, -1);
+          apply(number, typeId, name, category, to, 1);
+        });
+  }
+
+  // Forzar la recarga en la próxima lectura (cambio de tipo de una unidad, etc.)
+  public void invalidate() {
+    if (!enabled) {
+      return;
+    }
+    AfterCommit.run(
+        () -> {
+          lock.lock();
+          try {
+            loaded = false;
+          } finally {
+            lock.unlock();
+          }
+        });
+  }
+
+  private boolean isStale() {
+    lock.lock();
+    try {
+      return !loaded || System.currentTimeMillis() - loadedAt > refreshMillis;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  // Con la compuerta de ReloadFence tomada; through es el último commit que ya está en la consulta
+  private void reload(long through) {
+    lock.lock();
+    try {
+      if (!isStale()) {
+        return; // otro hilo recargó mientras se esperaba la compuerta
+      }
+      rows.clear();
+      for (ToolStockDTO row : toolsRepository.findToolsStock()) {
+        rows.put(row.getToolTypeId(), row);
+      }
+      loaded = true;
+      loadedAt = System.currentTimeMillis();
+      loadedThrough = through;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void apply(
+      long number, Long typeId, String name, String category, ToolStatus status, long delta) {
+    lock.lock();
+    try {
+      if (!loaded || status == null || number <= loadedThrough) {
+        return; // sin cargar: la próxima lectura recarga; ya leído por la última recarga
+      }
+      ToolStockDTO row =
+          rows.computeIfAbsent(typeId, k -> new ToolStockDTO(typeId, name, category, 0, 0, 0, 0));
+      switch (status) {
+        case DISPONIBLE -> row.setDisponible(row.getDisponible() + delta);
+        case PRESTADA -> row.setPrestada(row.getPrestada() + delta);
+        case EN_REPARACION -> row.setEnReparacion(row.getEnReparacion() + delta);
+        case DADA_DE_BAJA -> row.setDadaDeBaja(row.getDadaDeBaja() + delta);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+}
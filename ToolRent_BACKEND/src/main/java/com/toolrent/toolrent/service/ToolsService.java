@@ -1,30 +1,72 @@
 package com.toolrent.toolrent.service;
 
+import com.toolrent.toolrent.dto.CheckoutStatsDTO;
+import com.toolrent.toolrent.dto.LoanDayCountsDTO;
+import com.toolrent.toolrent.dto.PageDTO;
+import com.toolrent.toolrent.dto.ToolIntakeDTO;
 import com.toolrent.toolrent.dto.ToolStockDTO;
 import com.toolrent.toolrent.entity.KardexEntity;
 import com.toolrent.toolrent.entity.ToolStatus;
+import com.toolrent.toolrent.entity.ToolTypeEntity;
 import com.toolrent.toolrent.entity.ToolsEntity;
+import com.toolrent.toolrent.repository.ToolSpecifications;
+import com.toolrent.toolrent.repository.ToolTypeRepository;
 import com.toolrent.toolrent.repository.ToolsRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
+@Timed("toolrent.service")
 @RequiredArgsConstructor
 public class ToolsService {
 
   private final ToolsRepository toolsRepository;
 
+  private final ToolTypeRepository toolTypeRepository;
+
   private final KardexService kardexService;
 
+  private final ToolStockView toolStockView;
+
+  private final LoanReportService loanReportService;
+
+  private final ToolLeaderboard toolLeaderboard;
+
+  private final ToolCatalogCache toolCatalog;
+
   private static final String TOOL_NOT_FOUND_MESSAGE = "Herramienta no encontrada";
 
-  // Registrar herramienta
+  private static final String TOOL_TYPE_NOT_FOUND_MESSAGE = "Tipo de herramienta no encontrado";
+
+  private static final String PRICE_MISMATCH_MESSAGE =
+      "La herramienta ya existe con otros precios; cambie primero los precios del tipo";
+
+  // Campos por los que se puede ordenar el listado paginado
+  private static final Map<String, String> SORTABLE =
+      Map.of(
+          "id", "id",
+          "status", "status",
+          "name", "toolType.name",
+          "category", "toolType.category");
+
+  // Contadores de préstamos de unidades: intentos y rechazos por unidad no disponible
+  private final AtomicLong checkoutAttempts = new AtomicLong();
+
+  private final AtomicLong checkoutConflicts = new AtomicLong();
+
+  // Registrar herramienta: todas las unidades y sus movimientos INGRESO se insertan en lotes. Si el
+  // tipo ya existe, el ingreso debe traer sus mismos precios
   @Transactional
-  public ToolsEntity registerTool(ToolsEntity tool, int quantity, String rut) {
+  public ToolIntakeDTO registerTool(ToolsEntity tool, int quantity, String rut) {
 
     if (tool.getName() == null || tool.getName().isBlank()) {
       throw new IllegalArgumentException("Se debe ingresar el nombre");
@@ -35,36 +77,24 @@ public class ToolsService {
     if (tool.getReplacementValue() <= 0) {
       throw new IllegalArgumentException("El valor de reposición debe ser mayor que 0");
     }
+    if (quantity <= 0) {
+      throw new IllegalArgumentException("La cantidad debe ser mayor que 0");
+    }
 
-    ToolsEntity firstSaved = null;
-
-    for (int i = 0; i < quantity; i++) {
-
-      ToolsEntity unit = new ToolsEntity();
-      unit.setName(tool.getName());
-      unit.setCategory(tool.getCategory());
-      unit.setReplacementValue(tool.getReplacementValue());
-      unit.setDailyRate(tool.getDailyRate());
-      unit.setDailyLateRate(tool.getDailyLateRate());
-      unit.setRepairValue(tool.getRepairValue());
-      unit.setStatus(ToolStatus.DISPONIBLE);
-
-      ToolsEntity savedTool = toolsRepository.save(unit);
+    ToolTypeEntity type = resolveType(tool.getToolType());
+    List<Long> unitIds =
+        toolsRepository.insertUnits(type.getId(), ToolStatus.DISPONIBLE, quantity);
+    kardexService.registerMovements("INGRESO", unitIds, rut);
 
-      KardexEntity movement = new KardexEntity();
-      movement.setType("INGRESO");
-      movement.setQuantity(1);
-      movement.setTool(savedTool);
-      movement.setDateTime(LocalDateTime.now());
-      movement.setUserRut(rut);
-      kardexService.save(movement);
+    toolStockView.add(type, ToolStatus.DISPONIBLE, quantity);
+    toolCatalog.added(unitIds, ToolStatus.DISPONIBLE);
 
-      if (i == 0) {
-        firstSaved = savedTool;
-      }
-    }
-
-    return firstSaved; // devolvemos solo una unidad válida
+    return new ToolIntakeDTO(
+        tool.getName(),
+        tool.getCategory(),
+        unitIds.size(),
+        unitIds.get(0),
+        unitIds.get(unitIds.size() - 1));
   }
 
   @Transactional
@@ -75,6 +105,8 @@ public class ToolsService {
             .findById(toolId)
             .orElseThrow(() -> new RuntimeException(TOOL_NOT_FOUND_MESSAGE));
 
+    toolStockView.move(tool, tool.getStatus(), ToolStatus.DADA_DE_BAJA);
+    toolCatalog.moved(tool.getId(), tool.getStatus(), ToolStatus.DADA_DE_BAJA);
     tool.setStatus(ToolStatus.DADA_DE_BAJA);
 
     // Registrar movimiento en Kardex
@@ -90,37 +122,113 @@ public class ToolsService {
   }
 
   public List<ToolsEntity> findAll() {
+    if (toolCatalog.isEnabled()) {
+      return toolCatalog.findAll();
+    }
     return toolsRepository.findAll();
   }
 
+  // Página de unidades filtrada por estado, tipo y categoría; el tipo se trae en la misma consulta
+  public PageDTO<ToolsEntity> findPage(
+      ToolStatus status,
+      Long toolTypeId,
+      String category,
+      int page,
+      int size,
+      String sort,
+      boolean count) {
+    Pageable pageable = Paging.pageable(page, size, sort, SORTABLE, Sort.by("id"));
+    return PageDTO.of(
+        toolsRepository.findBy(
+            Specification.allOf(
+                ToolSpecifications.hasStatus(status),
+                ToolSpecifications.ofType(toolTypeId),
+                ToolSpecifications.inCategory(category)),
+            q -> Paging.fetch(q.project("toolType"), pageable, count)));
+  }
+
   public ToolsEntity findById(Long id) {
+    if (toolCatalog.isEnabled()) {
+      return toolCatalog
+          .findById(id)
+          .orElseThrow(() -> new RuntimeException(TOOL_NOT_FOUND_MESSAGE));
+    }
     return toolsRepository
         .findById(id)
         .orElseThrow(() -> new RuntimeException(TOOL_NOT_FOUND_MESSAGE));
   }
 
-  // Obtener una unidad disponible de un tipo de herramienta
+  // Prestar una unidad: el UPDATE condicional es atómico, así dos préstamos simultáneos de la
+  // misma unidad no pueden ganar ambos
   @Transactional
-  public ToolsEntity getAvailableTool(long id) {
-    return toolsRepository
-        .findByIdAndStatus(id, ToolStatus.DISPONIBLE)
-        .orElseThrow(() -> new RuntimeException("No hay unidades disponibles para préstamo"));
-  }
+  public ToolsEntity checkoutTool(Long toolId) {
+    checkoutAttempts.incrementAndGet();
+    if (toolsRepository.updateStatusIfCurrent(toolId, ToolStatus.DISPONIBLE, ToolStatus.PRESTADA)
+        == 0) {
+      if (!toolsRepository.existsById(toolId)) {
+        throw new RuntimeException(TOOL_NOT_FOUND_MESSAGE);
+      }
+      checkoutConflicts.incrementAndGet();
+      throw new IllegalStateException("La herramienta no está disponible");
+    }
 
-  // Prestar una unidad
-  @Transactional
-  public void loanTool(Long toolId) {
+    // Desde la base de datos, no del catálogo: el préstamo necesita la unidad ya PRESTADA
     ToolsEntity tool =
         toolsRepository
             .findById(toolId)
             .orElseThrow(() -> new RuntimeException(TOOL_NOT_FOUND_MESSAGE));
+    toolStockView.move(tool, ToolStatus.DISPONIBLE, ToolStatus.PRESTADA);
+    toolCatalog.moved(toolId, ToolStatus.DISPONIBLE, ToolStatus.PRESTADA);
+    return tool;
+  }
 
-    if (tool.getStatus() != ToolStatus.DISPONIBLE) {
-      throw new IllegalStateException("La herramienta no está disponible");
+  // Unidades pedidas, con su tipo, bloqueadas hasta el fin de la transacción en curso
+  public Map<Long, ToolsEntity> lockUnits(Collection<Long> toolIds) {
+    Map<Long, ToolsEntity> units = new HashMap<>(toolIds.size() * 2);
+    for (ToolsEntity unit : toolsRepository.findAllByIdForUpdate(toolIds)) {
+      units.put(unit.getId(), unit);
     }
+    return units;
+  }
 
-    tool.setStatus(ToolStatus.PRESTADA);
-    toolsRepository.save(tool);
+  // Marcar varias unidades DISPONIBLE como PRESTADA con un solo UPDATE condicional; si alguna ya
+  // no estaba disponible no se presta ninguna
+  public void checkoutUnits(List<ToolsEntity> units) {
+    checkoutAttempts.addAndGet(units.size());
+    List<Long> ids = units.stream().map(ToolsEntity::getId).toList();
+    int updated =
+        toolsRepository.updateStatusIfCurrentIn(ids, ToolStatus.DISPONIBLE, ToolStatus.PRESTADA);
+    if (updated != ids.size()) {
+      checkoutConflicts.addAndGet(ids.size() - updated);
+      throw new IllegalStateException("Una de las herramientas ya no está disponible");
+    }
+    for (ToolsEntity unit : units) {
+      unit.setStatus(ToolStatus.PRESTADA);
+      toolStockView.move(unit, ToolStatus.DISPONIBLE, ToolStatus.PRESTADA);
+      toolCatalog.moved(unit.getId(), ToolStatus.DISPONIBLE, ToolStatus.PRESTADA);
+    }
+  }
+
+  // Sacar varias unidades PRESTADA hacia un mismo estado (DISPONIBLE, EN_REPARACION o
+  // DADA_DE_BAJA) con un solo UPDATE condicional; si alguna ya no estaba prestada no se mueve ninguna
+  public void returnUnits(List<ToolsEntity> units, ToolStatus newStatus) {
+    if (units.isEmpty()) {
+      return;
+    }
+    List<Long> ids = units.stream().map(ToolsEntity::getId).toList();
+    int updated = toolsRepository.updateStatusIfCurrentIn(ids, ToolStatus.PRESTADA, newStatus);
+    if (updated != ids.size()) {
+      throw new IllegalStateException("La herramienta no estaba prestada");
+    }
+    for (ToolsEntity unit : units) {
+      unit.setStatus(newStatus);
+      toolStockView.move(unit, ToolStatus.PRESTADA, newStatus);
+      toolCatalog.moved(unit.getId(), ToolStatus.PRESTADA, newStatus);
+    }
+  }
+
+  public CheckoutStatsDTO getCheckoutStats() {
+    return new CheckoutStatsDTO(checkoutAttempts.get(), checkoutConflicts.get());
   }
 
   // Devolver una unidad
@@ -138,35 +246,18 @@ public class ToolsService {
     tool.setStatus(ToolStatus.DISPONIBLE);
 
     toolsRepository.save(tool);
+    toolStockView.move(tool, ToolStatus.PRESTADA, ToolStatus.DISPONIBLE);
+    toolCatalog.moved(toolId, ToolStatus.PRESTADA, ToolStatus.DISPONIBLE);
   }
 
   public List<ToolStockDTO> getToolsStock() {
-    List<Object[]> toolNameCategory = toolsRepository.findDistinctNameAndCategory();
-    List<ToolStockDTO> stockList = new ArrayList<>();
-
-    for (Object[] pair : toolNameCategory) {
-      String name = (String) pair[0];
-      String category = (String) pair[1];
-
-      ToolStockDTO dto = new ToolStockDTO();
-      dto.setName(name);
-      dto.setCategory(category);
-      dto.setDisponible(
-          toolsRepository.countByNameAndCategoryAndStatus(name, category, ToolStatus.DISPONIBLE));
-      dto.setPrestada(
-          toolsRepository.countByNameAndCategoryAndStatus(name, category, ToolStatus.PRESTADA));
-      dto.setEnReparacion(
-          toolsRepository.countByNameAndCategoryAndStatus(
-              name, category, ToolStatus.EN_REPARACION));
-      dto.setDadaDeBaja(
-          toolsRepository.countByNameAndCategoryAndStatus(name, category, ToolStatus.DADA_DE_BAJA));
-
-      stockList.add(dto);
+    if (toolStockView.isEnabled()) {
+      return toolStockView.snapshot();
     }
-
-    return stockList;
+    return toolsRepository.findToolsStock();
   }
 
+  @Transactional
   public ToolsEntity updateTool(Long toolId, ToolsEntity toolDetails, String rut) {
     // 1. Obtener la herramienta existente
     ToolsEntity tool =
@@ -176,41 +267,31 @@ public class ToolsService {
 
     // Guardar el estado anterior
     ToolStatus oldStatus = tool.getStatus();
+    Long oldTypeId = tool.getToolTypeId();
 
-    // 2. Comprobar si algún precio fue modificado
-    boolean preciosCambiaron =
-        Double.compare(tool.getReplacementValue(), toolDetails.getReplacementValue()) != 0
-            || Double.compare(tool.getDailyRate(), toolDetails.getDailyRate()) != 0
-            || Double.compare(tool.getDailyLateRate(), toolDetails.getDailyLateRate()) != 0
-            || Double.compare(tool.getRepairValue(), toolDetails.getRepairValue()) != 0;
+    // 2. Tipo según nombre y categoría; sus precios son los de todas las unidades del tipo y se
+    // cambian con updateToolTypePrices, no desde la edición de una unidad
+    if (toolDetails.getName() == null || toolDetails.getCategory() == null) {
+      throw new IllegalArgumentException("Se debe ingresar el nombre y la categoría");
+    }
+    ToolTypeEntity type = resolveType(toolDetails.getToolType());
 
     // 3. Actualizar la herramienta principal
-    tool.setName(toolDetails.getName());
-    tool.setCategory(toolDetails.getCategory());
-    tool.setReplacementValue(toolDetails.getReplacementValue());
-    tool.setDailyRate(toolDetails.getDailyRate());
-    tool.setDailyLateRate(toolDetails.getDailyLateRate());
-    tool.setRepairValue(toolDetails.getRepairValue());
+    tool.setToolType(type);
     tool.setStatus(toolDetails.getStatus());
     ToolsEntity updatedTool = toolsRepository.save(tool);
 
-    // 4. Si los precios cambiaron, modificar todas las demás herramientas con el mismo nombre y
-    // categoría
-    if (preciosCambiaron) {
-      // Obtenemos todas las herramientas
-      List<ToolsEntity> herramientasSimilares =
-          toolsRepository.findByNameAndCategory(toolDetails.getName(), toolDetails.getCategory());
-
-      // Actualizamos los precios de cada una
-      for (ToolsEntity h : herramientasSimilares) {
-        if (!h.getId().equals(toolId)) {
-          h.setReplacementValue(toolDetails.getReplacementValue());
-          h.setDailyRate(toolDetails.getDailyRate());
-          h.setDailyLateRate(toolDetails.getDailyLateRate());
-          h.setRepairValue(toolDetails.getRepairValue());
-        }
-      }
-      toolsRepository.saveAll(herramientasSimilares);
+    boolean typeChanged = !Objects.equals(oldTypeId, type.getId());
+    if (oldStatus != tool.getStatus() || typeChanged) {
+      toolStockView.invalidate();
+    }
+    toolCatalog.moved(toolId, oldStatus, tool.getStatus());
+
+    // 4. Los totales diarios de préstamos se agrupan por tipo de herramienta
+    if (typeChanged) {
+      List<LoanDayCountsDTO> movedLoans =
+          loanReportService.unitMoved(toolId, oldTypeId, type.getId());
+      toolLeaderboard.moveLoans(oldTypeId, type.getId(), type.getName(), movedLoans);
     }
 
     // 5. Crear movimiento en Kardex si el estado cambió a EN_REPARACION
@@ -240,7 +321,47 @@ public class ToolsService {
     return updatedTool;
   }
 
+  // Cambiar los precios de un tipo: valen para todas sus unidades, también las prestadas. Es el
+  // único camino para cambiarlos; un ingreso o una edición de unidad no los toca
+  @Transactional
+  public ToolTypeEntity updateToolTypePrices(Long toolTypeId, ToolTypeEntity prices) {
+    if (prices.getReplacementValue() <= 0) {
+      throw new IllegalArgumentException("El valor de reposición debe ser mayor que 0");
+    }
+    ToolTypeEntity type =
+        toolTypeRepository
+            .findById(toolTypeId)
+            .orElseThrow(() -> new RuntimeException(TOOL_TYPE_NOT_FOUND_MESSAGE));
+    if (type.hasSamePrices(prices)) {
+      return type;
+    }
+    type.copyPricesFrom(prices);
+    ToolTypeEntity saved = toolTypeRepository.save(type);
+    toolCatalog.evictByToolType(toolTypeId);
+    return saved;
+  }
+
+  // Buscar o crear el tipo con el nombre y la categoría pedidos. Uno existente con otros precios se
+  // rechaza: cambiarlos aquí cambiaría el precio de todas sus unidades sin que se pidiera
+  private ToolTypeEntity resolveType(ToolTypeEntity requested) {
+    Optional<ToolTypeEntity> existing =
+        toolTypeRepository.findByNameAndCategory(requested.getName(), requested.getCategory());
+    if (existing.isEmpty()) {
+      ToolTypeEntity created = new ToolTypeEntity(requested.getName(), requested.getCategory());
+      created.copyPricesFrom(requested);
+      return toolTypeRepository.save(created);
+    }
+    ToolTypeEntity type = existing.get();
+    if (!type.hasSamePrices(requested)) {
+      throw new IllegalStateException(PRICE_MISMATCH_MESSAGE);
+    }
+    return type;
+  }
+
   public List<ToolsEntity> getAvailableTools() {
+    if (toolCatalog.isEnabled()) {
+      return toolCatalog.findByStatus(ToolStatus.DISPONIBLE);
+    }
     return toolsRepository.findByStatus(ToolStatus.DISPONIBLE);
   }
 }
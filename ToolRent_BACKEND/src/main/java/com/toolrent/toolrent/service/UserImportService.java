@@ -0,0 +1,238 @@
+package com.toolrent.toolrent.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.toolrent.toolrent.dto.UserImportErrorDTO;
+import com.toolrent.toolrent.dto.UserImportReportDTO;
+import com.toolrent.toolrent.dto.UserKeyConflictsDTO;
+import com.toolrent.toolrent.entity.UserEntity;
+import com.toolrent.toolrent.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Importación masiva de clientes desde CSV (con encabezado: rut,name,lastName,email,phoneNumber,
+ * status,username,role) o NDJSON, leídos registro a registro. Las claves únicas existentes se cargan
+ * una vez en conjuntos en memoria, así los duplicados (contra la base o dentro del mismo archivo) se
+ * detectan sin consultas; las filas válidas se insertan en lotes JDBC. En memoria solo quedan las
+ * claves, el lote en curso y las primeras filas rechazadas.
+ */
+@Slf4j
+@Service
+@Timed("toolrent.service")
+@RequiredArgsConstructor
+public class UserImportService {
+
+  private static final int BATCH_SIZE = 500;
+
+  private static final int MAX_REPORTED_ERRORS = 1000;
+
+  // Mismos valores por defecto que el formulario de clientes
+  private static final String DEFAULT_STATUS = "ACTIVO";
+
+  private static final String DEFAULT_ROLE = "CLIENT";
+
+  private static final CsvMapper CSV_MAPPER =
+      CsvMapper.builder().enable(CsvParser.Feature.TRIM_SPACES).build();
+
+  private final UserRepository userRepository;
+
+  private final UserService userService;
+
+  private final ObjectMapper objectMapper;
+
+  public UserImportReportDTO importCsv(InputStream in) throws IOException {
+    MappingIterator<UserEntity> rows =
+        CSV_MAPPER
+            .readerFor(UserEntity.class)
+            .with(CsvSchema.emptySchema().withHeader())
+            .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .readValues(in);
+    return importRows(rows);
+  }
+
+  public UserImportReportDTO importNdjson(InputStream in) throws IOException {
+    return importRows(objectMapper.readerFor(UserEntity.class).readValues(in));
+  }
+
+  private UserImportReportDTO importRows(MappingIterator<UserEntity> rows) throws IOException {
+    UserImportReportDTO report = new UserImportReportDTO();
+    KeySets keys = new KeySets();
+    userRepository.forEachUniqueKey(keys::add);
+
+    List<UserEntity> batch = new ArrayList<>(BATCH_SIZE);
+    List<Long> batchRows = new ArrayList<>(BATCH_SIZE);
+    long row = 0;
+    try (rows) {
+      while (true) {
+        UserEntity user;
+        try {
+          if (!rows.hasNextValue()) {
+            break;
+          }
+          row++;
+          user = rows.nextValue();
+        } catch (JsonMappingException e) {
+          // Registro con un valor inválido: se rechaza y se sigue con el siguiente
+          reject(report, row, null, "Registro inválido: " + e.getOriginalMessage());
+          continue;
+        } catch (JsonProcessingException e) {
+          // Formato roto: no se puede ubicar el siguiente registro
+          reject(
+              report,
+              Math.max(row, 1),
+              null,
+              "Formato inválido, no se leyó el resto del archivo: " + e.getOriginalMessage());
+          break;
+        }
+
+        normalize(user);
+        String problem = missingField(user);
+        if (problem == null) {
+          problem = UserService.conflictMessage(user, keys.conflicts(user));
+        }
+        if (problem != null) {
+          reject(report, row, user.getRut(), problem);
+          continue;
+        }
+
+        keys.add(user);
+        batch.add(user);
+        batchRows.add(row);
+        if (batch.size() == BATCH_SIZE) {
+          flush(batch, batchRows, report);
+        }
+      }
+    }
+    flush(batch, batchRows, report);
+    report.setRows(row);
+    log.info(
+        "Importación de clientes: {} filas, {} importadas, {} rechazadas",
+        row,
+        report.getImported(),
+        report.getRejected());
+    return report;
+  }
+
+  private void flush(List<UserEntity> batch, List<Long> batchRows, UserImportReportDTO report) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    try {
+      userRepository.insertUsers(batch);
+      report.setImported(report.getImported() + batch.size());
+    } catch (DataIntegrityViolationException e) {
+      // Otro registro tomó una de las claves después de cargarlas: fila por fila, con el mensaje
+      // del campo duplicado
+      for (int i = 0; i < batch.size(); i++) {
+        UserEntity user = batch.get(i);
+        try {
+          userService.save(user);
+          report.setImported(report.getImported() + 1);
+        } catch (IllegalStateException | DataIntegrityViolationException ex) {
+          reject(report, batchRows.get(i), user.getRut(), ex.getMessage());
+        }
+      }
+    }
+    batch.clear();
+    batchRows.clear();
+  }
+
+  private static void reject(UserImportReportDTO report, long row, String rut, String message) {
+    report.setRejected(report.getRejected() + 1);
+    if (report.getErrors().size() < MAX_REPORTED_ERRORS) {
+      report.getErrors().add(new UserImportErrorDTO(row, rut, message));
+    } else {
+      report.setErrorsTruncated(true);
+    }
+  }
+
+  private static void normalize(UserEntity user) {
+    user.setId(null);
+    user.setLoans(null);
+    user.setRut(trimToNull(user.getRut()));
+    user.setName(trimToNull(user.getName()));
+    user.setLastName(trimToNull(user.getLastName()));
+    user.setEmail(trimToNull(user.getEmail()));
+    user.setPhoneNumber(trimToNull(user.getPhoneNumber()));
+    user.setUsername(trimToNull(user.getUsername()));
+    String status = trimToNull(user.getStatus());
+    user.setStatus(status == null ? DEFAULT_STATUS : status);
+    String role = trimToNull(user.getRole());
+    user.setRole(role == null ? DEFAULT_ROLE : role);
+  }
+
+  private static String missingField(UserEntity user) {
+    if (user.getRut() == null) {
+      return "Falta el RUT.";
+    }
+    if (user.getUsername() == null) {
+      return "Falta el nombre de usuario.";
+    }
+    if (user.getEmail() == null) {
+      return "Falta el correo electrónico.";
+    }
+    if (user.getPhoneNumber() == null) {
+      return "Falta el número de teléfono.";
+    }
+    return null;
+  }
+
+  private static String trimToNull(String value) {
+    if (value == null) {
+      return null;
+    }
+    String trimmed = value.trim();
+    return trimmed.isEmpty() ? null : trimmed;
+  }
+
+  // Claves únicas ya usadas, en minúsculas (la colación de MySQL no distingue mayúsculas)
+  private static final class KeySets {
+    private final Set<String> ruts = new HashSet<>();
+    private final Set<String> usernames = new HashSet<>();
+    private final Set<String> emails = new HashSet<>();
+    private final Set<String> phoneNumbers = new HashSet<>();
+
+    void add(UserEntity user) {
+      addKey(ruts, user.getRut());
+      addKey(usernames, user.getUsername());
+      addKey(emails, user.getEmail());
+      addKey(phoneNumbers, user.getPhoneNumber());
+    }
+
+    UserKeyConflictsDTO conflicts(UserEntity user) {
+      return new UserKeyConflictsDTO(
+          ruts.contains(key(user.getRut())),
+          usernames.contains(key(user.getUsername())),
+          emails.contains(key(user.getEmail())),
+          phoneNumbers.contains(key(user.getPhoneNumber())));
+    }
+
+    private static void addKey(Set<String> keys, String value) {
+      if (value != null) {
+        keys.add(key(value));
+      }
+    }
+
+    private static String key(String value) {
+      return value.toLowerCase(Locale.ROOT);
+    }
+  }
+}
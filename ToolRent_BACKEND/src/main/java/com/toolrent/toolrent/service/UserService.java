@@ -1,47 +1,58 @@
 package com.toolrent.toolrent.service;
 
+import com.toolrent.toolrent.dto.ClientEligibilityDTO;
+import com.toolrent.toolrent.dto.PageDTO;
+import com.toolrent.toolrent.dto.UserKeyConflictsDTO;
 import com.toolrent.toolrent.entity.UserEntity;
 import com.toolrent.toolrent.repository.UserRepository;
+import com.toolrent.toolrent.repository.UserSpecifications;
+import com.toolrent.toolrent.service.ClientAccountEvents.StatusChanged;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 @Service
+@Timed("toolrent.service")
 @RequiredArgsConstructor
 public class UserService {
 
   private final UserRepository userRepository;
 
+  private final ApplicationEventPublisher events;
+
   private static final String USER_NOT_FOUND_MESSAGE = "Usuario no encontrado";
 
   private static final String STATUS_RESTRICTED = "RESTRINGIDO";
 
+  // Campos por los que se puede ordenar el listado paginado
+  private static final Map<String, String> SORTABLE =
+      Map.of(
+          "id", "id",
+          "rut", "rut",
+          "name", "name",
+          "lastName", "lastName",
+          "status", "status",
+          "username", "username");
+
+  // Se inserta directamente y, si choca con una clave única, se informa el campo duplicado: sin
+  // consultas previas y sin carrera entre la verificación y el INSERT
   public UserEntity save(UserEntity user) {
-    // 1. Validar RUT único
-    if (userRepository.findByRut(user.getRut()).isPresent()) {
-      throw new IllegalStateException("El RUT ya está registrado.");
-    }
-
-    // 2. Validar Username único
-    if (userRepository.findByUsername(user.getUsername()).isPresent()) {
-      throw new IllegalStateException(
-          "El nombre de usuario '" + user.getUsername() + "' ya está en uso.");
-    }
-
-    // 3. Validar Email único
-    if (userRepository.findByEmail(user.getEmail()).isPresent()) {
-      throw new IllegalStateException("El correo electrónico ya está registrado.");
+    try {
+      return userRepository.saveAndFlush(user);
+    } catch (DataIntegrityViolationException e) {
+      throw duplicateKey(user, e);
     }
-
-    // 4. Validar Teléfono único
-    if (userRepository.findByPhoneNumber(user.getPhoneNumber()).isPresent()) {
-      throw new IllegalStateException("El número de teléfono ya está registrado.");
-    }
-
-    return userRepository.save(user);
   }
 
   // Obtener todos los usuarios
@@ -49,39 +60,31 @@ public class UserService {
     return userRepository.findAll();
   }
 
+  // Página de usuarios con filtro opcional por estado (count = false omite el COUNT)
+  public PageDTO<UserEntity> findPage(
+      String status, int page, int size, String sort, boolean count) {
+    Pageable pageable = Paging.pageable(page, size, sort, SORTABLE, Sort.by("id"));
+    return PageDTO.of(
+        userRepository.findBy(
+            UserSpecifications.hasStatus(status), q -> Paging.fetch(q, pageable, count)));
+  }
+
   public UserEntity findById(Long id) {
     return userRepository
         .findById(id)
         .orElseThrow(() -> new RuntimeException(USER_NOT_FOUND_MESSAGE));
   }
 
-  public void checkActiveLoans(Long userId) {
-    long activeLoans = userRepository.countActiveLoans(userId);
-    if (activeLoans >= 5) {
-      throw new IllegalStateException(
-          "El usuario ya tiene 5 prestamos activos no puede tomar otro prestamo.");
-    }
-  }
-
-  public void checkDuplicateToolLoan(Long userId, String toolName) {
-    int activeLoans = userRepository.countActiveLoansByToolName(userId, toolName);
-    if (activeLoans >= 1) {
-      throw new IllegalStateException(
-          "El usuario ya tiene el máximo de préstamos permitidos para esta herramienta");
-    }
-  }
-
+  // Bloquea al cliente y lee de la base de datos las cifras con que se valida un préstamo; los
+  // préstamos concurrentes del mismo cliente esperan aquí hasta que el anterior confirme
   @Transactional
-  public void restrictUserById(Long userId) {
-    UserEntity user =
-        userRepository
-            .findById(userId)
-            .orElseThrow(() -> new RuntimeException(USER_NOT_FOUND_MESSAGE));
-
-    if (!STATUS_RESTRICTED.equalsIgnoreCase(user.getStatus())) {
-      user.setStatus(STATUS_RESTRICTED);
-      userRepository.save(user);
-    }
+  public ClientEligibilityDTO lockForLoan(Long userId, Long toolId) {
+    userRepository
+        .findByIdForUpdate(userId)
+        .orElseThrow(() -> new RuntimeException(USER_NOT_FOUND_MESSAGE));
+    return userRepository
+        .findClientEligibility(userId, toolId, LocalDate.now())
+        .orElseThrow(() -> new RuntimeException(USER_NOT_FOUND_MESSAGE));
   }
 
   @Transactional
@@ -98,6 +101,7 @@ public class UserService {
     }
 
     userRepository.save(user);
+    events.publishEvent(new StatusChanged(userId, user.getStatus()));
   }
 
   public UserEntity updateUser(Long userId, UserEntity userDetails) {
@@ -116,14 +120,70 @@ public class UserService {
     user.setUsername(userDetails.getUsername());
     user.setRole(userDetails.getRole());
 
-    return userRepository.save(user);
+    UserEntity saved;
+    try {
+      saved = userRepository.saveAndFlush(user);
+    } catch (DataIntegrityViolationException e) {
+      throw duplicateKey(user, e);
+    }
+    events.publishEvent(new StatusChanged(userId, user.getStatus()));
+    return saved;
+  }
+
+  // Traducir la violación de una clave única al mensaje del campo; otro error se propaga tal cual
+  private RuntimeException duplicateKey(UserEntity user, DataIntegrityViolationException e) {
+    String violated = violatedConstraint(e);
+    String message =
+        violated == null
+            ? null
+            : conflictMessage(
+                user,
+                new UserKeyConflictsDTO(
+                    violated.contains(UserEntity.UK_RUT),
+                    violated.contains(UserEntity.UK_USERNAME),
+                    violated.contains(UserEntity.UK_EMAIL),
+                    violated.contains(UserEntity.UK_PHONE_NUMBER)));
+    if (message == null) {
+      // Restricción sin nombre reconocible: preguntar qué clave está en uso por otro usuario
+      message = conflictMessage(user, findKeyConflicts(user));
+    }
+    return message == null ? e : new IllegalStateException(message, e);
   }
 
-  public boolean hasUnpaidFinesOrDebts(Long userId) {
-    return userRepository.countUnpaidLoansByUserId(userId) > 0;
+  private UserKeyConflictsDTO findKeyConflicts(UserEntity user) {
+    return userRepository.findKeyConflicts(
+        user.getId(), user.getRut(), user.getUsername(), user.getEmail(), user.getPhoneNumber());
   }
 
-  public boolean hasOverdueLoans(Long userId) {
-    return userRepository.countOverdueLoansByUserId(userId, LocalDate.now()) > 0;
+  // Nombre de la restricción (o mensaje del driver) en minúsculas, o null
+  private static String violatedConstraint(DataIntegrityViolationException e) {
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof ConstraintViolationException violation
+          && violation.getConstraintName() != null) {
+        return violation.getConstraintName().toLowerCase(Locale.ROOT);
+      }
+    }
+    Throwable root = e.getMostSpecificCause();
+    return root.getMessage() == null ? null : root.getMessage().toLowerCase(Locale.ROOT);
+  }
+
+  // Mensaje del primer campo duplicado, en el orden RUT, usuario, correo, teléfono
+  static String conflictMessage(UserEntity user, UserKeyConflictsDTO conflicts) {
+    if (conflicts == null) {
+      return null;
+    }
+    if (conflicts.isRut()) {
+      return "El RUT ya está registrado.";
+    }
+    if (conflicts.isUsername()) {
+      return "El nombre de usuario '" + user.getUsername() + "' ya está en uso.";
+    }
+    if (conflicts.isEmail()) {
+      return "El correo electrónico ya está registrado.";
+    }
+    if (conflicts.isPhoneNumber()) {
+      return "El número de teléfono ya está registrado.";
+    }
+    return null;
   }
 }
@@ -0,0 +1,67 @@
+-- Esquema base, igual al que generaba Hibernate con ddl-auto=update.
+-- Las bases existentes lo marcan como aplicado (spring.flyway.baseline-on-migrate).
+
+create table tools (
+    id bigint not null auto_increment,
+    name varchar(255),
+    category varchar(255),
+    replacement_value float(53) not null,
+    repair_value float(53) not null,
+    daily_rate float(53) not null,
+    daily_late_rate float(53) not null,
+    status enum ('DADA_DE_BAJA','DISPONIBLE','EN_REPARACION','PRESTADA'),
+    primary key (id)
+) engine=InnoDB;
+
+create table users (
+    id bigint not null auto_increment,
+    rut varchar(255) not null,
+    name varchar(255),
+    last_name varchar(255),
+    email varchar(255) not null,
+    phone_number varchar(255) not null,
+    status varchar(255),
+    username varchar(255) not null,
+    role varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table loans (
+    id bigint not null auto_increment,
+    tool_id bigint not null,
+    client_id bigint,
+    start_date date not null,
+    scheduled_return_date date not null,
+    return_date date,
+    delivered bit not null,
+    loan_status varchar(255),
+    fine float(53) not null,
+    loan_price float(53) not null,
+    damage_price float(53) not null,
+    fine_total float(53) not null,
+    total float(53) not null,
+    is_fine_paid bit not null,
+    created_loan datetime(6) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table kardex (
+    id bigint not null auto_increment,
+    type varchar(255) not null,
+    date_time datetime(6) not null,
+    quantity integer not null,
+    tool_id bigint not null,
+    user_rut varchar(255),
+    loan_id bigint,
+    primary key (id)
+) engine=InnoDB;
+
+alter table users add constraint UKscuj1snh0iy35s195t3qff5o unique (rut);
+alter table users add constraint UK6dotkott2kjsp8vw4d0m25fb7 unique (email);
+alter table users add constraint UK9q63snka3mdh91as4io72espi unique (phone_number);
+alter table users add constraint UKr43af9ap4edm43mmtq01oddj6 unique (username);
+
+alter table loans add constraint FKi4jiowc7qufhypuqleh3ugfpc foreign key (tool_id) references tools (id);
+alter table loans add constraint FKg5dd6e6lmrlpij25baaysi3vd foreign key (client_id) references users (id);
+alter table kardex add constraint FKkhcnqk73jv7wfjb0iv29juwm0 foreign key (tool_id) references tools (id);
+alter table kardex add constraint FKbighebqcsx8eiacouymgh0oit foreign key (loan_id) references loans (id);
@@ -0,0 +1,29 @@
+-- Índices compuestos para las consultas de LoanRepository, UserRepository,
+-- KardexRepository y ToolsRepository. Deben coincidir con @Table(indexes) de cada entidad.
+
+-- Préstamos activos ordenados por creación (loansActive)
+create index idx_loans_delivered_created on loans (delivered, created_loan);
+-- Préstamos activos por rango de inicio (loansActiveByDate)
+create index idx_loans_delivered_start on loans (delivered, start_date);
+-- Proceso de atrasos: ids vencidos y clientes a restringir
+create index idx_loans_overdue_sweep on loans (delivered, scheduled_return_date, client_id);
+-- Reporte de atrasados (overdueClients y su variante por fechas)
+create index idx_loans_status_due_start on loans (loan_status, scheduled_return_date, start_date);
+-- Validaciones por cliente: activos y vencidos
+create index idx_loans_client_delivered_due on loans (client_id, delivered, scheduled_return_date);
+-- Validaciones por cliente: multas impagas
+create index idx_loans_client_fine_paid on loans (client_id, is_fine_paid);
+-- Listado de multas impagas (unpaid)
+create index idx_loans_fine_paid on loans (is_fine_paid);
+-- Ranking de herramientas por rango de fechas
+create index idx_loans_start_tool on loans (start_date, tool_id);
+
+-- Kardex de una herramienta por rango de fechas
+create index idx_kardex_tool_date on kardex (tool_id, date_time);
+-- Kardex por fechas y paginación por cursor (dateTime, id)
+create index idx_kardex_date_id on kardex (date_time, id);
+
+-- Unidades por estado y checkout condicional
+create index idx_tools_status on tools (status);
+-- Stock agrupado por nombre y categoría, unidades de un mismo modelo
+create index idx_tools_name_category_status on tools (name, category, status);
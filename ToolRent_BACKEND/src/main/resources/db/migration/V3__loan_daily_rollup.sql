@@ -0,0 +1,17 @@
+-- Totales diarios de préstamos para los reportes por fechas (LoanReportService)
+
+create table loan_daily_rollup (
+    start_day date not null,
+    tool_name varchar(255) not null,
+    loans_started bigint not null,
+    active_loans bigint not null,
+    overdue_loans bigint not null,
+    primary key (start_day, tool_name)
+) engine=InnoDB;
+
+insert into loan_daily_rollup (start_day, tool_name, loans_started, active_loans, overdue_loans)
+select l.start_date, coalesce(t.name, ''), count(*),
+       sum(case when l.delivered = false then 1 else 0 end),
+       sum(case when l.loan_status = 'ATRASADO' then 1 else 0 end)
+from loans l join tools t on t.id = l.tool_id
+group by l.start_date, coalesce(t.name, '');
@@ -0,0 +1,14 @@
+-- Bitácora de movimientos de kardex pendientes (KardexOutboxService): se escribe en la misma
+-- transacción que la operación y un proceso en segundo plano la traspasa a kardex en lotes.
+-- Sin claves foráneas ni índices secundarios para que la escritura sea lo más barata posible.
+
+create table kardex_outbox (
+    id bigint not null auto_increment,
+    type varchar(255) not null,
+    date_time datetime(6) not null,
+    quantity integer not null,
+    tool_id bigint not null,
+    loan_id bigint,
+    user_rut varchar(255),
+    primary key (id)
+) engine=InnoDB;
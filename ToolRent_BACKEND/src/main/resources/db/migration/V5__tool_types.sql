@@ -0,0 +1,62 @@
+-- Tipos de herramienta: nombre, categoría y tarifas pasan de cada unidad (tools) a una fila
+-- compartida (tool_types). Las unidades la referencian por tool_type_id y los totales diarios de
+-- préstamos se agrupan por ese id en vez del nombre.
+
+create table tool_types (
+    id bigint not null auto_increment,
+    name varchar(255) not null,
+    category varchar(255) not null,
+    replacement_value float(53) not null,
+    repair_value float(53) not null,
+    daily_rate float(53) not null,
+    daily_late_rate float(53) not null,
+    primary key (id)
+) engine=InnoDB;
+
+alter table tool_types add constraint uk_tool_types_name_category unique (name, category);
+
+-- Un tipo por cada nombre y categoría existentes, con las tarifas de su unidad más reciente
+insert into tool_types (name, category, replacement_value, repair_value, daily_rate, daily_late_rate)
+select coalesce(t.name, ''), coalesce(t.category, ''),
+       t.replacement_value, t.repair_value, t.daily_rate, t.daily_late_rate
+from tools t
+where t.id in (select max(u.id) from tools u
+               group by coalesce(u.name, ''), coalesce(u.category, ''));
+
+alter table tools add column tool_type_id bigint;
+
+update tools set tool_type_id = (
+    select tt.id from tool_types tt
+    where tt.name = coalesce(tools.name, '') and tt.category = coalesce(tools.category, ''));
+
+alter table tools modify tool_type_id bigint not null;
+
+create index idx_tools_type_status on tools (tool_type_id, status);
+alter table tools add constraint fk_tools_tool_type foreign key (tool_type_id) references tool_types (id);
+
+drop index idx_tools_name_category_status on tools;
+alter table tools drop column name;
+alter table tools drop column category;
+alter table tools drop column replacement_value;
+alter table tools drop column repair_value;
+alter table tools drop column daily_rate;
+alter table tools drop column daily_late_rate;
+
+-- Totales diarios por tipo de herramienta, recalculados desde loans
+drop table loan_daily_rollup;
+
+create table loan_daily_rollup (
+    start_day date not null,
+    tool_type_id bigint not null,
+    loans_started bigint not null,
+    active_loans bigint not null,
+    overdue_loans bigint not null,
+    primary key (start_day, tool_type_id)
+) engine=InnoDB;
+
+insert into loan_daily_rollup (start_day, tool_type_id, loans_started, active_loans, overdue_loans)
+select l.start_date, t.tool_type_id, count(*),
+       sum(case when l.delivered = false then 1 else 0 end),
+       sum(case when l.loan_status = 'ATRASADO' then 1 else 0 end)
+from loans l join tools t on t.id = l.tool_id
+group by l.start_date, t.tool_type_id;
@@ -0,0 +1,11 @@
+-- Nombres legibles para las restricciones únicas de users (V1 tenía los generados por Hibernate),
+-- así UserService reconoce qué campo está duplicado a partir del error del INSERT
+alter table users drop index UKscuj1snh0iy35s195t3qff5o;
+alter table users drop index UK9q63snka3mdh91as4io72espi;
+alter table users drop index UK6dotkott2kjsp8vw4d0m25fb7;
+alter table users drop index UKr43af9ap4edm43mmtq01oddj6;
+
+alter table users add constraint uk_users_rut unique (rut);
+alter table users add constraint uk_users_username unique (username);
+alter table users add constraint uk_users_email unique (email);
+alter table users add constraint uk_users_phone_number unique (phone_number);
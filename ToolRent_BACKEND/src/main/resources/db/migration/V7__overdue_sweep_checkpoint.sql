@@ -0,0 +1,11 @@
+-- Punto de control del proceso de atrasos (OverdueSweepService). No es parte de V1: las bases
+-- existentes se marcan en V1 sin ejecutarlo. Las que corrieron con ddl-auto=update ya pueden
+-- tener la tabla, de ahí el if not exists.
+
+create table if not exists overdue_sweep_checkpoint (
+    sweep_date date not null,
+    last_loan_id bigint not null,
+    completed bit not null,
+    updated_at datetime(6),
+    primary key (sweep_date)
+) engine=InnoDB;
@@ -0,0 +1,16 @@
+-- Movimientos de la bitácora que no se pudieron traspasar a kardex (p. ej. una herramienta o un
+-- préstamo que ya no existe). Se apartan aquí con el error para que el resto siga avanzando; se
+-- conserva el id original de kardex_outbox.
+
+create table kardex_outbox_failed (
+    id bigint not null,
+    type varchar(255) not null,
+    date_time datetime(6) not null,
+    quantity integer not null,
+    tool_id bigint not null,
+    loan_id bigint,
+    user_rut varchar(255),
+    error varchar(1000),
+    failed_at datetime(6) not null,
+    primary key (id)
+) engine=InnoDB;
@@ -0,0 +1,101 @@
+package com.toolrent.toolrent.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DataAccessSettingsTest {
+
+  private static final String MYSQL_URL =
+      "jdbc:mysql://localhost:3306/dbtoolrent?useCursorFetch=true"
+          + "&rewriteBatchedStatements=true&cachePrepStmts=true";
+
+  private HikariDataSource dataSource;
+
+  private EntityManagerFactory entityManagerFactory;
+
+  private DataAccessSettings settings;
+
+  @BeforeEach
+  void setUp() {
+    dataSource = new HikariDataSource();
+    dataSource.setPoolName("toolrent");
+    dataSource.setMaximumPoolSize(20);
+    dataSource.setMinimumIdle(20);
+    dataSource.setJdbcUrl(MYSQL_URL);
+    entityManagerFactory = mock(EntityManagerFactory.class);
+    settings = new DataAccessSettings(dataSource, entityManagerFactory);
+  }
+
+  @AfterEach
+  void tearDown() {
+    dataSource.close();
+  }
+
+  @Test
+  void whenProductionSettings_thenNoProblems() {
+    when(entityManagerFactory.getProperties())
+        .thenReturn(
+            Map.of(
+                "hibernate.jdbc.batch_size", "50",
+                "hibernate.order_inserts", "true",
+                "hibernate.order_updates", "true"));
+
+    assertTrue(settings.problems().isEmpty());
+    assertEquals(
+        Map.of(
+            "batchSize", 50,
+            "orderInserts", true,
+            "orderUpdates", true,
+            "rewriteBatchedStatements", true,
+            "cachePrepStmts", true),
+        settings.batching());
+  }
+
+  @Test
+  void whenBatchingMissing_thenReportsEachSetting() {
+    when(entityManagerFactory.getProperties()).thenReturn(Map.of());
+    dataSource.setJdbcUrl("jdbc:mysql://localhost:3306/dbtoolrent?useCursorFetch=true");
+
+    List<String> problems = settings.problems();
+
+    assertEquals(5, problems.size());
+    assertTrue(problems.get(0).contains("hibernate.jdbc.batch_size"));
+    assertTrue(problems.contains("la URL de MySQL debe incluir rewriteBatchedStatements=true"));
+    assertTrue(problems.contains("la URL de MySQL debe incluir cachePrepStmts=true"));
+  }
+
+  @Test
+  void whenNotMySql_thenUrlFlagsAreNotRequired() {
+    List<String> problems =
+        DataAccessSettings.problems("jdbc:h2:mem:testdb;MODE=MySQL", 50, true, true);
+
+    assertTrue(problems.isEmpty());
+  }
+
+  @Test
+  void urlFlag_readsOnlyTheQueryString() {
+    assertTrue(DataAccessSettings.urlFlag(MYSQL_URL, "rewriteBatchedStatements"));
+    assertFalse(DataAccessSettings.urlFlag(MYSQL_URL + "&useSSL=false", "useSSL"));
+    assertFalse(DataAccessSettings.urlFlag("jdbc:mysql://host/cachePrepStmts", "cachePrepStmts"));
+    assertFalse(DataAccessSettings.urlFlag(null, "cachePrepStmts"));
+  }
+
+  @Test
+  void pool_reportsConfiguredSizesBeforeStart() {
+    Map<String, Object> pool = settings.pool();
+
+    assertEquals("toolrent", pool.get("name"));
+    assertEquals(20, pool.get("maximumPoolSize"));
+    assertEquals(20, pool.get("minimumIdle"));
+    assertFalse(pool.containsKey("active")); // el pool aún no abre conexiones
+  }
+}
@@ -0,0 +1,70 @@
+package com.toolrent.toolrent.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Base existente anterior a Flyway (solo el esquema de V1, sin historial de migraciones) sobre H2 en
+ * modo MySQL: al arrancar, Flyway la marca en V1 y aplica desde V2, y la aplicación solo levanta si
+ * Hibernate valida el esquema resultante contra las entidades (ddl-auto=validate).
+ */
+@SpringBootTest(
+    properties = {
+      "spring.datasource.driverClassName=org.h2.Driver",
+      "spring.datasource.username=sa",
+      "spring.datasource.password=",
+      "spring.flyway.enabled=true",
+      "spring.jpa.hibernate.ddl-auto=validate"
+    })
+class SchemaMigrationTest {
+
+  private static final String URL =
+      "jdbc:h2:mem:baselined;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Autowired private SchemaIndexCheck schemaIndexCheck;
+
+  @DynamicPropertySource
+  static void existingDatabase(DynamicPropertyRegistry registry) throws SQLException {
+    DriverManagerDataSource dataSource = new DriverManagerDataSource(URL, "sa", "");
+    try (Connection connection = dataSource.getConnection()) {
+      ScriptUtils.executeSqlScript(
+          connection, new ClassPathResource("db/migration/V1__baseline_schema.sql"));
+    }
+    registry.add("spring.datasource.url", () -> URL);
+  }
+
+  @Test
+  void existingDatabaseIsBaselinedAtV1AndMigratesToCurrentSchema() throws SQLException {
+    List<String> applied =
+        jdbcTemplate.queryForList(
+            "SELECT CONCAT(\"version\", ' ', \"type\") FROM \"flyway_schema_history\" "
+                + "WHERE \"version\" IS NOT NULL AND \"success\" = true "
+                + "ORDER BY \"installed_rank\"",
+            String.class);
+    assertEquals("1 BASELINE", applied.get(0)); // V1 no se ejecutó
+    assertEquals("8 SQL", applied.get(applied.size() - 1));
+
+    // Tablas que no estaban en V1
+    assertNotNull(
+        jdbcTemplate.queryForObject("SELECT COUNT(*) FROM overdue_sweep_checkpoint", Long.class));
+    assertNotNull(
+        jdbcTemplate.queryForObject("SELECT COUNT(*) FROM loan_daily_rollup", Long.class));
+
+    assertEquals(List.of(), schemaIndexCheck.findMissingIndexes());
+  }
+}
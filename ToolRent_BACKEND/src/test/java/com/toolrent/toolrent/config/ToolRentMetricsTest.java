@@ -0,0 +1,81 @@
+package com.toolrent.toolrent.config;
+
+import com.toolrent.toolrent.dto.CheckoutStatsDTO;
+import com.toolrent.toolrent.dto.LoanReportSummaryDTO;
+import com.toolrent.toolrent.dto.ToolStockDTO;
+import com.toolrent.toolrent.service.LoanReportService;
+import com.toolrent.toolrent.service.ToolsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ToolRentMetricsTest {
+
+  @Mock private LoanReportService loanReportService;
+
+  @Mock private ToolsService toolsService;
+
+  @InjectMocks private ToolRentMetrics metrics;
+
+  private SimpleMeterRegistry registry;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    ReflectionTestUtils.setField(metrics, "cacheMillis", 60_000L);
+    when(loanReportService.getTotals()).thenReturn(new LoanReportSummaryDTO(50L, 12L, 3L));
+    when(toolsService.getToolsStock())
+        .thenReturn(
+            List.of(
+                new ToolStockDTO(1L, "Taladro", "Eléctricas", 4, 2, 1, 0),
+                new ToolStockDTO(2L, "Martillo", "Manuales", 6, 1, 0, 2)));
+    when(toolsService.getCheckoutStats()).thenReturn(new CheckoutStatsDTO(20, 5));
+
+    registry = new SimpleMeterRegistry();
+    metrics.bindTo(registry);
+  }
+
+  @Test
+  void testLoanGauges() {
+    assertEquals(12.0, registry.get("toolrent.loans.active").gauge().value());
+    assertEquals(3.0, registry.get("toolrent.loans.overdue").gauge().value());
+  }
+
+  @Test
+  void testStockGaugesSumAllTools() {
+    assertEquals(10.0, stock("DISPONIBLE"));
+    assertEquals(3.0, stock("PRESTADA"));
+    assertEquals(1.0, stock("EN_REPARACION"));
+    assertEquals(2.0, stock("DADA_DE_BAJA"));
+  }
+
+  @Test
+  void testGaugesShareOneCachedSnapshot() {
+    registry.get("toolrent.loans.active").gauge().value();
+    registry.get("toolrent.loans.overdue").gauge().value();
+    stock("DISPONIBLE");
+    stock("PRESTADA");
+
+    verify(loanReportService, times(1)).getTotals();
+    verify(toolsService, times(1)).getToolsStock();
+  }
+
+  @Test
+  void testCheckoutCounters() {
+    assertEquals(20.0, registry.get("toolrent.tools.checkout.attempts").functionCounter().count());
+    assertEquals(5.0, registry.get("toolrent.tools.checkout.conflicts").functionCounter().count());
+  }
+
+  private double stock(String status) {
+    return registry.get("toolrent.tools.stock").tag("status", status).gauge().value();
+  }
+}
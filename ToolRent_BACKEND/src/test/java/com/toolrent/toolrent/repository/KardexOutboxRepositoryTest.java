@@ -0,0 +1,81 @@
+package com.toolrent.toolrent.repository;
+
+import com.toolrent.toolrent.entity.*;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Las sentencias nativas de kardex_outbox ejecutadas de verdad, sobre H2 en modo MySQL con el
+ * esquema de las migraciones de Flyway (kardex sí tiene claves foráneas).
+ */
+@DataJpaTest(
+    properties = {
+      "spring.datasource.url=jdbc:h2:mem:outbox;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+      "spring.datasource.driverClassName=org.h2.Driver",
+      "spring.datasource.username=sa",
+      "spring.datasource.password=",
+      "spring.flyway.enabled=true",
+      "spring.jpa.hibernate.ddl-auto=validate"
+    })
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class KardexOutboxRepositoryTest {
+
+  @Autowired private KardexOutboxRepository outboxRepository;
+
+  @Autowired private KardexRepository kardexRepository;
+
+  @Autowired private EntityManager entityManager;
+
+  @Test
+  void poisonedRowFailsAloneAndCanBeSetAside() {
+    ToolTypeEntity type = new ToolTypeEntity("Taladro", "Eléctricas");
+    entityManager.persist(type);
+    ToolsEntity tool = new ToolsEntity();
+    tool.setToolType(type);
+    tool.setStatus(ToolStatus.DISPONIBLE);
+    entityManager.persist(tool);
+    Long poisoned = outboxRow(tool.getId() + 1000); // herramienta inexistente
+    Long good = outboxRow(tool.getId());
+
+    List<Long> ids = outboxRepository.findOldestIds(10);
+    assertEquals(List.of(poisoned, good), ids);
+    assertThrows(
+        DataIntegrityViolationException.class,
+        () -> outboxRepository.copyToKardex(List.of(poisoned)));
+
+    assertEquals(1, outboxRepository.copyToFailed(List.of(poisoned), "FK", LocalDateTime.now()));
+    outboxRepository.deleteByIds(List.of(poisoned));
+    assertEquals(List.of(good), outboxRepository.lockId(good));
+    assertEquals(1, outboxRepository.copyToKardex(List.of(good)));
+    outboxRepository.deleteByIds(List.of(good));
+    entityManager.clear();
+
+    assertEquals(0, outboxRepository.count());
+    assertEquals(1, kardexRepository.count());
+    KardexOutboxFailedEntity failed =
+        entityManager.find(KardexOutboxFailedEntity.class, poisoned);
+    assertEquals(tool.getId() + 1000, failed.getToolId());
+    assertEquals("FK", failed.getError());
+  }
+
+  private Long outboxRow(Long toolId) {
+    KardexOutboxEntity row = new KardexOutboxEntity();
+    row.setType("PRESTAMO");
+    row.setDateTime(LocalDateTime.now());
+    row.setQuantity(1);
+    row.setToolId(toolId);
+    row.setUserRut("1-9");
+    entityManager.persist(row);
+    entityManager.flush();
+    return row.getId();
+  }
+}
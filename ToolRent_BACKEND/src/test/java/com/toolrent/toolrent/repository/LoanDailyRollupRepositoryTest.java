@@ -0,0 +1,191 @@
+package com.toolrent.toolrent.repository;
+
+import com.toolrent.toolrent.dto.LoanDayCountsDTO;
+import com.toolrent.toolrent.dto.LoanReportSummaryDTO;
+import com.toolrent.toolrent.entity.*;
+import com.toolrent.toolrent.service.LoanReportService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Las sentencias nativas de loan_daily_rollup (INSERT ... ON DUPLICATE KEY UPDATE) ejecutadas de
+ * verdad, sobre H2 en modo MySQL con el esquema de las migraciones de Flyway.
+ */
+@DataJpaTest(
+    properties = {
+      "spring.datasource.url=jdbc:h2:mem:rollup;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+      "spring.datasource.driverClassName=org.h2.Driver",
+      "spring.datasource.username=sa",
+      "spring.datasource.password=",
+      "spring.flyway.enabled=true",
+      "spring.jpa.hibernate.ddl-auto=validate"
+    })
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class LoanDailyRollupRepositoryTest {
+
+  @Autowired private LoanDailyRollupRepository rollupRepository;
+
+  @Autowired private LoanRepository loanRepository;
+
+  @Autowired private EntityManager entityManager;
+
+  private final LocalDate today = LocalDate.now();
+
+  private final LocalDate day = today.minusDays(10);
+
+  private ToolTypeEntity drill;
+
+  private ToolTypeEntity saw;
+
+  private UserEntity client;
+
+  @BeforeEach
+  void setUp() {
+    drill = toolType("Taladro");
+    saw = toolType("Sierra");
+    client = new UserEntity();
+    client.setRut("1-9");
+    client.setEmail("cliente@test.com");
+    client.setPhoneNumber("911111111");
+    client.setUsername("cliente");
+    client.setStatus("Activo");
+    entityManager.persist(client);
+  }
+
+  @Test
+  void addCountsCreatesTheRowAndThenAccumulates() {
+    rollupRepository.addCounts(day, drill.getId(), 1, 1, 0);
+    rollupRepository.addCounts(day, drill.getId(), 1, 1, 0);
+    rollupRepository.addCounts(day, drill.getId(), 0, 0, 1);
+    rollupRepository.addCounts(day, drill.getId(), 0, -1, -1); // devolución de un atrasado
+    rollupRepository.addCounts(day, saw.getId(), 1, 1, 0);
+    entityManager.clear();
+
+    LoanDailyRollupEntity drillRow = row(day, drill);
+    assertEquals(2, drillRow.getLoansStarted());
+    assertEquals(1, drillRow.getActiveLoans());
+    assertEquals(0, drillRow.getOverdueLoans());
+    assertEquals(1, row(day, saw).getLoansStarted());
+    assertEquals(2, rollupRepository.count());
+  }
+
+  @Test
+  void newlyOverdueCountsEachLoanOnceAndOnlyInRange() {
+    LoanEntity onTime = loan(drill, today.plusDays(3));
+    LoanEntity late = loan(drill, today.minusDays(2));
+    LoanEntity lateSaw = loan(saw, today.minusDays(1));
+    LoanEntity outOfRange = loan(drill, today.minusDays(4));
+    long upToId = lateSaw.getId();
+    rollupRepository.addCounts(day, drill.getId(), 3, 3, 0); // fila previa del día
+
+    rollupRepository.addNewlyOverdueInRange(today, onTime.getId() - 1, upToId);
+    assertEquals(2, loanRepository.markOverdueLoansInRange(today, onTime.getId() - 1, upToId));
+    // Segundo pase sobre el mismo tramo: ya están ATRASADO, no se cuentan de nuevo
+    rollupRepository.addNewlyOverdueInRange(today, onTime.getId() - 1, upToId);
+    entityManager.clear();
+
+    assertEquals(1, row(day, drill).getOverdueLoans());
+    assertEquals(3, row(day, drill).getLoansStarted()); // los demás contadores no cambian
+    assertEquals(1, row(day, saw).getOverdueLoans());
+    assertEquals("ATRASADO", loanRepository.findById(late.getId()).orElseThrow().getLoanStatus());
+    assertNotEquals(
+        "ATRASADO", loanRepository.findById(outOfRange.getId()).orElseThrow().getLoanStatus());
+  }
+
+  @Test
+  void rebuildRecomputesCountsFromLoans() {
+    loan(drill, today.plusDays(3));
+    LoanEntity returned = loan(drill, today.plusDays(3));
+    returned.setDelivered(true);
+    LoanEntity overdue = loan(saw, today.minusDays(2));
+    overdue.setLoanStatus("ATRASADO");
+    rollupRepository.addCounts(day, drill.getId(), 99, 99, 99); // contadores desviados
+    entityManager.flush();
+
+    rollupRepository.deleteAllRows();
+    assertEquals(2, rollupRepository.insertFromLoans());
+    entityManager.clear();
+
+    LoanDailyRollupEntity drillRow = row(day, drill);
+    assertEquals(2, drillRow.getLoansStarted());
+    assertEquals(1, drillRow.getActiveLoans());
+    assertEquals(0, drillRow.getOverdueLoans());
+    LoanReportSummaryDTO summary = rollupRepository.sumBetween(day, day);
+    assertEquals(3, summary.getLoansStarted());
+    assertEquals(2, summary.getActiveLoans());
+    assertEquals(1, summary.getOverdueLoans());
+  }
+
+  @Test
+  void unitMovedShiftsOnlyThatUnitsLoans() {
+    ToolTypeEntity hammer = toolType("Martillo");
+    LoanEntity moved = loan(drill, today.plusDays(3));
+    LoanEntity movedOverdue = loan(moved.getTool(), today.minusDays(2));
+    movedOverdue.setLoanStatus("ATRASADO");
+    loan(drill, today.plusDays(3)); // otra unidad del mismo tipo
+    loan(hammer, today.plusDays(3));
+    entityManager.flush();
+    rollupRepository.insertFromLoans();
+    LoanReportService reports = new LoanReportService(rollupRepository, loanRepository);
+
+    List<LoanDayCountsDTO> days =
+        reports.unitMoved(moved.getTool().getId(), drill.getId(), saw.getId());
+    entityManager.clear();
+
+    assertEquals(1, days.size());
+    assertEquals(2, days.get(0).getLoansStarted());
+    LoanDailyRollupEntity drillRow = row(day, drill);
+    assertEquals(1, drillRow.getLoansStarted()); // queda la otra unidad
+    assertEquals(1, drillRow.getActiveLoans());
+    assertEquals(0, drillRow.getOverdueLoans());
+    LoanDailyRollupEntity sawRow = row(day, saw);
+    assertEquals(2, sawRow.getLoansStarted());
+    assertEquals(2, sawRow.getActiveLoans());
+    assertEquals(1, sawRow.getOverdueLoans());
+    assertEquals(1, row(day, hammer).getLoansStarted());
+    assertEquals(4, rollupRepository.sumAllTime().getLoansStarted());
+  }
+
+  private LoanDailyRollupEntity row(LocalDate startDay, ToolTypeEntity type) {
+    return rollupRepository
+        .findById(new LoanDailyRollupId(startDay, type.getId()))
+        .orElseThrow();
+  }
+
+  private ToolTypeEntity toolType(String name) {
+    ToolTypeEntity type = new ToolTypeEntity(name, "Eléctricas");
+    type.setDailyLateRate(10);
+    entityManager.persist(type);
+    return type;
+  }
+
+  private LoanEntity loan(ToolTypeEntity type, LocalDate scheduledReturnDate) {
+    ToolsEntity tool = new ToolsEntity();
+    tool.setToolType(type);
+    tool.setStatus(ToolStatus.PRESTADA);
+    entityManager.persist(tool);
+    return loan(tool, scheduledReturnDate);
+  }
+
+  private LoanEntity loan(ToolsEntity tool, LocalDate scheduledReturnDate) {
+    LoanEntity loan = new LoanEntity();
+    loan.setTool(tool);
+    loan.setClient(client);
+    loan.setStartDate(day);
+    loan.setScheduledReturnDate(scheduledReturnDate);
+    loan.setCreatedLoan(LocalDateTime.now());
+    entityManager.persist(loan);
+    entityManager.flush();
+    return loan;
+  }
+}
@@ -0,0 +1,116 @@
+package com.toolrent.toolrent.repository;
+
+import com.toolrent.toolrent.dto.ClientEligibilityDTO;
+import com.toolrent.toolrent.entity.*;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * La consulta de elegibilidad de préstamo ejecutada de verdad, sobre H2 en modo MySQL con el
+ * esquema de las migraciones de Flyway.
+ */
+@DataJpaTest(
+    properties = {
+      "spring.datasource.url=jdbc:h2:mem:users;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+      "spring.datasource.driverClassName=org.h2.Driver",
+      "spring.datasource.username=sa",
+      "spring.datasource.password=",
+      "spring.flyway.enabled=true",
+      "spring.jpa.hibernate.ddl-auto=validate"
+    })
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class UserRepositoryTest {
+
+  @Autowired private UserRepository userRepository;
+
+  @Autowired private EntityManager entityManager;
+
+  private final LocalDate today = LocalDate.now();
+
+  private UserEntity client;
+
+  private ToolTypeEntity drill;
+
+  private ToolTypeEntity saw;
+
+  @BeforeEach
+  void setUp() {
+    client = new UserEntity();
+    client.setRut("1-9");
+    client.setEmail("cliente@test.com");
+    client.setPhoneNumber("911111111");
+    client.setUsername("cliente");
+    client.setStatus("RESTRINGIDO");
+    entityManager.persist(client);
+    drill = toolType("Taladro");
+    saw = toolType("Sierra");
+  }
+
+  @Test
+  void eligibilityCountsEachRuleFromLoans() {
+    loan(drill, today.plusDays(3), false, 0);
+    loan(drill, today.minusDays(1), false, 0); // vencido
+    loan(saw, today.minusDays(5), true, 3000); // devuelto con multa impaga
+    ToolsEntity freeDrill = unit(drill);
+    entityManager.flush();
+
+    ClientEligibilityDTO eligibility =
+        userRepository.findClientEligibility(client.getId(), freeDrill.getId(), today).orElseThrow();
+
+    assertEquals("RESTRINGIDO", eligibility.getStatus());
+    assertEquals(2, eligibility.getActiveLoans());
+    assertEquals(1, eligibility.getUnpaidLoans());
+    assertEquals(1, eligibility.getOverdueLoans());
+    assertEquals(2, eligibility.getSameTypeActiveLoans());
+  }
+
+  @Test
+  void eligibilityWithoutToolLeavesSameTypeAtZero() {
+    loan(drill, today.plusDays(3), false, 0);
+    entityManager.flush();
+
+    ClientEligibilityDTO eligibility =
+        userRepository.findClientEligibility(client.getId(), null, today).orElseThrow();
+
+    assertEquals(1, eligibility.getActiveLoans());
+    assertEquals(0, eligibility.getSameTypeActiveLoans());
+    assertTrue(userRepository.findClientEligibility(-1L, null, today).isEmpty());
+  }
+
+  private ToolTypeEntity toolType(String name) {
+    ToolTypeEntity type = new ToolTypeEntity(name, "Eléctricas");
+    type.setReplacementValue(100);
+    entityManager.persist(type);
+    return type;
+  }
+
+  private ToolsEntity unit(ToolTypeEntity type) {
+    ToolsEntity tool = new ToolsEntity();
+    tool.setToolType(type);
+    tool.setStatus(ToolStatus.DISPONIBLE);
+    entityManager.persist(tool);
+    return tool;
+  }
+
+  private void loan(ToolTypeEntity type, LocalDate due, boolean delivered, double fine) {
+    LoanEntity loan = new LoanEntity();
+    loan.setTool(unit(type));
+    loan.setClient(client);
+    loan.setStartDate(due.minusDays(2));
+    loan.setScheduledReturnDate(due);
+    loan.setDelivered(delivered);
+    loan.setFine(fine);
+    loan.setFinePaid(fine == 0);
+    loan.setCreatedLoan(LocalDateTime.now());
+    entityManager.persist(loan);
+  }
+}
@@ -0,0 +1,129 @@
+package com.toolrent.toolrent.service;
+
+import com.toolrent.toolrent.dto.ClientLoanStateDTO;
+import com.toolrent.toolrent.entity.UserEntity;
+import com.toolrent.toolrent.repository.LoanRepository;
+import com.toolrent.toolrent.repository.UserRepository;
+import com.toolrent.toolrent.service.ClientAccountEvents.AllChanged;
+import com.toolrent.toolrent.service.ClientAccountEvents.LoanChanged;
+import com.toolrent.toolrent.service.ClientAccountEvents.StatusChanged;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ClientAccountStateTest {
+
+  private static final LocalDate TODAY = LocalDate.now();
+
+  @Mock private UserRepository userRepository;
+
+  @Mock private LoanRepository loanRepository;
+
+  @InjectMocks private ClientAccountState accountState;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    ReflectionTestUtils.setField(accountState, "maxSize", 100L);
+    ReflectionTestUtils.setField(accountState, "ttlMillis", 600_000L);
+
+    UserEntity user = new UserEntity();
+    user.setId(1L);
+    user.setStatus("ACTIVO");
+    when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+    when(loanRepository.findAccountLoans(1L))
+        .thenReturn(
+            List.of(
+                // activo al día
+                new ClientLoanStateDTO(10L, false, TODAY.plusDays(2), 4L, true, 0, 0),
+                // activo vencido ayer (el proceso nocturno aún no corre)
+                new ClientLoanStateDTO(11L, false, TODAY.minusDays(1), 5L, true, 0, 0),
+                // devuelto con daño impago
+                new ClientLoanStateDTO(12L, true, TODAY.minusDays(9), 4L, false, 0, 300)));
+  }
+
+  @Test
+  void testLoadsOnceAndCountsFromMemory() {
+    ClientAccountState.Account account = accountState.get(1L);
+
+    assertEquals("ACTIVO", account.status());
+    assertEquals(2, account.activeLoans());
+    assertEquals(1, account.overdueLoans(TODAY));
+    assertEquals(1, account.unpaidLoans());
+    assertEquals(1, account.activeLoansOfType(4L));
+    assertEquals(0, account.activeLoansOfType(9L));
+
+    accountState.get(1L);
+    verify(userRepository, times(1)).findById(1L);
+    verify(loanRepository, times(1)).findAccountLoans(1L);
+  }
+
+  @Test
+  void testLoanEventsMoveCountersAndAreIdempotent() {
+    accountState.get(1L);
+
+    LoanChanged created = new LoanChanged(1L, 13L, true, TODAY.plusDays(5), 6L, false);
+    accountState.on(created);
+    accountState.on(created); // aplicado dos veces no cuenta doble
+    assertEquals(3, accountState.get(1L).activeLoans());
+
+    // Devolución del vencido, con multa que queda impaga
+    accountState.on(new LoanChanged(1L, 11L, false, TODAY.minusDays(1), 5L, true));
+    ClientAccountState.Account account = accountState.get(1L);
+    assertEquals(2, account.activeLoans());
+    assertEquals(0, account.overdueLoans(TODAY));
+    assertEquals(2, account.unpaidLoans());
+
+    // Pago de la multa
+    accountState.on(new LoanChanged(1L, 11L, false, TODAY.minusDays(1), 5L, false));
+    assertEquals(1, accountState.get(1L).unpaidLoans());
+
+    verify(loanRepository, times(1)).findAccountLoans(1L);
+  }
+
+  @Test
+  void testStatusEventUpdatesLoadedAccount() {
+    accountState.get(1L);
+
+    accountState.on(new StatusChanged(1L, "RESTRINGIDO"));
+
+    assertEquals("RESTRINGIDO", accountState.get(1L).status());
+    verify(userRepository, times(1)).findById(1L);
+  }
+
+  @Test
+  void testEventsForUnloadedClientsAreIgnored() {
+    accountState.on(new LoanChanged(2L, 20L, true, TODAY, 4L, false));
+    accountState.on(new StatusChanged(2L, "RESTRINGIDO"));
+
+    verifyNoInteractions(userRepository, loanRepository);
+  }
+
+  @Test
+  void testAllChangedReloadsOnNextRead() {
+    accountState.get(1L);
+
+    accountState.on(new AllChanged());
+    accountState.get(1L);
+
+    verify(loanRepository, times(2)).findAccountLoans(1L);
+  }
+
+  @Test
+  void testUnknownClient() {
+    when(userRepository.findById(9L)).thenReturn(Optional.empty());
+
+    RuntimeException ex = assertThrows(RuntimeException.class, () -> accountState.get(9L));
+    assertEquals("Usuario no encontrado", ex.getMessage());
+  }
+}
@@ -0,0 +1,130 @@
+package com.toolrent.toolrent.service;
+
+import com.toolrent.toolrent.entity.KardexEntity;
+import com.toolrent.toolrent.repository.KardexOutboxRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class KardexOutboxServiceTest {
+
+  @Mock private KardexOutboxRepository outboxRepository;
+
+  @InjectMocks private KardexOutboxService outboxService;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  void testEnqueueWithoutTransactionAppendsNow() {
+    KardexEntity movement = new KardexEntity();
+
+    outboxService.enqueue(movement);
+
+    verify(outboxRepository, times(1)).append(List.of(movement));
+  }
+
+  @Test
+  void testEnqueueInTransactionAppendsOnceBeforeCommit() {
+    TransactionSynchronizationManager.initSynchronization();
+    KardexEntity m1 = new KardexEntity();
+    KardexEntity m2 = new KardexEntity();
+
+    outboxService.enqueue(m1);
+    outboxService.enqueue(m2);
+    verify(outboxRepository, never()).append(any());
+
+    List<TransactionSynchronization> synchronizations =
+        TransactionSynchronizationManager.getSynchronizations();
+    assertEquals(1, synchronizations.size());
+    synchronizations.get(0).beforeCommit(false);
+    synchronizations.get(0).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+
+    verify(outboxRepository, times(1)).append(List.of(m1, m2));
+  }
+
+  @Test
+  void testRolledBackTransactionAppendsNothing() {
+    TransactionSynchronizationManager.initSynchronization();
+    outboxService.enqueue(new KardexEntity());
+
+    TransactionSynchronizationManager.getSynchronizations()
+        .get(0)
+        .afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+    verify(outboxRepository, never()).append(any());
+  }
+
+  @Test
+  void testFlushBatchCopiesAndDeletes() {
+    List<Long> ids = List.of(4L, 7L, 9L);
+    when(outboxRepository.lockOldestIds(3)).thenReturn(ids);
+
+    assertEquals(3, outboxService.flushBatch(3));
+
+    var order = inOrder(outboxRepository);
+    order.verify(outboxRepository).copyToKardex(ids);
+    order.verify(outboxRepository).deleteByIds(ids);
+  }
+
+  @Test
+  void testFlushOneCopiesAndDeletesThatRow() {
+    when(outboxRepository.lockId(7L)).thenReturn(List.of(7L));
+
+    assertTrue(outboxService.flushOne(7L));
+
+    var order = inOrder(outboxRepository);
+    order.verify(outboxRepository).copyToKardex(List.of(7L));
+    order.verify(outboxRepository).deleteByIds(List.of(7L));
+  }
+
+  @Test
+  void testFlushOneAlreadyMoved() {
+    when(outboxRepository.lockId(7L)).thenReturn(List.of());
+
+    assertFalse(outboxService.flushOne(7L));
+    verify(outboxRepository, never()).copyToKardex(any());
+  }
+
+  @Test
+  void testDeadLetterMovesRowToFailed() {
+    outboxService.deadLetter(7L, "x".repeat(1500));
+
+    var order = inOrder(outboxRepository);
+    order
+        .verify(outboxRepository)
+        .copyToFailed(eq(List.of(7L)), eq("x".repeat(1000)), any(LocalDateTime.class));
+    order.verify(outboxRepository).deleteByIds(List.of(7L));
+  }
+
+  @Test
+  void testFlushBatchEmpty() {
+    when(outboxRepository.lockOldestIds(500)).thenReturn(List.of());
+
+    assertEquals(0, outboxService.flushBatch(500));
+    verify(outboxRepository, never()).copyToKardex(any());
+    verify(outboxRepository, never()).deleteByIds(any());
+  }
+}
@@ -1,5 +1,7 @@
 package com.toolrent.toolrent.service;
 
+import com.toolrent.toolrent.dto.KardexMovementDTO;
+import com.toolrent.toolrent.dto.KardexPageDTO;
 import com.toolrent.toolrent.entity.KardexEntity;
 import com.toolrent.toolrent.entity.ToolsEntity;
 import com.toolrent.toolrent.repository.KardexRepository;
@@ -8,10 +10,15 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -20,6 +27,8 @@ class KardexServiceTest {
 
   @Mock private KardexRepository kardexRepository;
 
+  @Mock private KardexOutboxService kardexOutboxService;
+
   @InjectMocks private KardexService kardexService;
 
   @BeforeEach
@@ -88,6 +97,116 @@ class KardexServiceTest {
     verify(kardexRepository, times(1)).save(m3);
   }
 
+  // ------------------ registerMovements() ------------------
+  @Test
+  void testRegisterMovementsInBatch() {
+    List<Long> toolIds = List.of(1L, 2L, 3L);
+
+    kardexService.registerMovements("INGRESO", toolIds, "12.345.678-9");
+
+    verify(kardexRepository, times(1))
+        .insertMovements(eq("INGRESO"), eq(toolIds), eq("12.345.678-9"), any(LocalDateTime.class));
+    verify(kardexRepository, never()).save(any());
+  }
+
+  // ------------------ bitácora (outbox) ------------------
+  private void enableOutbox() {
+    ReflectionTestUtils.setField(kardexService, "outboxEnabled", true);
+    ReflectionTestUtils.setField(kardexService, "outboxBatchSize", 2);
+  }
+
+  @Test
+  void testSaveWithOutboxEnqueues() {
+    enableOutbox();
+    KardexEntity movement = new KardexEntity();
+    movement.setType("PRESTAMO");
+
+    assertSame(movement, kardexService.save(movement));
+
+    verify(kardexOutboxService, times(1)).enqueue(movement);
+    verify(kardexRepository, never()).save(any());
+  }
+
+  @Test
+  void testRegisterMovementsWithOutbox() {
+    enableOutbox();
+    List<Long> toolIds = List.of(1L, 2L);
+
+    kardexService.registerMovements("INGRESO", toolIds, "12.345.678-9");
+
+    verify(kardexOutboxService, times(1))
+        .appendMovements(eq("INGRESO"), eq(toolIds), eq("12.345.678-9"), any(LocalDateTime.class));
+    verify(kardexRepository, never()).insertMovements(any(), any(), any(), any());
+  }
+
+  @Test
+  void testFlushOutboxUntilShortBatch() {
+    enableOutbox();
+    when(kardexOutboxService.flushBatch(2)).thenReturn(2, 2, 1);
+
+    assertEquals(5, kardexService.flushOutbox());
+    verify(kardexOutboxService, times(3)).flushBatch(2);
+  }
+
+  @Test
+  void testFlushOutboxDisabledDoesNothing() {
+    assertEquals(0, kardexService.flushOutbox());
+    verifyNoInteractions(kardexOutboxService);
+  }
+
+  @Test
+  void testPoisonedRowIsSetAsideAndLaterRowsMove() {
+    enableOutbox();
+    when(kardexOutboxService.flushBatch(2))
+        .thenThrow(new DataIntegrityViolationException("FK tool_id"))
+        .thenReturn(1);
+    when(kardexOutboxService.findOldestIds(2)).thenReturn(List.of(7L, 8L));
+    when(kardexOutboxService.flushOne(7L))
+        .thenThrow(new DataIntegrityViolationException("FK tool_id"));
+    when(kardexOutboxService.flushOne(8L)).thenReturn(true);
+
+    assertEquals(3, kardexService.flushOutbox());
+
+    verify(kardexOutboxService).deadLetter(7L, "FK tool_id");
+    verify(kardexOutboxService).flushOne(8L);
+    verify(kardexOutboxService, never()).deadLetter(eq(8L), any());
+    verify(kardexOutboxService, times(2)).flushBatch(2); // después sigue por lotes
+  }
+
+  @Test
+  void testReadFlushesOutboxFirst() {
+    enableOutbox();
+    ReflectionTestUtils.setField(kardexService, "readYourWrites", true);
+    when(kardexOutboxService.flushBatch(2)).thenReturn(0);
+    when(kardexRepository.findAllByOrderByDateTimeDesc()).thenReturn(List.of());
+
+    kardexService.getAll();
+
+    var order = inOrder(kardexOutboxService, kardexRepository);
+    order.verify(kardexOutboxService).flushBatch(2);
+    order.verify(kardexRepository).findAllByOrderByDateTimeDesc();
+  }
+
+  @Test
+  void testReadByDefaultSkipsFlush() {
+    enableOutbox();
+    when(kardexRepository.findAllByOrderByDateTimeDesc()).thenReturn(List.of());
+
+    kardexService.getAll();
+
+    verify(kardexOutboxService, never()).flushBatch(anyInt());
+  }
+
+  @Test
+  void testReadServesKardexWhenFlushFails() {
+    enableOutbox();
+    ReflectionTestUtils.setField(kardexService, "readYourWrites", true);
+    when(kardexOutboxService.flushBatch(2)).thenThrow(new RuntimeException("sin conexión"));
+    when(kardexRepository.findAllByOrderByDateTimeDesc()).thenReturn(List.of(new KardexEntity()));
+
+    assertEquals(1, kardexService.getAll().size());
+  }
+
   // ------------------ getMovementsByTool() ------------------
   @Test
   void testGetMovementsByToolSingle() {
@@ -234,4 +353,77 @@ class KardexServiceTest {
     assertEquals("DEVOLUCION", result.get(0).getType());
     verify(kardexRepository, times(1)).findByToolAndDateRange(toolId, start, end);
   }
+
+  // ------------------ getPage() ------------------
+  private KardexMovementDTO movement(long id, LocalDateTime dateTime) {
+    return new KardexMovementDTO(id, "PRESTAMO", dateTime, 1, 1L, "Taladro", "12.345.678-9");
+  }
+
+  @Test
+  void testGetFirstPageReturnsCursor() {
+    LocalDateTime now = LocalDateTime.of(2025, 5, 10, 12, 0);
+    List<KardexMovementDTO> items = List.of(movement(9L, now), movement(8L, now.minusHours(1)));
+
+    when(kardexRepository.findPageBefore(any(LocalDateTime.class), eq(Long.MAX_VALUE), any()))
+        .thenReturn(items);
+
+    KardexPageDTO page = kardexService.getPage(null, 2);
+
+    assertEquals(2, page.getItems().size());
+    assertEquals(KardexService.encodeCursor(now.minusHours(1), 8L), page.getNextCursor());
+  }
+
+  @Test
+  void testGetNextPageUsesCursor() {
+    LocalDateTime dateTime = LocalDateTime.of(2025, 5, 10, 11, 0);
+    String cursor = KardexService.encodeCursor(dateTime, 8L);
+
+    when(kardexRepository.findPageBefore(eq(dateTime), eq(8L), any(Pageable.class)))
+        .thenReturn(List.of(movement(7L, dateTime.minusMinutes(5))));
+
+    KardexPageDTO page = kardexService.getPage(cursor, 2);
+
+    assertEquals(1, page.getItems().size());
+    assertNull(page.getNextCursor()); // última página
+  }
+
+  @Test
+  void testGetPageInvalidCursor() {
+    IllegalArgumentException ex =
+        assertThrows(IllegalArgumentException.class, () -> kardexService.getPage("no-valido", 10));
+    assertTrue(ex.getMessage().contains("Cursor"));
+  }
+
+  @Test
+  void testGetPageByDateRangeLimitsSize() {
+    LocalDateTime start = LocalDateTime.now().minusDays(1);
+    LocalDateTime end = LocalDateTime.now();
+
+    when(kardexRepository.findPageBetweenBefore(
+            eq(start), eq(end), any(LocalDateTime.class), anyLong(), any(Pageable.class)))
+        .thenReturn(List.of());
+
+    kardexService.getPageByDateRange(start, end, null, 50_000);
+
+    verify(kardexRepository)
+        .findPageBetweenBefore(
+            eq(start),
+            eq(end),
+            any(LocalDateTime.class),
+            anyLong(),
+            argThat(p -> p.getPageSize() == 1000));
+  }
+
+  // ------------------ streamAll() ------------------
+  @Test
+  void testStreamAll() {
+    LocalDateTime now = LocalDateTime.now();
+    when(kardexRepository.streamAll()).thenReturn(Stream.of(movement(2L, now), movement(1L, now)));
+
+    List<KardexMovementDTO> received = new ArrayList<>();
+    kardexService.streamAll(received::add);
+
+    assertEquals(2, received.size());
+    assertEquals(2L, received.get(0).getId());
+  }
 }
@@ -0,0 +1,168 @@
+package com.toolrent.toolrent.service;
+
+import com.toolrent.toolrent.entity.LoanEntity;
+import com.toolrent.toolrent.entity.ToolStatus;
+import com.toolrent.toolrent.entity.ToolTypeEntity;
+import com.toolrent.toolrent.entity.ToolsEntity;
+import com.toolrent.toolrent.entity.UserEntity;
+import com.toolrent.toolrent.repository.LoanRepository;
+import com.toolrent.toolrent.repository.ToolTypeRepository;
+import com.toolrent.toolrent.repository.ToolsRepository;
+import com.toolrent.toolrent.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Préstamos simultáneos para un mismo cliente sobre H2 en modo MySQL con el esquema de Flyway: la
+ * cuenta en memoria no ve los préstamos que aún no confirman, así que los límites los decide la
+ * validación con el cliente bloqueado.
+ */
+@SpringBootTest(
+    properties = {
+      "spring.datasource.url=jdbc:h2:mem:loanlimits;MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+          + "DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+      "spring.datasource.driverClassName=org.h2.Driver",
+      "spring.datasource.username=sa",
+      "spring.datasource.password=",
+      "spring.flyway.enabled=true",
+      "spring.jpa.hibernate.ddl-auto=validate"
+    })
+class LoanConcurrencyTest {
+
+  private static final int THREADS = 8;
+
+  @Autowired private LoanService loanService;
+
+  @Autowired private UserRepository userRepository;
+
+  @Autowired private ToolTypeRepository toolTypeRepository;
+
+  @Autowired private ToolsRepository toolsRepository;
+
+  @Autowired private LoanRepository loanRepository;
+
+  @Test
+  void parallelLoansForOneClientStopAtActiveLimit() throws Exception {
+    Long clientId = client("1-9");
+    List<Long> units = new ArrayList<>();
+    for (int i = 0; i < THREADS; i++) {
+      units.add(unit(toolType("Límite " + i)));
+    }
+
+    List<Throwable> failures = createInParallel(clientId, units);
+
+    assertEquals(THREADS - 5, failures.size());
+    for (Throwable failure : failures) {
+      assertInstanceOf(IllegalStateException.class, failure);
+      assertTrue(failure.getMessage().contains("5 prestamos activos"));
+    }
+    assertEquals(5, activeLoans(clientId));
+  }
+
+  @Test
+  void parallelLoansOfOneTypeCreateOnlyOne() throws Exception {
+    Long clientId = client("2-7");
+    ToolTypeEntity type = toolType("Mismo tipo");
+    List<Long> units = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      units.add(unit(type));
+    }
+
+    List<Throwable> failures = createInParallel(clientId, units);
+
+    assertEquals(3, failures.size());
+    for (Throwable failure : failures) {
+      assertInstanceOf(IllegalStateException.class, failure);
+      assertTrue(failure.getMessage().contains("esta herramienta"));
+    }
+    assertEquals(1, activeLoans(clientId));
+  }
+
+  // Un createLoan por unidad, todos liberados a la vez; devuelve las excepciones de los rechazados
+  private List<Throwable> createInParallel(Long clientId, List<Long> unitIds) throws Exception {
+    ExecutorService pool = Executors.newFixedThreadPool(unitIds.size());
+    CountDownLatch start = new CountDownLatch(1);
+    try {
+      List<Future<LoanEntity>> results = new ArrayList<>();
+      for (Long unitId : unitIds) {
+        Callable<LoanEntity> create =
+            () -> {
+              start.await();
+              return loanService.createLoan(loan(clientId, unitId), "1-9");
+            };
+        results.add(pool.submit(create));
+      }
+      start.countDown();
+      List<Throwable> failures = new ArrayList<>();
+      for (Future<LoanEntity> result : results) {
+        try {
+          result.get(30, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+          failures.add(e.getCause());
+        }
+      }
+      return failures;
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  private long activeLoans(Long clientId) {
+    return loanRepository.findAll().stream()
+        .filter(l -> l.getClient().getId().equals(clientId) && !l.isDelivered())
+        .count();
+  }
+
+  private LoanEntity loan(Long clientId, Long unitId) {
+    UserEntity client = new UserEntity();
+    client.setId(clientId);
+    ToolsEntity tool = new ToolsEntity();
+    tool.setId(unitId);
+    LoanEntity loan = new LoanEntity();
+    loan.setClient(client);
+    loan.setTool(tool);
+    loan.setStartDate(LocalDate.now());
+    loan.setScheduledReturnDate(LocalDate.now().plusDays(2));
+    loan.setCreatedLoan(LocalDateTime.now());
+    return loan;
+  }
+
+  private Long client(String rut) {
+    UserEntity user = new UserEntity();
+    user.setRut(rut);
+    user.setEmail(rut + "@test.com");
+    user.setPhoneNumber("9" + rut);
+    user.setUsername("cliente " + rut);
+    user.setStatus("Activo");
+    return userRepository.save(user).getId();
+  }
+
+  private ToolTypeEntity toolType(String name) {
+    ToolTypeEntity type = new ToolTypeEntity(name, "Eléctricas");
+    type.setReplacementValue(100);
+    type.setDailyRate(10);
+    return toolTypeRepository.save(type);
+  }
+
+  private Long unit(ToolTypeEntity type) {
+    ToolsEntity tool = new ToolsEntity();
+    tool.setToolType(type);
+    tool.setStatus(ToolStatus.DISPONIBLE);
+    return toolsRepository.save(tool).getId();
+  }
+}
@@ -0,0 +1,168 @@
+package com.toolrent.toolrent.service;
+
+import com.toolrent.toolrent.dto.LoanDayCountsDTO;
+import com.toolrent.toolrent.dto.LoanReportSummaryDTO;
+import com.toolrent.toolrent.dto.ToolRankingDTO;
+import com.toolrent.toolrent.entity.LoanEntity;
+import com.toolrent.toolrent.entity.ToolTypeEntity;
+import com.toolrent.toolrent.entity.ToolsEntity;
+import com.toolrent.toolrent.repository.LoanDailyRollupRepository;
+import com.toolrent.toolrent.repository.LoanRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LoanReportServiceTest {
+
+  @Mock private LoanDailyRollupRepository rollupRepository;
+
+  @Mock private LoanRepository loanRepository;
+
+  @InjectMocks private LoanReportService loanReportService;
+
+  private final LocalDate day = LocalDate.of(2025, 3, 10);
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+  }
+
+  private LoanEntity loan(Long toolTypeId, String toolName) {
+    ToolTypeEntity type = new ToolTypeEntity(toolName, "Eléctricas");
+    type.setId(toolTypeId);
+    ToolsEntity tool = new ToolsEntity();
+    tool.setToolType(type);
+    LoanEntity loan = new LoanEntity();
+    loan.setTool(tool);
+    loan.setStartDate(day);
+    return loan;
+  }
+
+  @Test
+  void testLoanCreatedAddsStartedAndActive() {
+    loanReportService.loanCreated(loan(3L, "Taladro"));
+
+    verify(rollupRepository).addCounts(day, 3L, 1, 1, 0);
+  }
+
+  @Test
+  void testLoansCreatedAddsOncePerDayAndToolType() {
+    loanReportService.loansCreated(
+        List.of(loan(3L, "Taladro"), loan(4L, "Sierra"), loan(3L, "Taladro")));
+
+    verify(rollupRepository).addCounts(day, 3L, 2, 2, 0);
+    verify(rollupRepository).addCounts(day, 4L, 1, 1, 0);
+    verifyNoMoreInteractions(rollupRepository);
+  }
+
+  @Test
+  void testLoansReturnedAddsOncePerDayAndToolType() {
+    LoanEntity first = loan(3L, "Taladro");
+    first.setId(1L);
+    LoanEntity second = loan(3L, "Taladro");
+    second.setId(2L);
+    LoanEntity third = loan(4L, "Sierra");
+    third.setId(3L);
+
+    loanReportService.loansReturned(List.of(first, second, third), Set.of(2L));
+
+    verify(rollupRepository).addCounts(day, 3L, 0, -2, -1);
+    verify(rollupRepository).addCounts(day, 4L, 0, -1, 0);
+    verifyNoMoreInteractions(rollupRepository);
+  }
+
+  @Test
+  void testLoanReturnedRemovesActiveAndOverdue() {
+    loanReportService.loanReturned(loan(3L, "Taladro"), false);
+    loanReportService.loanReturned(loan(3L, "Taladro"), true);
+
+    verify(rollupRepository).addCounts(day, 3L, 0, -1, 0);
+    verify(rollupRepository).addCounts(day, 3L, 0, -1, -1);
+  }
+
+  @Test
+  void testMarkOverdueChunkCountsBeforeUpdating() {
+    LocalDate today = LocalDate.now();
+    when(loanRepository.markOverdueLoansInRange(today, 0L, 7L)).thenReturn(2);
+
+    assertEquals(2, loanReportService.markOverdueChunk(today, 0L, 7L));
+
+    // El conteo solo ve los préstamos que todavía no están ATRASADO
+    InOrder order = inOrder(rollupRepository, loanRepository);
+    order.verify(rollupRepository).addNewlyOverdueInRange(today, 0L, 7L);
+    order.verify(loanRepository).markOverdueLoansInRange(today, 0L, 7L);
+  }
+
+  @Test
+  void testUnitMovedShiftsOnlyThatUnitsRows() {
+    List<LoanDayCountsDTO> days =
+        List.of(
+            new LoanDayCountsDTO(day, 2L, 1L, 0L),
+            new LoanDayCountsDTO(day.plusDays(1), 1L, 1L, 1L));
+    when(loanRepository.countByStartDayForTool(9L)).thenReturn(days);
+
+    assertSame(days, loanReportService.unitMoved(9L, 3L, 4L));
+
+    verify(rollupRepository).addCounts(day, 3L, -2, -1, 0);
+    verify(rollupRepository).addCounts(day, 4L, 2, 1, 0);
+    verify(rollupRepository).addCounts(day.plusDays(1), 3L, -1, -1, -1);
+    verify(rollupRepository).addCounts(day.plusDays(1), 4L, 1, 1, 1);
+    verifyNoMoreInteractions(rollupRepository); // sin borrar ni recalcular el resto
+  }
+
+  @Test
+  void testRebuildReplacesAllRows() {
+    when(rollupRepository.insertFromLoans()).thenReturn(4);
+
+    assertEquals(4, loanReportService.rebuild());
+
+    InOrder order = inOrder(rollupRepository);
+    order.verify(rollupRepository).deleteAllRows();
+    order.verify(rollupRepository).insertFromLoans();
+  }
+
+  @Test
+  void testTopToolsFromRollup() {
+    List<ToolRankingDTO> rows = new ArrayList<>();
+    rows.add(new ToolRankingDTO(3L, "Taladro", 5L));
+    when(rollupRepository.sumLoansByToolType(day, day.plusDays(7))).thenReturn(rows);
+
+    assertSame(rows, loanReportService.getTopTools(day, day.plusDays(7)));
+    verifyNoInteractions(loanRepository);
+  }
+
+  @Test
+  void testSummaryCarriesRange() {
+    when(rollupRepository.sumBetween(day, day.plusDays(7)))
+        .thenReturn(new LoanReportSummaryDTO(6L, 4L, 1L));
+
+    LoanReportSummaryDTO summary = loanReportService.getSummary(day, day.plusDays(7));
+
+    assertEquals(day, summary.getStartDate());
+    assertEquals(day.plusDays(7), summary.getEndDate());
+    assertEquals(6, summary.getLoansStarted());
+    assertEquals(4, summary.getActiveLoans());
+    assertEquals(1, summary.getOverdueLoans());
+  }
+
+  @Test
+  void testSummaryWithoutRows() {
+    when(rollupRepository.sumBetween(day, day)).thenReturn(new LoanReportSummaryDTO(null, null, null));
+
+    LoanReportSummaryDTO summary = loanReportService.getSummary(day, day);
+
+    assertEquals(0, summary.getLoansStarted());
+    assertEquals(0, summary.getActiveLoans());
+  }
+}
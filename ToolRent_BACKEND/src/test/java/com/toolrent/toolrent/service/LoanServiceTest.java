@@ -1,10 +1,28 @@
 package com.toolrent.toolrent.service;
 
+import com.toolrent.toolrent.dto.BulkLoanItemDTO;
+import com.toolrent.toolrent.dto.BulkLoanRequestDTO;
+import com.toolrent.toolrent.dto.BulkLoanResultDTO;
+import com.toolrent.toolrent.dto.BulkReturnEntryDTO;
+import com.toolrent.toolrent.dto.BulkReturnItemDTO;
+import com.toolrent.toolrent.dto.BulkReturnResultDTO;
+import com.toolrent.toolrent.dto.ClientEligibilityDTO;
+import com.toolrent.toolrent.dto.LoanFilterDTO;
+import com.toolrent.toolrent.dto.LoanSummaryDTO;
+import com.toolrent.toolrent.dto.OverdueSweepProgressDTO;
+import com.toolrent.toolrent.dto.PageDTO;
+import com.toolrent.toolrent.dto.ToolRankingDTO;
 import com.toolrent.toolrent.entity.*;
 import com.toolrent.toolrent.repository.LoanRepository;
+import com.toolrent.toolrent.service.ClientAccountEvents.AllChanged;
+import com.toolrent.toolrent.service.ClientAccountEvents.LoanChanged;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
 
 import java.time.LocalDate;
 import java.util.*;
@@ -24,6 +42,20 @@ class LoanServiceTest {
 
   @Mock private KardexService kardexService;
 
+  @Mock private ToolStockView toolStockView;
+
+  @Mock private ToolCatalogCache toolCatalog;
+
+  @Mock private OverdueSweepService overdueSweepService;
+
+  @Mock private LoanReportService loanReportService;
+
+  @Mock private ToolLeaderboard toolLeaderboard;
+
+  @Mock private ClientAccountState accountState;
+
+  @Mock private ApplicationEventPublisher events;
+
   private String rut = "12.345.678-9";
 
   @BeforeEach
@@ -42,6 +74,7 @@ class LoanServiceTest {
     tool.setId(1L);
     tool.setDailyRate(100.0);
     tool.setName("Taladro");
+    tool.getToolType().setId(5L);
 
     LoanEntity loan = new LoanEntity();
     loan.setClient(user);
@@ -49,9 +82,9 @@ class LoanServiceTest {
     loan.setStartDate(LocalDate.now());
     loan.setScheduledReturnDate(LocalDate.now().plusDays(2));
 
-    when(userService.findById(1L)).thenReturn(user);
-    when(toolsService.getAvailableTool(1L)).thenReturn(tool);
-    doNothing().when(toolsService).loanTool(1L);
+    when(accountState.get(1L)).thenReturn(account("Activo", 0));
+    when(userService.lockForLoan(1L, 1L)).thenReturn(eligibility("Activo", 0, 0, 0));
+    when(toolsService.checkoutTool(1L)).thenReturn(tool);
     when(loanRepository.save(any())).thenAnswer(i -> i.getArgument(0));
 
     LoanEntity savedLoan = loanService.createLoan(loan, rut);
@@ -59,6 +92,133 @@ class LoanServiceTest {
     assertNotNull(savedLoan);
     assertEquals(200.0, savedLoan.getLoanPrice()); // 2 días * 100
     verify(kardexService, times(1)).save(any(KardexEntity.class));
+    verify(toolsService, times(1)).checkoutTool(1L);
+    // Chequeo rápido en la cuenta en memoria y validación definitiva con el cliente bloqueado
+    verify(accountState, times(1)).get(1L);
+    verify(userService, times(1)).lockForLoan(1L, 1L);
+    verify(userService, never()).findById(anyLong());
+    verify(events)
+        .publishEvent(
+            new LoanChanged(1L, null, true, loan.getScheduledReturnDate(), 5L, false));
+    verify(loanReportService).loanCreated(savedLoan);
+    verify(toolLeaderboard).recordLoan(5L, "Taladro");
+  }
+
+  @Test
+  void testCreateLoanRestrictedClientWithUnpaidFines() {
+    UserEntity user = new UserEntity();
+    user.setId(1L);
+    ToolsEntity tool = new ToolsEntity();
+    tool.setId(1L);
+
+    LoanEntity loan = new LoanEntity();
+    loan.setClient(user);
+    loan.setTool(tool);
+    loan.setStartDate(LocalDate.now());
+    loan.setScheduledReturnDate(LocalDate.now().plusDays(2));
+
+    when(accountState.get(1L)).thenReturn(account("RESTRINGIDO", 1, 9L));
+
+    IllegalStateException ex =
+        assertThrows(IllegalStateException.class, () -> loanService.createLoan(loan, rut));
+    assertEquals("El cliente registra multas sin pagar.", ex.getMessage());
+    verify(toolsService, never()).checkoutTool(anyLong());
+  }
+
+  @Test
+  void testCreateLoanAtActiveLoanLimit() {
+    UserEntity user = new UserEntity();
+    user.setId(1L);
+    ToolsEntity tool = new ToolsEntity();
+    tool.setId(1L);
+
+    LoanEntity loan = new LoanEntity();
+    loan.setClient(user);
+    loan.setTool(tool);
+
+    when(accountState.get(1L)).thenReturn(account("Activo", 0, 1L, 2L, 3L, 4L, 6L));
+
+    IllegalStateException ex =
+        assertThrows(IllegalStateException.class, () -> loanService.createLoan(loan, rut));
+    assertTrue(ex.getMessage().contains("5 prestamos activos"));
+    verify(userService, never()).lockForLoan(anyLong(), any());
+    verify(toolsService, never()).checkoutTool(anyLong());
+  }
+
+  @Test
+  void testCreateLoanRechecksLimitInDatabase() {
+    UserEntity user = new UserEntity();
+    user.setId(1L);
+    ToolsEntity tool = new ToolsEntity();
+    tool.setId(1L);
+
+    LoanEntity loan = new LoanEntity();
+    loan.setClient(user);
+    loan.setTool(tool);
+    loan.setStartDate(LocalDate.now());
+    loan.setScheduledReturnDate(LocalDate.now().plusDays(2));
+
+    // La cuenta en memoria aún no ve el quinto préstamo creado por otra instancia
+    when(accountState.get(1L)).thenReturn(account("Activo", 0, 1L, 2L, 3L, 4L));
+    when(userService.lockForLoan(1L, 1L)).thenReturn(eligibility("Activo", 5, 0, 0));
+
+    IllegalStateException ex =
+        assertThrows(IllegalStateException.class, () -> loanService.createLoan(loan, rut));
+    assertTrue(ex.getMessage().contains("5 prestamos activos"));
+    verify(toolsService, never()).checkoutTool(anyLong());
+    verify(loanRepository, never()).save(any());
+  }
+
+  @Test
+  void testCreateLoanDuplicateTool() {
+    UserEntity user = new UserEntity();
+    user.setId(1L);
+    ToolsEntity tool = new ToolsEntity();
+    tool.setId(1L);
+    tool.setName("Taladro");
+    tool.getToolType().setId(5L);
+
+    LoanEntity loan = new LoanEntity();
+    loan.setClient(user);
+    loan.setTool(tool);
+    loan.setStartDate(LocalDate.now());
+    loan.setScheduledReturnDate(LocalDate.now().plusDays(2));
+
+    when(accountState.get(1L)).thenReturn(account("Activo", 0, 5L));
+    ClientEligibilityDTO sameType = eligibility("Activo", 1, 0, 0);
+    sameType.setSameTypeActiveLoans(1);
+    when(userService.lockForLoan(1L, 1L)).thenReturn(sameType);
+    when(toolsService.checkoutTool(1L)).thenReturn(tool);
+
+    IllegalStateException ex =
+        assertThrows(IllegalStateException.class, () -> loanService.createLoan(loan, rut));
+    assertTrue(ex.getMessage().contains("esta herramienta"));
+    verify(loanRepository, never()).save(any());
+  }
+
+  @Test
+  void testCreateLoanRestrictedClientWithOverdueLoan() {
+    UserEntity user = new UserEntity();
+    user.setId(1L);
+    ToolsEntity tool = new ToolsEntity();
+    tool.setId(1L);
+
+    LoanEntity loan = new LoanEntity();
+    loan.setClient(user);
+    loan.setTool(tool);
+
+    // Préstamo activo vencido ayer: el atraso se calcula al leer, sin esperar el proceso nocturno
+    ClientAccountState.Account account =
+        new ClientAccountState.Account(
+            "RESTRINGIDO",
+            Map.of(7L, new ClientAccountState.OpenLoan(LocalDate.now().minusDays(1), 3L)),
+            Set.of());
+    when(accountState.get(1L)).thenReturn(account);
+
+    IllegalStateException ex =
+        assertThrows(IllegalStateException.class, () -> loanService.createLoan(loan, rut));
+    assertEquals("El cliente tiene préstamos vencidos que no han sido devueltos.", ex.getMessage());
+    verify(toolsService, never()).checkoutTool(anyLong());
   }
 
   @Test
@@ -92,11 +252,10 @@ class LoanServiceTest {
     loan.setScheduledReturnDate(LocalDate.now().minusDays(1));
 
     // Mock para ToolsService
-    when(toolsService.getAvailableTool(1L)).thenReturn(tool);
-    doNothing().when(toolsService).loanTool(1L);
+    when(toolsService.checkoutTool(1L)).thenReturn(tool);
 
-    // Mock para UserService.findById (importante para validateClient)
-    when(userService.findById(1L)).thenReturn(user);
+    // Mock de la cuenta del cliente (importante para validateClient)
+    when(accountState.get(1L)).thenReturn(account("Activo", 0));
 
     // Ahora sí se lanza IllegalArgumentException por fecha inválida
     IllegalArgumentException ex =
@@ -104,6 +263,124 @@ class LoanServiceTest {
     assertTrue(ex.getMessage().contains("devolución no puede ser anterior"));
   }
 
+  // ========== CREATE LOANS (BULK) ==========
+  @Test
+  void testCreateLoansAllOrNothingWritesNothingWhenOneIsRejected() {
+    when(accountState.get(1L)).thenReturn(account("Activo", 0));
+    when(userService.lockForLoan(1L, null)).thenReturn(eligibility("Activo", 0, 0, 0));
+    when(toolsService.lockUnits(any()))
+        .thenReturn(
+            Map.of(
+                1L, unit(1L, 3L, ToolStatus.DISPONIBLE),
+                2L, unit(2L, 4L, ToolStatus.PRESTADA)));
+
+    BulkLoanResultDTO result = loanService.createLoans(bulkRequest(false, 1L, 2L), rut);
+
+    assertEquals(0, result.getCreated());
+    assertEquals(1, result.getRejected());
+    assertNull(result.getItems().get(0).getError());
+    assertEquals("La herramienta no está disponible", result.getItems().get(1).getError());
+    verify(toolsService, never()).checkoutUnits(any());
+    verify(loanRepository, never()).insertLoans(any());
+    verifyNoInteractions(kardexService, loanReportService, events);
+  }
+
+  @Test
+  void testCreateLoansPartialCreatesAcceptedUnitsInOneBatch() {
+    // Ya tiene un préstamo activo de tipo 5: quedan 4 cupos
+    when(accountState.get(1L)).thenReturn(account("Activo", 0, 5L));
+    when(userService.lockForLoan(1L, null)).thenReturn(eligibility("Activo", 1, 0, 0));
+    when(loanRepository.findActiveToolTypeIds(1L)).thenReturn(List.of(5L));
+    when(toolsService.lockUnits(any()))
+        .thenReturn(
+            Map.of(
+                1L, unit(1L, 3L, ToolStatus.DISPONIBLE),
+                2L, unit(2L, 5L, ToolStatus.DISPONIBLE),
+                3L, unit(3L, 3L, ToolStatus.DISPONIBLE),
+                4L, unit(4L, 6L, ToolStatus.DISPONIBLE)));
+    doAnswer(
+            invocation -> {
+              long id = 50L;
+              for (LoanEntity loan : invocation.<List<LoanEntity>>getArgument(0)) {
+                loan.setId(id++);
+              }
+              return null;
+            })
+        .when(loanRepository)
+        .insertLoans(any());
+
+    BulkLoanResultDTO result =
+        loanService.createLoans(bulkRequest(true, 1L, 2L, 3L, 4L, 1L, 9L), rut);
+
+    assertEquals(6, result.getRequested());
+    assertEquals(2, result.getCreated());
+    assertEquals(4, result.getRejected());
+    List<BulkLoanItemDTO> items = result.getItems();
+    assertEquals(50L, items.get(0).getLoanId());
+    assertEquals(200.0, items.get(0).getLoanPrice()); // 2 días * 100
+    // Tipo 5 ya prestado al cliente; tipo 3 ya tomado por la unidad 1 en esta solicitud
+    String sameTool = "El usuario ya tiene el máximo de préstamos permitidos para esta herramienta";
+    assertEquals(sameTool, items.get(1).getError());
+    assertEquals(sameTool, items.get(2).getError());
+    assertEquals(51L, items.get(3).getLoanId());
+    assertEquals("Herramienta repetida en la solicitud", items.get(4).getError());
+    assertEquals("Herramienta no encontrada", items.get(5).getError());
+
+    verify(toolsService).checkoutUnits(argThat(units -> units.size() == 2));
+    verify(loanRepository).insertLoans(argThat(loans -> loans.size() == 2));
+    verify(loanRepository, never()).save(any(LoanEntity.class));
+    verify(kardexService).saveAll(argThat(movements -> movements.size() == 2));
+    verify(loanReportService).loansCreated(argThat(loans -> loans.size() == 2));
+    verify(events, times(2)).publishEvent(any(LoanChanged.class));
+  }
+
+  @Test
+  void testCreateLoansStopsAtActiveLoanLimit() {
+    when(accountState.get(1L)).thenReturn(account("Activo", 0, 11L, 12L, 13L, 14L));
+    when(userService.lockForLoan(1L, null)).thenReturn(eligibility("Activo", 4, 0, 0));
+    when(loanRepository.findActiveToolTypeIds(1L)).thenReturn(List.of(11L, 12L, 13L, 14L));
+    when(toolsService.lockUnits(any()))
+        .thenReturn(
+            Map.of(
+                1L, unit(1L, 3L, ToolStatus.DISPONIBLE),
+                2L, unit(2L, 4L, ToolStatus.DISPONIBLE)));
+
+    BulkLoanResultDTO result = loanService.createLoans(bulkRequest(true, 1L, 2L), rut);
+
+    assertEquals(1, result.getCreated());
+    assertEquals(
+        "El usuario ya tiene 5 prestamos activos no puede tomar otro prestamo.",
+        result.getItems().get(1).getError());
+  }
+
+  @Test
+  void testCreateLoansUsesDatabaseCountsOverCachedAccount() {
+    // En memoria no tiene préstamos; en la base de datos ya tiene 5
+    when(accountState.get(1L)).thenReturn(account("Activo", 0));
+    when(userService.lockForLoan(1L, null)).thenReturn(eligibility("Activo", 5, 0, 0));
+    when(loanRepository.findActiveToolTypeIds(1L)).thenReturn(List.of(11L, 12L, 13L, 14L, 15L));
+    when(toolsService.lockUnits(any()))
+        .thenReturn(Map.of(1L, unit(1L, 3L, ToolStatus.DISPONIBLE)));
+
+    BulkLoanResultDTO result = loanService.createLoans(bulkRequest(true, 1L), rut);
+
+    assertEquals(0, result.getCreated());
+    assertEquals(
+        "El usuario ya tiene 5 prestamos activos no puede tomar otro prestamo.",
+        result.getItems().get(0).getError());
+    verify(toolsService, never()).checkoutUnits(any());
+  }
+
+  @Test
+  void testCreateLoansRejectsRestrictedClientBeforeLocking() {
+    when(accountState.get(1L)).thenReturn(account("RESTRINGIDO", 1));
+
+    assertThrows(
+        IllegalStateException.class, () -> loanService.createLoans(bulkRequest(true, 1L), rut));
+    verify(userService, never()).lockForLoan(anyLong(), any());
+    verify(toolsService, never()).lockUnits(any());
+  }
+
   // ========== RETURN LOAN ==========
   @Test
   void testReturnLoanWithoutDamage() {
@@ -133,6 +410,29 @@ class LoanServiceTest {
     assertEquals(100.0, returned.getTotal());
     verify(kardexService, times(1)).save(any(KardexEntity.class)); // solo devolución
     verify(toolsService, times(1)).returnTool(tool.getId());
+    verify(loanReportService).loanReturned(returned, false);
+    // La cuenta del cliente deja de contar el préstamo como activo
+    verify(events).publishEvent(new LoanChanged(1L, 1L, false, null, null, false));
+  }
+
+  @Test
+  void testReturnOverdueLoanUpdatesReportRollup() {
+    ToolsEntity tool = new ToolsEntity();
+    tool.setId(1L);
+
+    LoanEntity loan = new LoanEntity();
+    loan.setId(1L);
+    loan.setTool(tool);
+    loan.setLoanStatus("ATRASADO");
+
+    when(loanRepository.findById(1L)).thenReturn(Optional.of(loan));
+    when(loanRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+
+    LoanEntity returned = loanService.returnLoan(1L, false, false, rut);
+
+    assertEquals("DEVUELTO", returned.getLoanStatus());
+    // Deja de contar como atrasado en los totales de su día de inicio
+    verify(loanReportService).loanReturned(returned, true);
   }
 
   @Test
@@ -204,6 +504,104 @@ class LoanServiceTest {
     verify(toolsService, never()).returnTool(anyLong());
   }
 
+  // ========== RETURN LOANS (BULK) ==========
+  @Test
+  void testReturnLoansAppliesChangesBySetsAndReportsEachLoan() {
+    LoanEntity clean = activeLoan(1L, 11L, "Vigente");
+    LoanEntity repair = activeLoan(2L, 12L, "ATRASADO");
+    repair.setFine(30.0);
+    LoanEntity lost = activeLoan(3L, 13L, "Vigente");
+    LoanEntity returned = activeLoan(4L, 14L, "DEVUELTO");
+    returned.setDelivered(true);
+    when(loanRepository.findAllForReturn(any()))
+        .thenReturn(List.of(clean, repair, lost, returned));
+    when(loanRepository.markReturnedIn(List.of(1L, 2L, 3L), LocalDate.now())).thenReturn(3);
+
+    BulkReturnResultDTO result =
+        loanService.returnLoans(
+            List.of(
+                new BulkReturnEntryDTO(1L, false, true), // irreparable sin daño: devolución normal
+                new BulkReturnEntryDTO(2L, true, false),
+                new BulkReturnEntryDTO(3L, true, true),
+                new BulkReturnEntryDTO(4L, false, false),
+                new BulkReturnEntryDTO(1L, false, false),
+                new BulkReturnEntryDTO(9L, false, false)),
+            rut);
+
+    assertEquals(3, result.getReturned());
+    assertEquals(3, result.getRejected());
+    List<BulkReturnItemDTO> items = result.getItems();
+    assertEquals(ToolStatus.DISPONIBLE, items.get(0).getToolStatus());
+    assertEquals(100.0, items.get(0).getTotal());
+    assertEquals(ToolStatus.EN_REPARACION, items.get(1).getToolStatus());
+    assertEquals(20.0, items.get(1).getDamagePrice());
+    assertEquals(150.0, items.get(1).getTotal()); // 100 + 20 de daño + 30 de multa
+    assertEquals(50.0, repair.getFineTotal());
+    assertEquals(ToolStatus.DADA_DE_BAJA, items.get(2).getToolStatus());
+    assertEquals(500.0, items.get(2).getDamagePrice());
+    assertEquals("El préstamo ya fue devuelto", items.get(3).getError());
+    assertEquals("Préstamo repetido en la solicitud", items.get(4).getError());
+    assertEquals("Préstamo no encontrado", items.get(5).getError());
+
+    verify(toolsService).returnUnits(List.of(clean.getTool()), ToolStatus.DISPONIBLE);
+    verify(toolsService).returnUnits(List.of(repair.getTool()), ToolStatus.EN_REPARACION);
+    verify(toolsService).returnUnits(List.of(lost.getTool()), ToolStatus.DADA_DE_BAJA);
+    verify(loanRepository).updateDamages(List.of(repair, lost));
+    verify(loanRepository, never()).save(any(LoanEntity.class));
+    verify(toolsService, never()).decommissionTool(anyLong(), anyString());
+    // DEVOLUCION por préstamo, más REPARACION y BAJA, en un solo lote
+    verify(kardexService).saveAll(argThat(movements -> movements.size() == 5));
+    verify(kardexService, never()).save(any(KardexEntity.class));
+    verify(loanReportService).loansReturned(List.of(clean, repair, lost), Set.of(2L));
+    verify(events, times(3)).publishEvent(any(LoanChanged.class));
+  }
+
+  @Test
+  void testReturnLoansWritesNothingWhenNoLoanPasses() {
+    LoanEntity returned = activeLoan(4L, 14L, "DEVUELTO");
+    returned.setDelivered(true);
+    when(loanRepository.findAllForReturn(any())).thenReturn(List.of(returned));
+
+    BulkReturnResultDTO result =
+        loanService.returnLoans(List.of(new BulkReturnEntryDTO(4L, false, false)), rut);
+
+    assertEquals(0, result.getReturned());
+    verify(loanRepository, never()).markReturnedIn(any(), any());
+    verifyNoInteractions(toolsService, kardexService, loanReportService, events);
+  }
+
+  @Test
+  void testReturnLoansRejectsNullEntriesOneByOne() {
+    LoanEntity loan = activeLoan(1L, 11L, "Vigente");
+    when(loanRepository.findAllForReturn(Set.of(1L))).thenReturn(List.of(loan));
+    when(loanRepository.markReturnedIn(List.of(1L), LocalDate.now())).thenReturn(1);
+    List<BulkReturnEntryDTO> entries = new ArrayList<>();
+    entries.add(null);
+    entries.add(new BulkReturnEntryDTO(null, false, false));
+    entries.add(new BulkReturnEntryDTO(1L, false, false));
+
+    BulkReturnResultDTO result = loanService.returnLoans(entries, rut);
+
+    assertEquals(1, result.getReturned());
+    assertEquals(2, result.getRejected());
+    assertNull(result.getItems().get(0).getLoanId());
+    assertEquals("Se debe ingresar el id del préstamo", result.getItems().get(0).getError());
+    assertEquals("Se debe ingresar el id del préstamo", result.getItems().get(1).getError());
+    assertNull(result.getItems().get(2).getError());
+  }
+
+  @Test
+  void testReturnLoansFailsWhenAnotherReturnWonTheRace() {
+    LoanEntity loan = activeLoan(1L, 11L, "Vigente");
+    when(loanRepository.findAllForReturn(any())).thenReturn(List.of(loan));
+    when(loanRepository.markReturnedIn(any(), any())).thenReturn(0);
+
+    assertThrows(
+        IllegalStateException.class,
+        () -> loanService.returnLoans(List.of(new BulkReturnEntryDTO(1L, false, false)), rut));
+    verifyNoInteractions(toolsService, kardexService);
+  }
+
   // ========== UPDATE FINE PAID ==========
   @Test
   void testUpdateFinePaid() {
@@ -221,122 +619,231 @@ class LoanServiceTest {
 
     assertTrue(updated.isFinePaid());
     verify(userService, times(1)).updateUserStatus(1L, true);
+    verify(events).publishEvent(any(LoanChanged.class));
   }
 
   // ========== GET ALL LOANS ==========
   @Test
   void testGetAllLoans() {
-    LoanEntity loan = new LoanEntity();
-    when(loanRepository.findAll()).thenReturn(List.of(loan));
+    LoanSummaryDTO loan = new LoanSummaryDTO();
+    when(loanRepository.findAllSummaries()).thenReturn(List.of(loan));
 
-    List<LoanEntity> loans = loanService.getAllLoans();
+    List<LoanSummaryDTO> loans = loanService.getAllLoans();
     assertEquals(1, loans.size());
+    verify(loanRepository, never()).findAll();
+  }
+
+  @Test
+  void testGetLoansPageMapsSummaries() {
+    UserEntity client = new UserEntity();
+    client.setId(2L);
+    client.setRut("12.345.678-9");
+    ToolsEntity tool = new ToolsEntity();
+    tool.setId(7L);
+    tool.setName("Taladro");
+    tool.setCategory("Electricas");
+    LoanEntity loan = new LoanEntity();
+    loan.setId(5L);
+    loan.setTool(tool);
+    loan.setClient(client);
+    loan.setStartDate(LocalDate.now());
+    when(loanRepository.findBy(any(Specification.class), any()))
+        .thenReturn(new PageImpl<>(List.of(loan), PageRequest.of(0, 10), 1));
+
+    LoanFilterDTO filter = new LoanFilterDTO(null, 2L, LocalDate.now().minusDays(7), null);
+    PageDTO<LoanSummaryDTO> page = loanService.getLoansPage(filter, 0, 10, "startDate,desc", true);
+
+    LoanSummaryDTO summary = page.getItems().get(0);
+    assertEquals(5L, summary.getId());
+    assertEquals("Taladro", summary.getTool().getName());
+    assertEquals("12.345.678-9", summary.getClient().getRut());
+    assertEquals(1L, page.getTotalElements());
   }
 
   @Test
   void testGetActiveLoans() {
-    List<LoanEntity> loans = new ArrayList<>();
-    loans.add(new LoanEntity());
+    List<LoanSummaryDTO> loans = new ArrayList<>();
+    loans.add(new LoanSummaryDTO());
 
-    when(loanRepository.findActiveLoansOrderedByDateDesc()).thenReturn(loans);
+    when(loanRepository.findActiveSummariesOrderedByDateDesc()).thenReturn(loans);
 
-    List<LoanEntity> result = loanService.getActiveLoans();
+    List<LoanSummaryDTO> result = loanService.getActiveLoans();
     assertEquals(1, result.size());
   }
 
   @Test
   void testGetActiveLoansByDate() {
-    List<LoanEntity> loans = new ArrayList<>();
-    loans.add(new LoanEntity());
+    List<LoanSummaryDTO> loans = new ArrayList<>();
+    loans.add(new LoanSummaryDTO());
 
     LocalDate start = LocalDate.now().minusDays(5);
     LocalDate end = LocalDate.now();
 
-    when(loanRepository.findActiveLoansByDateRange(start, end)).thenReturn(loans);
+    when(loanRepository.findActiveSummariesByDateRange(start, end)).thenReturn(loans);
 
-    List<LoanEntity> result = loanService.getActiveLoansByDate(start, end);
+    List<LoanSummaryDTO> result = loanService.getActiveLoansByDate(start, end);
     assertEquals(1, result.size());
   }
 
   @Test
   void testGetOverdueLoans() {
-    List<LoanEntity> loans = new ArrayList<>();
-    loans.add(new LoanEntity());
+    List<LoanSummaryDTO> loans = new ArrayList<>();
+    loans.add(new LoanSummaryDTO());
 
     LocalDate today = LocalDate.now();
-    when(loanRepository.findOverdueLoans(today)).thenReturn(loans);
+    when(loanRepository.findOverdueSummaries(today)).thenReturn(loans);
 
-    List<LoanEntity> result = loanService.getOverdueLoans(today);
+    List<LoanSummaryDTO> result = loanService.getOverdueLoans(today);
     assertEquals(1, result.size());
   }
 
   @Test
   void testGetOverdueLoansByDate() {
-    List<LoanEntity> loans = new ArrayList<>();
-    loans.add(new LoanEntity());
+    List<LoanSummaryDTO> loans = new ArrayList<>();
+    loans.add(new LoanSummaryDTO());
 
     LocalDate today = LocalDate.now();
     LocalDate start = today.minusDays(7);
     LocalDate end = today;
 
-    when(loanRepository.findOverdueLoansByDate(today, start, end)).thenReturn(loans);
+    when(loanRepository.findOverdueSummariesByDate(today, start, end)).thenReturn(loans);
 
-    List<LoanEntity> result = loanService.getOverdueLoansByDate(today, start, end);
+    List<LoanSummaryDTO> result = loanService.getOverdueLoansByDate(today, start, end);
     assertEquals(1, result.size());
   }
 
+  @Test
+  void testLoanSummaryKeepsNestedToolAndClient() {
+    LoanSummaryDTO summary =
+        new LoanSummaryDTO(
+            7L, 3L, "Taladro", "Eléctricas", 1L, "12.345.678-9", "Ana", "Pérez", "ana@test.com",
+            "123", "ana", LocalDate.now(), LocalDate.now().plusDays(2), null, false, "Vigente",
+            0, 200, 0, 0, 200, true, null);
+
+    assertEquals("Taladro", summary.getTool().getName());
+    assertEquals(3L, summary.getTool().getId());
+    assertEquals("12.345.678-9", summary.getClient().getRut());
+
+    LoanSummaryDTO withoutClient =
+        new LoanSummaryDTO(
+            8L, 3L, "Taladro", "Eléctricas", null, null, null, null, null, null, null,
+            LocalDate.now(), LocalDate.now(), null, false, "Vigente", 0, 0, 0, 0, 0, true, null);
+    assertNull(withoutClient.getClient());
+  }
+
   @Test
   void testGetTopLentToolsAllTime() {
-    List<Object[]> tools = new ArrayList<>();
-    tools.add(new Object[] {"Hammer", 5L});
+    List<ToolRankingDTO> tools = new ArrayList<>();
+    tools.add(new ToolRankingDTO(1L, "Hammer", 5L));
 
-    when(loanRepository.findTopLentToolsAllTime()).thenReturn(tools);
+    when(toolLeaderboard.top(0)).thenReturn(tools);
 
-    List<Object[]> result = loanService.getTopLentToolsAllTime();
+    List<ToolRankingDTO> result = loanService.getTopLentToolsAllTime(0);
     assertEquals(1, result.size());
+    assertEquals("Hammer", result.get(0).getName());
   }
 
   @Test
   void testGetTopLentToolsByDate() {
-    List<Object[]> tools = new ArrayList<>();
-    tools.add(new Object[] {"Drill", 3L});
+    List<ToolRankingDTO> tools = new ArrayList<>();
+    tools.add(new ToolRankingDTO(2L, "Drill", 3L));
 
     LocalDate start = LocalDate.now().minusDays(10);
     LocalDate end = LocalDate.now();
 
-    when(loanRepository.findTopLentToolsByName(start, end)).thenReturn(tools);
+    when(loanReportService.getTopTools(start, end)).thenReturn(tools);
 
-    List<Object[]> result = loanService.getTopLentTools(start, end);
+    List<ToolRankingDTO> result = loanService.getTopLentTools(start, end);
     assertEquals(1, result.size());
   }
 
   @Test
   void testGetUnpaidLoans() {
-    List<LoanEntity> loans = new ArrayList<>();
-    loans.add(new LoanEntity());
+    List<LoanSummaryDTO> loans = new ArrayList<>();
+    loans.add(new LoanSummaryDTO());
 
-    when(loanRepository.findByFinePaidFalse()).thenReturn(loans);
+    when(loanRepository.findUnpaidSummaries()).thenReturn(loans);
 
-    List<LoanEntity> result = loanService.getUnpaidLoans();
+    List<LoanSummaryDTO> result = loanService.getUnpaidLoans();
     assertEquals(1, result.size());
   }
 
   @Test
   void testCheckOverdueLoansOnStartup() {
-    // Mockear préstamos activos
-    List<LoanEntity> loans = new ArrayList<>();
-    LoanEntity loan = mock(LoanEntity.class);
-    when(loan.isDelivered()).thenReturn(false);
-    when(loan.getScheduledReturnDate()).thenReturn(LocalDate.now().minusDays(1));
-    when(loan.getClient()).thenReturn(mock(com.toolrent.toolrent.entity.UserEntity.class));
-    when(loan.getTool()).thenReturn(mock(com.toolrent.toolrent.entity.ToolsEntity.class));
-    loans.add(loan);
+    loanService.checkOverdueLoansOnStartup();
 
-    when(loanRepository.findActiveLoansOrderedByDateDesc()).thenReturn(loans);
+    // El proceso de atrasos se delega al servicio por conjuntos
+    verify(overdueSweepService, times(1)).sweep(LocalDate.now());
+    verify(loanRepository, never()).save(any(LoanEntity.class));
+    // Multas y restricciones cambiaron por conjuntos: las cuentas se releen
+    verify(events).publishEvent(any(AllChanged.class));
+  }
 
-    loanService.checkOverdueLoansOnStartup();
+  @Test
+  void testForceOverdueSweepRunsAgainAndReloadsAccounts() {
+    OverdueSweepProgressDTO progress = new OverdueSweepProgressDTO();
+    when(overdueSweepService.sweep(LocalDate.now(), true)).thenReturn(progress);
+
+    assertSame(progress, loanService.forceOverdueSweep());
+    verify(events).publishEvent(any(AllChanged.class));
+  }
+
+  // Cuenta con n multas impagas y un préstamo activo (al día) por cada tipo de herramienta dado
+  private static ClientAccountState.Account account(
+      String status, int unpaid, Long... openToolTypeIds) {
+    Map<Long, ClientAccountState.OpenLoan> open = new HashMap<>();
+    for (int i = 0; i < openToolTypeIds.length; i++) {
+      open.put(
+          100L + i, new ClientAccountState.OpenLoan(LocalDate.now().plusDays(3), openToolTypeIds[i]));
+    }
+    Set<Long> unpaidIds = new HashSet<>();
+    for (long id = 0; id < unpaid; id++) {
+      unpaidIds.add(200L + id);
+    }
+    return new ClientAccountState.Account(status, open, unpaidIds);
+  }
+
+  // Cifras del cliente leídas de la base de datos con la fila bloqueada
+  private static ClientEligibilityDTO eligibility(
+      String status, long active, long unpaid, long overdue) {
+    return new ClientEligibilityDTO(status, active, unpaid, overdue, 0);
+  }
+
+  private static ToolsEntity unit(Long id, Long toolTypeId, ToolStatus status) {
+    ToolsEntity tool = new ToolsEntity();
+    tool.setId(id);
+    tool.setName("Herramienta " + toolTypeId);
+    tool.setDailyRate(100.0);
+    tool.setStatus(status);
+    tool.getToolType().setId(toolTypeId);
+    return tool;
+  }
+
+  // Préstamo activo de 100 sobre una unidad prestada (reparación 20, reposición 500)
+  private static LoanEntity activeLoan(Long loanId, Long toolId, String loanStatus) {
+    ToolsEntity tool = unit(toolId, toolId, ToolStatus.PRESTADA);
+    tool.getToolType().setRepairValue(20.0);
+    tool.getToolType().setReplacementValue(500.0);
+    UserEntity client = new UserEntity();
+    client.setId(1L);
+    LoanEntity loan = new LoanEntity();
+    loan.setId(loanId);
+    loan.setTool(tool);
+    loan.setClient(client);
+    loan.setStartDate(LocalDate.now().minusDays(3));
+    loan.setScheduledReturnDate(LocalDate.now().plusDays(1));
+    loan.setLoanPrice(100.0);
+    loan.setLoanStatus(loanStatus);
+    return loan;
+  }
 
-    // Verificar que updateOverdueLoans haya interactuado con repository
-    verify(loanRepository, atLeastOnce()).save(any(LoanEntity.class));
+  private static BulkLoanRequestDTO bulkRequest(boolean partial, Long... toolIds) {
+    BulkLoanRequestDTO request = new BulkLoanRequestDTO();
+    request.setClientId(1L);
+    request.setToolIds(Arrays.asList(toolIds));
+    request.setStartDate(LocalDate.now());
+    request.setScheduledReturnDate(LocalDate.now().plusDays(2));
+    request.setPartial(partial);
+    return request;
   }
 }
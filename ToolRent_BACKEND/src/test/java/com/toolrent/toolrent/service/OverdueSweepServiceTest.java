@@ -0,0 +1,162 @@
+package com.toolrent.toolrent.service;
+
+import com.toolrent.toolrent.dto.OverdueSweepProgressDTO;
+import com.toolrent.toolrent.entity.OverdueSweepCheckpointEntity;
+import com.toolrent.toolrent.repository.LoanRepository;
+import com.toolrent.toolrent.repository.OverdueSweepCheckpointRepository;
+import com.toolrent.toolrent.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OverdueSweepServiceTest {
+
+  @Mock private LoanRepository loanRepository;
+
+  @Mock private UserRepository userRepository;
+
+  @Mock private OverdueSweepCheckpointRepository checkpointRepository;
+
+  @Mock private LoanReportService loanReportService;
+
+  @InjectMocks private OverdueSweepService overdueSweepService;
+
+  private final LocalDate today = LocalDate.now();
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    ReflectionTestUtils.setField(overdueSweepService, "chunkSize", 2);
+    when(checkpointRepository.findById(today)).thenReturn(Optional.empty());
+  }
+
+  @Test
+  void testSweepProcessesChunks() {
+    when(loanRepository.findOverdueLoanIdsAfter(eq(today), eq(0L), any(Pageable.class)))
+        .thenReturn(List.of(3L, 7L));
+    when(loanRepository.findOverdueLoanIdsAfter(eq(today), eq(7L), any(Pageable.class)))
+        .thenReturn(List.of(9L));
+    when(loanRepository.findOverdueLoanIdsAfter(eq(today), eq(9L), any(Pageable.class)))
+        .thenReturn(List.of());
+    when(loanReportService.markOverdueChunk(today, 0L, 7L)).thenReturn(2);
+    when(loanReportService.markOverdueChunk(today, 7L, 9L)).thenReturn(1);
+    when(userRepository.restrictClientsWithOverdueLoans(today)).thenReturn(2);
+
+    OverdueSweepProgressDTO result = overdueSweepService.sweep(today);
+
+    assertEquals(2, result.getChunksProcessed());
+    assertEquals(3, result.getLoansUpdated());
+    assertEquals(2, result.getClientsRestricted());
+    assertEquals(9L, result.getLastLoanId());
+    assertFalse(result.isRunning());
+    assertTrue(result.isConsistent());
+    assertNotNull(result.getFinishedAt());
+    assertTrue(overdueSweepService.isConsistent(today));
+    verify(userRepository, times(1)).restrictClientsWithOverdueLoans(today);
+    // Un punto de control por tramo y uno al terminar
+    verify(checkpointRepository, times(3)).save(any(OverdueSweepCheckpointEntity.class));
+  }
+
+  @Test
+  void testSweepResumesFromCheckpoint() {
+    OverdueSweepCheckpointEntity checkpoint = new OverdueSweepCheckpointEntity();
+    checkpoint.setSweepDate(today);
+    checkpoint.setLastLoanId(7L);
+    when(checkpointRepository.findById(today)).thenReturn(Optional.of(checkpoint));
+    when(loanRepository.findOverdueLoanIdsAfter(eq(today), eq(7L), any(Pageable.class)))
+        .thenReturn(List.of(9L));
+    when(loanRepository.findOverdueLoanIdsAfter(eq(today), eq(9L), any(Pageable.class)))
+        .thenReturn(List.of());
+    when(loanReportService.markOverdueChunk(today, 7L, 9L)).thenReturn(1);
+
+    OverdueSweepProgressDTO result = overdueSweepService.sweep(today);
+
+    assertEquals(1, result.getChunksProcessed());
+    assertTrue(checkpoint.isCompleted());
+    assertEquals(9L, checkpoint.getLastLoanId());
+    verify(loanRepository, never()).findOverdueLoanIdsAfter(eq(today), eq(0L), any());
+  }
+
+  @Test
+  void testSweepSkipsCompletedDay() {
+    OverdueSweepCheckpointEntity checkpoint = new OverdueSweepCheckpointEntity();
+    checkpoint.setSweepDate(today);
+    checkpoint.setLastLoanId(9L);
+    checkpoint.setCompleted(true);
+    when(checkpointRepository.findById(today)).thenReturn(Optional.of(checkpoint));
+
+    OverdueSweepProgressDTO result = overdueSweepService.sweep(today);
+
+    assertTrue(result.isConsistent());
+    verifyNoInteractions(loanRepository, userRepository);
+    verify(checkpointRepository, never()).save(any());
+  }
+
+  @Test
+  void testForcedSweepRunsCompletedDayAgain() {
+    OverdueSweepCheckpointEntity checkpoint = new OverdueSweepCheckpointEntity();
+    checkpoint.setSweepDate(today);
+    checkpoint.setLastLoanId(9L);
+    checkpoint.setCompleted(true);
+    when(checkpointRepository.findById(today)).thenReturn(Optional.of(checkpoint));
+    // Préstamo 12 creado después del proceso del día, ya vencido
+    when(loanRepository.findOverdueLoanIdsAfter(eq(today), eq(0L), any(Pageable.class)))
+        .thenReturn(List.of(3L, 12L));
+    when(loanRepository.findOverdueLoanIdsAfter(eq(today), eq(12L), any(Pageable.class)))
+        .thenReturn(List.of());
+    when(loanReportService.markOverdueChunk(today, 0L, 12L)).thenReturn(1);
+
+    OverdueSweepProgressDTO result = overdueSweepService.sweep(today, true);
+
+    assertEquals(1, result.getLoansUpdated());
+    assertTrue(checkpoint.isCompleted());
+    assertEquals(12L, checkpoint.getLastLoanId());
+    verify(userRepository, times(1)).restrictClientsWithOverdueLoans(today);
+  }
+
+  @Test
+  void testGetProgressReturnsCopy() {
+    when(loanRepository.findOverdueLoanIdsAfter(eq(today), eq(0L), any(Pageable.class)))
+        .thenReturn(List.of());
+    overdueSweepService.sweep(today);
+
+    OverdueSweepProgressDTO first = overdueSweepService.getProgress();
+    first.setLoansUpdated(99);
+    first.setRunning(true);
+
+    OverdueSweepProgressDTO second = overdueSweepService.getProgress();
+    assertNotSame(first, second);
+    assertEquals(0, second.getLoansUpdated());
+    assertFalse(second.isRunning());
+  }
+
+  @Test
+  void testNotConsistentBeforeSweep() {
+    assertFalse(overdueSweepService.isConsistent(today));
+    assertFalse(overdueSweepService.getProgress().isConsistent());
+  }
+
+  @Test
+  void testSweepWithoutOverdueLoans() {
+    when(loanRepository.findOverdueLoanIdsAfter(eq(today), eq(0L), any(Pageable.class)))
+        .thenReturn(List.of());
+
+    OverdueSweepProgressDTO result = overdueSweepService.sweep(today);
+
+    assertEquals(0, result.getChunksProcessed());
+    verify(loanReportService, never()).markOverdueChunk(any(), anyLong(), anyLong());
+    verify(userRepository, times(1)).restrictClientsWithOverdueLoans(today);
+  }
+}
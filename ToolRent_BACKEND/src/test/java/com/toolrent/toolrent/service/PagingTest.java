@@ -0,0 +1,66 @@
+package com.toolrent.toolrent.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PagingTest {
+
+  private static final Map<String, String> SORTABLE =
+      Map.of("id", "id", "name", "toolType.name");
+
+  @Test
+  void testFallbackSortGetsIdTieBreak() {
+    Pageable pageable =
+        Paging.pageable(2, 20, null, SORTABLE, Sort.by(Sort.Direction.DESC, "createdLoan"));
+
+    assertEquals(2, pageable.getPageNumber());
+    assertEquals(20, pageable.getPageSize());
+    assertEquals(
+        Sort.by(Sort.Order.desc("createdLoan"), Sort.Order.asc("id")), pageable.getSort());
+  }
+
+  @Test
+  void testRequestedSortIsMappedToEntityPath() {
+    Pageable pageable = Paging.pageable(0, 10, "name,desc", SORTABLE, Sort.by("id"));
+
+    assertEquals(
+        Sort.by(Sort.Order.desc("toolType.name"), Sort.Order.asc("id")), pageable.getSort());
+  }
+
+  @Test
+  void testSortById() {
+    Pageable pageable = Paging.pageable(0, 10, "id,desc", SORTABLE, Sort.by("id"));
+
+    assertEquals(Sort.by(Sort.Direction.DESC, "id"), pageable.getSort());
+  }
+
+  @Test
+  void testRejectsFieldsOutsideWhitelist() {
+    IllegalArgumentException ex =
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> Paging.pageable(0, 10, "password", SORTABLE, Sort.by("id")));
+    assertTrue(ex.getMessage().contains("password"));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> Paging.pageable(0, 10, "name,sideways", SORTABLE, Sort.by("id")));
+  }
+
+  @Test
+  void testRejectsInvalidPageOrSize() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> Paging.pageable(-1, 10, null, SORTABLE, Sort.by("id")));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> Paging.pageable(0, 0, null, SORTABLE, Sort.by("id")));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> Paging.pageable(0, Paging.MAX_SIZE + 1, null, SORTABLE, Sort.by("id")));
+  }
+}
@@ -0,0 +1,179 @@
+package com.toolrent.toolrent.service;
+
+import com.toolrent.toolrent.entity.ToolStatus;
+import com.toolrent.toolrent.entity.ToolsEntity;
+import com.toolrent.toolrent.repository.ToolsRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class ToolCatalogCacheTest {
+
+  @Mock private ToolsRepository toolsRepository;
+
+  @InjectMocks private ToolCatalogCache catalog;
+
+  // Estado "en la base de datos"
+  private final Map<Long, ToolsEntity> rows = new HashMap<>();
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    ReflectionTestUtils.setField(catalog, "enabled", true);
+    ReflectionTestUtils.setField(catalog, "maxSize", 100L);
+    ReflectionTestUtils.setField(catalog, "ttlMillis", 600_000L);
+
+    rows.put(1L, unit(1L, ToolStatus.DISPONIBLE));
+    rows.put(2L, unit(2L, ToolStatus.DISPONIBLE));
+    rows.put(3L, unit(3L, ToolStatus.PRESTADA));
+
+    when(toolsRepository.findAllIds())
+        .thenAnswer(inv -> rows.keySet().stream().sorted().toList());
+    when(toolsRepository.findIdsByStatus(any()))
+        .thenAnswer(
+            inv ->
+                rows.values().stream()
+                    .filter(t -> t.getStatus() == inv.getArgument(0))
+                    .map(ToolsEntity::getId)
+                    .sorted()
+                    .toList());
+    when(toolsRepository.findAllById(any()))
+        .thenAnswer(
+            inv -> {
+              List<ToolsEntity> found = new ArrayList<>();
+              for (Long id : (Collection<Long>) inv.getArgument(0)) {
+                if (rows.containsKey(id)) {
+                  found.add(copy(rows.get(id)));
+                }
+              }
+              return found;
+            });
+    when(toolsRepository.findById(anyLong()))
+        .thenAnswer(
+            inv -> Optional.ofNullable(rows.get((Long) inv.getArgument(0))).map(this::copy));
+  }
+
+  private ToolsEntity unit(Long id, ToolStatus status) {
+    ToolsEntity tool = new ToolsEntity();
+    tool.setId(id);
+    tool.setName("Taladro");
+    tool.getToolType().setId(7L);
+    tool.setStatus(status);
+    return tool;
+  }
+
+  private ToolsEntity copy(ToolsEntity tool) {
+    ToolsEntity copy = unit(tool.getId(), tool.getStatus());
+    copy.getToolType().setDailyRate(tool.getDailyRate());
+    return copy;
+  }
+
+  @Test
+  void testAvailableServedFromIndexAndCache() {
+    assertEquals(List.of(1L, 2L), ids(catalog.findByStatus(ToolStatus.DISPONIBLE)));
+    assertEquals(List.of(1L, 2L), ids(catalog.findByStatus(ToolStatus.DISPONIBLE)));
+
+    verify(toolsRepository, times(1)).findIdsByStatus(ToolStatus.DISPONIBLE);
+    verify(toolsRepository, times(1)).findAllById(any());
+  }
+
+  @Test
+  void testFindAllLoadsOnlyMissingUnits() {
+    catalog.findById(1L);
+
+    assertEquals(List.of(1L, 2L, 3L), ids(catalog.findAll()));
+    verify(toolsRepository)
+        .findAllById(argThat(missing -> !((Collection<?>) missing).contains(1L)));
+  }
+
+  @Test
+  void testMoveUpdatesIndexAndEvictsUnit() {
+    catalog.findByStatus(ToolStatus.DISPONIBLE);
+    catalog.findByStatus(ToolStatus.PRESTADA);
+
+    rows.get(1L).setStatus(ToolStatus.PRESTADA);
+    catalog.moved(1L, ToolStatus.DISPONIBLE, ToolStatus.PRESTADA);
+
+    assertEquals(List.of(2L), ids(catalog.findByStatus(ToolStatus.DISPONIBLE)));
+    assertEquals(List.of(1L, 3L), ids(catalog.findByStatus(ToolStatus.PRESTADA)));
+    assertEquals(ToolStatus.PRESTADA, catalog.findById(1L).orElseThrow().getStatus());
+    verify(toolsRepository, times(1)).findIdsByStatus(ToolStatus.DISPONIBLE);
+  }
+
+  @Test
+  void testAddedUnitsJoinIndex() {
+    catalog.findByStatus(ToolStatus.DISPONIBLE);
+
+    rows.put(4L, unit(4L, ToolStatus.DISPONIBLE));
+    catalog.added(List.of(4L), ToolStatus.DISPONIBLE);
+
+    assertEquals(List.of(1L, 2L, 4L), ids(catalog.findByStatus(ToolStatus.DISPONIBLE)));
+  }
+
+  @Test
+  void testStaleCachedStatusIsFiltered() {
+    catalog.findById(1L);
+    catalog.findByStatus(ToolStatus.PRESTADA);
+
+    // El índice se enteró del cambio pero la unidad en caché aún no
+    ReflectionTestUtils.invokeMethod(catalog, "applyAdded", List.of(1L), ToolStatus.PRESTADA);
+
+    assertEquals(List.of(3L), ids(catalog.findByStatus(ToolStatus.PRESTADA)));
+  }
+
+  @Test
+  void testEvictByToolType() {
+    catalog.findById(1L);
+    rows.get(1L).getToolType().setDailyRate(9); // precio nuevo del tipo en la base de datos
+
+    catalog.evictByToolType(7L);
+
+    assertEquals(9, catalog.findById(1L).orElseThrow().getDailyRate());
+  }
+
+  @Test
+  void testMissingUnit() {
+    assertTrue(catalog.findById(99L).isEmpty());
+  }
+
+  @Test
+  void testHitMissMetrics() {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    catalog.bindTo(registry);
+
+    catalog.findById(1L);
+    catalog.findById(1L);
+
+    assertEquals(1.0, gets(registry, "hit"));
+    assertEquals(1.0, gets(registry, "miss"));
+  }
+
+  private static double gets(SimpleMeterRegistry registry, String result) {
+    return registry
+        .get("cache.gets")
+        .tag("cache", "toolCatalog")
+        .tag("result", result)
+        .functionCounter()
+        .count();
+  }
+
+  private static List<Long> ids(List<ToolsEntity> tools) {
+    return tools.stream().map(ToolsEntity::getId).toList();
+  }
+}
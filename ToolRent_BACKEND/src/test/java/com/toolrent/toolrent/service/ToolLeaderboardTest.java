@@ -0,0 +1,213 @@
+package com.toolrent.toolrent.service;
+
+import com.toolrent.toolrent.dto.LoanDayCountsDTO;
+import com.toolrent.toolrent.dto.ToolRankingDTO;
+import com.toolrent.toolrent.entity.LoanDailyRollupEntity;
+import com.toolrent.toolrent.entity.LoanDailyRollupId;
+import com.toolrent.toolrent.repository.LoanDailyRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ToolLeaderboardTest {
+
+  @Mock private LoanDailyRollupRepository rollupRepository;
+
+  @InjectMocks private ToolLeaderboard leaderboard;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    ReflectionTestUtils.setField(leaderboard, "refreshMillis", 600_000L);
+    ReflectionTestUtils.setField(leaderboard, "halfLifeDays", 7.0);
+    when(rollupRepository.sumLoansByToolTypeAllTime())
+        .thenReturn(
+            List.of(
+                new ToolRankingDTO(1L, "Taladro", 10L),
+                new ToolRankingDTO(2L, "Martillo", 4L),
+                new ToolRankingDTO(3L, "Sierra", 7L)));
+  }
+
+  private LoanDailyRollupEntity day(LocalDate startDay, Long toolTypeId, long loans) {
+    LoanDailyRollupEntity row = new LoanDailyRollupEntity();
+    row.setId(new LoanDailyRollupId(startDay, toolTypeId));
+    row.setLoansStarted(loans);
+    return row;
+  }
+
+  @Test
+  void testTopSeedsOnceAndLimits() {
+    List<ToolRankingDTO> top = leaderboard.top(2);
+
+    assertEquals(2, top.size());
+    assertEquals("Taladro", top.get(0).getName());
+    assertEquals(10, top.get(0).getCount());
+    assertEquals("Sierra", top.get(1).getName());
+
+    assertEquals(3, leaderboard.top(0).size());
+    verify(rollupRepository, times(1)).sumLoansByToolTypeAllTime();
+  }
+
+  @Test
+  void testRecordLoanBumpsCounter() {
+    leaderboard.top(0);
+
+    // Sin transacción activa el préstamo se suma de inmediato
+    leaderboard.recordLoan(2L, "Martillo");
+    leaderboard.recordLoan(2L, "Martillo");
+    leaderboard.recordLoan(4L, "Llave");
+
+    List<ToolRankingDTO> top = leaderboard.top(0);
+    assertEquals(6, top.get(2).getCount());
+    assertEquals("Llave", top.get(3).getName());
+    assertEquals(4L, top.get(3).getToolTypeId());
+    verify(rollupRepository, times(1)).sumLoansByToolTypeAllTime();
+  }
+
+  @Test
+  void testMoveLoansShiftsCountsBetweenTypes() {
+    LocalDate today = LocalDate.now();
+    when(rollupRepository.findStartedSince(any())).thenReturn(List.of(day(today, 1L, 3)));
+    leaderboard.top(0);
+
+    leaderboard.moveLoans(
+        1L, 2L, "Martillo", List.of(new LoanDayCountsDTO(today, 3L, 0L, 0L)));
+
+    List<ToolRankingDTO> top = leaderboard.top(0);
+    assertEquals("Martillo", top.get(0).getName());
+    assertEquals(7, top.get(0).getCount());
+    assertEquals("Taladro", top.get(2).getName());
+    assertEquals(7, top.get(2).getCount());
+    // La tendencia de esos préstamos también pasa al nuevo tipo
+    List<ToolRankingDTO> trending = leaderboard.trending(0);
+    assertEquals("Martillo", trending.get(0).getName());
+    assertTrue(trending.get(0).getScore() > 0);
+    assertEquals(0.0, trending.get(2).getScore(), 1e-9);
+    verify(rollupRepository, times(1)).sumLoansByToolTypeAllTime();
+  }
+
+  @Test
+  void testMoveLoansDropsTypeLeftWithoutLoans() {
+    leaderboard.top(0);
+
+    leaderboard.moveLoans(
+        2L, 5L, "Martillo grande", List.of(new LoanDayCountsDTO(LocalDate.now(), 4L, 1L, 0L)));
+
+    List<ToolRankingDTO> top = leaderboard.top(0);
+    assertEquals(3, top.size());
+    assertTrue(top.stream().noneMatch(row -> row.getToolTypeId() == 2L));
+    assertEquals(4, top.get(2).getCount());
+  }
+
+  @Test
+  void testRecordLoanBeforeSeedIsReadFromDatabase() {
+    leaderboard.recordLoan(1L, "Taladro");
+
+    assertEquals(10, leaderboard.top(1).get(0).getCount());
+  }
+
+  @Test
+  void testInvalidateReloads() {
+    leaderboard.top(0);
+    leaderboard.invalidate();
+    leaderboard.top(0);
+
+    verify(rollupRepository, times(2)).sumLoansByToolTypeAllTime();
+  }
+
+  @Test
+  void testReloadDuringCommitDoesNotCountTheLoanTwice() throws Exception {
+    leaderboard.top(0);
+    // La recarga ya lee el préstamo desde loan_daily_rollup
+    when(rollupRepository.sumLoansByToolTypeAllTime())
+        .thenReturn(List.of(new ToolRankingDTO(1L, "Taladro", 11L)));
+
+    List<TransactionSynchronization> syncs =
+        beginCommit(() -> leaderboard.recordLoan(1L, "Taladro"));
+    ReflectionTestUtils.setField(leaderboard, "loadedAt", 0L); // recarga periódica vencida
+    Thread reload = startBlocked(() -> leaderboard.top(0));
+    finishCommit(syncs);
+    reload.join(5_000);
+
+    assertEquals(11, leaderboard.top(1).get(0).getCount());
+    verify(rollupRepository, times(2)).sumLoansByToolTypeAllTime();
+  }
+
+  @Test
+  void testTrendingFavorsRecentLoans() {
+    LocalDate today = LocalDate.now();
+    // Taladro tiene más préstamos en total, pero Martillo se prestó hace poco
+    when(rollupRepository.findStartedSince(any(LocalDate.class)))
+        .thenReturn(
+            List.of(
+                day(today.minusDays(28), 1L, 10),
+                day(today, 2L, 4),
+                day(today.minusDays(7), 3L, 7)));
+
+    List<ToolRankingDTO> trending = leaderboard.trending(3);
+
+    assertEquals("Martillo", trending.get(0).getName());
+    assertEquals("Sierra", trending.get(1).getName());
+    assertEquals("Taladro", trending.get(2).getName());
+    // Cuatro vidas medias: 10 préstamos pesan como 10 / 16
+    assertEquals(10 / 16.0, trending.get(2).getScore(), 0.05);
+    // El conteo histórico no cambia
+    assertEquals(10, trending.get(2).getCount());
+  }
+
+  @Test
+  void testTopKMatchesFullSort() {
+    List<ToolRankingDTO> rows = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      rows.add(new ToolRankingDTO((long) i, "H" + i, (long) ((i * 37) % 23)));
+    }
+
+    List<ToolRankingDTO> all = ToolLeaderboard.topK(rows, 0);
+    List<ToolRankingDTO> top5 = ToolLeaderboard.topK(rows, 5);
+
+    assertEquals(all.subList(0, 5), top5);
+  }
+
+  // Confirmar una transacción en dos pasos para intercalar una recarga entre el commit y el
+  // aplicado del cambio en memoria
+  private static List<TransactionSynchronization> beginCommit(Runnable work) {
+    TransactionSynchronizationManager.initSynchronization();
+    work.run();
+    List<TransactionSynchronization> syncs =
+        TransactionSynchronizationManager.getSynchronizations();
+    syncs.forEach(sync -> sync.beforeCommit(false));
+    return syncs;
+  }
+
+  private static void finishCommit(List<TransactionSynchronization> syncs) {
+    try {
+      syncs.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  private static Thread startBlocked(Runnable task) throws InterruptedException {
+    Thread thread = new Thread(task);
+    thread.start();
+    long deadline = System.currentTimeMillis() + 5_000;
+    while (thread.getState() != Thread.State.WAITING && System.currentTimeMillis() < deadline) {
+      Thread.sleep(5);
+    }
+    assertEquals(Thread.State.WAITING, thread.getState()); // esperando la compuerta
+    return thread;
+  }
+}
@@ -0,0 +1,169 @@
+package com.toolrent.toolrent.service;
+
+import com.toolrent.toolrent.dto.ToolStockDTO;
+import com.toolrent.toolrent.entity.ToolStatus;
+import com.toolrent.toolrent.entity.ToolTypeEntity;
+import com.toolrent.toolrent.entity.ToolsEntity;
+import com.toolrent.toolrent.repository.ToolsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ToolStockViewTest {
+
+  @Mock private ToolsRepository toolsRepository;
+
+  @InjectMocks private ToolStockView toolStockView;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    ReflectionTestUtils.setField(toolStockView, "enabled", true);
+    ReflectionTestUtils.setField(toolStockView, "refreshMillis", 60_000L);
+
+    List<ToolStockDTO> rows = new ArrayList<>();
+    rows.add(new ToolStockDTO(1L, "Taladro", "Electricas", 2, 0, 0, 0));
+    when(toolsRepository.findToolsStock()).thenReturn(rows);
+  }
+
+  private ToolsEntity taladro() {
+    ToolsEntity tool = new ToolsEntity();
+    tool.setName("Taladro");
+    tool.setCategory("Electricas");
+    tool.getToolType().setId(1L);
+    return tool;
+  }
+
+  @Test
+  void testSnapshotLoadsOnce() {
+    toolStockView.snapshot();
+    toolStockView.snapshot();
+
+    verify(toolsRepository, times(1)).findToolsStock();
+  }
+
+  @Test
+  void testMoveUpdatesCounters() {
+    toolStockView.snapshot();
+
+    toolStockView.move(taladro(), ToolStatus.DISPONIBLE, ToolStatus.PRESTADA);
+
+    ToolStockDTO row = toolStockView.snapshot().get(0);
+    assertEquals(1, row.getDisponible());
+    assertEquals(1, row.getPrestada());
+    verify(toolsRepository, times(1)).findToolsStock();
+  }
+
+  @Test
+  void testAddCreatesNewRow() {
+    toolStockView.snapshot();
+
+    ToolTypeEntity martillo = new ToolTypeEntity("Martillo", "Manual");
+    martillo.setId(2L);
+    toolStockView.add(martillo, ToolStatus.DISPONIBLE, 3);
+
+    List<ToolStockDTO> stock = toolStockView.snapshot();
+    assertEquals(2, stock.size());
+    assertEquals(3, stock.get(0).getDisponible()); // Martillo va primero por nombre
+    assertEquals(2L, stock.get(0).getToolTypeId());
+  }
+
+  @Test
+  void testInvalidateReloads() {
+    toolStockView.snapshot();
+
+    toolStockView.invalidate();
+    toolStockView.snapshot();
+
+    verify(toolsRepository, times(2)).findToolsStock();
+  }
+
+  @Test
+  void testReloadDuringCommitDoesNotCountTheMoveTwice() throws Exception {
+    toolStockView.snapshot();
+    // La recarga ya lee el préstamo desde la base de datos
+    when(toolsRepository.findToolsStock())
+        .thenReturn(List.of(new ToolStockDTO(1L, "Taladro", "Electricas", 1, 1, 0, 0)));
+
+    List<TransactionSynchronization> syncs =
+        beginCommit(
+            () -> toolStockView.move(taladro(), ToolStatus.DISPONIBLE, ToolStatus.PRESTADA));
+    ReflectionTestUtils.setField(toolStockView, "loadedAt", 0L); // recarga periódica vencida
+    Thread reload = startBlocked(toolStockView::snapshot);
+    finishCommit(syncs);
+    reload.join(5_000);
+
+    ToolStockDTO row = toolStockView.snapshot().get(0);
+    assertEquals(1, row.getDisponible());
+    assertEquals(1, row.getPrestada());
+    verify(toolsRepository, times(2)).findToolsStock();
+  }
+
+  @Test
+  void testMoveCommittedAfterReloadIsApplied() {
+    ReflectionTestUtils.setField(toolStockView, "loadedAt", 0L);
+    List<TransactionSynchronization> syncs =
+        beginCommit(
+            () -> toolStockView.move(taladro(), ToolStatus.DISPONIBLE, ToolStatus.PRESTADA));
+    finishCommit(syncs);
+    toolStockView.snapshot(); // carga sin el préstamo: la consulta del mock no lo incluye
+
+    syncs =
+        beginCommit(
+            () -> toolStockView.move(taladro(), ToolStatus.DISPONIBLE, ToolStatus.PRESTADA));
+    finishCommit(syncs);
+
+    assertEquals(1, toolStockView.snapshot().get(0).getPrestada());
+  }
+
+  @Test
+  void testDisabledIgnoresChanges() {
+    ReflectionTestUtils.setField(toolStockView, "enabled", false);
+
+    toolStockView.move(taladro(), ToolStatus.DISPONIBLE, ToolStatus.PRESTADA);
+    toolStockView.invalidate();
+
+    verifyNoInteractions(toolsRepository);
+  }
+
+  // Confirmar una transacción en dos pasos para intercalar una recarga entre el commit y el
+  // aplicado del cambio en memoria
+  private static List<TransactionSynchronization> beginCommit(Runnable work) {
+    TransactionSynchronizationManager.initSynchronization();
+    work.run();
+    List<TransactionSynchronization> syncs =
+        TransactionSynchronizationManager.getSynchronizations();
+    syncs.forEach(sync -> sync.beforeCommit(false));
+    return syncs;
+  }
+
+  private static void finishCommit(List<TransactionSynchronization> syncs) {
+    try {
+      syncs.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  private static Thread startBlocked(Runnable task) throws InterruptedException {
+    Thread thread = new Thread(task);
+    thread.start();
+    long deadline = System.currentTimeMillis() + 5_000;
+    while (thread.getState() != Thread.State.WAITING && System.currentTimeMillis() < deadline) {
+      Thread.sleep(5);
+    }
+    assertEquals(Thread.State.WAITING, thread.getState()); // esperando la compuerta
+    return thread;
+  }
+}
@@ -1,15 +1,22 @@
 package com.toolrent.toolrent.service;
 
+import com.toolrent.toolrent.dto.PageDTO;
+import com.toolrent.toolrent.dto.ToolIntakeDTO;
 import com.toolrent.toolrent.dto.ToolStockDTO;
 import com.toolrent.toolrent.entity.KardexEntity;
 import com.toolrent.toolrent.entity.ToolStatus;
+import com.toolrent.toolrent.entity.ToolTypeEntity;
 import com.toolrent.toolrent.entity.ToolsEntity;
+import com.toolrent.toolrent.repository.ToolTypeRepository;
 import com.toolrent.toolrent.repository.ToolsRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
 
 import java.util.*;
 
@@ -20,10 +27,20 @@ class ToolsServiceTest {
 
   @Mock private ToolsRepository toolsRepository;
 
+  @Mock private ToolTypeRepository toolTypeRepository;
+
   @Mock private UserService userService;
 
   @Mock private KardexService kardexService;
 
+  @Mock private ToolStockView toolStockView;
+
+  @Mock private ToolCatalogCache toolCatalog;
+
+  @Mock private LoanReportService loanReportService;
+
+  @Mock private ToolLeaderboard toolLeaderboard;
+
   @InjectMocks private ToolsService toolsService;
 
   private String rut = "12.345.678-9";
@@ -31,6 +48,27 @@ class ToolsServiceTest {
   @BeforeEach
   void setUp() {
     MockitoAnnotations.openMocks(this);
+    // Por defecto el tipo no existe y se crea con id 20
+    when(toolTypeRepository.findByNameAndCategory(any(), any())).thenReturn(Optional.empty());
+    when(toolTypeRepository.save(any(ToolTypeEntity.class)))
+        .thenAnswer(
+            inv -> {
+              ToolTypeEntity type = inv.getArgument(0);
+              if (type.getId() == null) {
+                type.setId(20L);
+              }
+              return type;
+            });
+  }
+
+  private ToolTypeEntity type(Long id, String name, String category, double dailyRate) {
+    ToolTypeEntity type = new ToolTypeEntity(name, category);
+    type.setId(id);
+    type.setReplacementValue(100);
+    type.setDailyRate(dailyRate);
+    type.setDailyLateRate(2);
+    type.setRepairValue(5);
+    return type;
   }
 
   // --- registerTool() ---
@@ -41,13 +79,126 @@ class ToolsServiceTest {
     tool.setCategory("Electricas");
     tool.setReplacementValue(100);
 
-    when(toolsRepository.save(any(ToolsEntity.class))).thenAnswer(i -> i.getArguments()[0]);
+    when(toolsRepository.insertUnits(20L, ToolStatus.DISPONIBLE, 2)).thenReturn(List.of(10L, 11L));
 
-    ToolsEntity result = toolsService.registerTool(tool, 2, rut);
+    ToolIntakeDTO result = toolsService.registerTool(tool, 2, rut);
 
     assertEquals("Taladro", result.getName());
-    verify(kardexService, times(2)).save(any(KardexEntity.class));
-    verify(toolsRepository, atLeast(2)).save(any(ToolsEntity.class));
+    assertEquals(2, result.getQuantity());
+    assertEquals(10L, result.getFirstId());
+    assertEquals(11L, result.getLastId());
+    verify(kardexService, times(1)).registerMovements("INGRESO", List.of(10L, 11L), rut);
+    verify(toolsRepository, never()).save(any(ToolsEntity.class));
+    verify(toolStockView)
+        .add(argThat(t -> t.getId().equals(20L)), eq(ToolStatus.DISPONIBLE), eq(2L));
+    verify(toolTypeRepository)
+        .save(argThat(t -> t.getName().equals("Taladro") && t.getReplacementValue() == 100));
+  }
+
+  @Test
+  void testRegisterToolExistingTypeAddsUnits() {
+    ToolTypeEntity existing = type(3L, "Taladro", "Electricas", 5);
+    when(toolTypeRepository.findByNameAndCategory("Taladro", "Electricas"))
+        .thenReturn(Optional.of(existing));
+    when(toolsRepository.insertUnits(3L, ToolStatus.DISPONIBLE, 1)).thenReturn(List.of(12L));
+
+    toolsService.registerTool(intake("Taladro", 5), 1, rut);
+
+    verify(toolsRepository).insertUnits(3L, ToolStatus.DISPONIBLE, 1);
+    verify(toolTypeRepository, never()).save(any());
+  }
+
+  @Test
+  void testRegisterSecondBatchAtOtherPriceLeavesExistingUnitsUnchanged() {
+    ToolTypeEntity existing = type(3L, "Taladro", "Electricas", 5);
+    ToolsEntity onLoan = new ToolsEntity();
+    onLoan.setId(1L);
+    onLoan.setToolType(existing);
+    onLoan.setStatus(ToolStatus.PRESTADA);
+    when(toolTypeRepository.findByNameAndCategory("Taladro", "Electricas"))
+        .thenReturn(Optional.of(existing));
+
+    IllegalStateException e =
+        assertThrows(
+            IllegalStateException.class,
+            () -> toolsService.registerTool(intake("Taladro", 8), 1, rut));
+
+    assertTrue(e.getMessage().contains("otros precios"));
+    assertEquals(5, existing.getDailyRate());
+    assertEquals(5, onLoan.getDailyRate());
+    verify(toolTypeRepository, never()).save(any());
+    verify(toolsRepository, never()).insertUnits(any(), any(), anyInt());
+    verify(toolCatalog, never()).evictByToolType(any());
+  }
+
+  @Test
+  void testUnitSettersDoNotChangeSavedType() {
+    ToolTypeEntity taladro = type(3L, "Taladro", "Electricas", 5);
+    ToolsEntity unit = new ToolsEntity();
+    unit.setToolType(taladro);
+
+    unit.setDailyRate(8);
+    unit.setName("Taladro grande");
+
+    assertEquals(8, unit.getDailyRate());
+    assertEquals("Taladro grande", unit.getName());
+    assertNull(unit.getToolTypeId()); // copia sin guardar
+    assertEquals(5, taladro.getDailyRate());
+    assertEquals("Taladro", taladro.getName());
+  }
+
+  // --- updateToolTypePrices() ---
+  @Test
+  void testUpdateToolTypePricesChangesOneRow() {
+    ToolTypeEntity taladro = type(3L, "Taladro", "Electricas", 5);
+    when(toolTypeRepository.findById(3L)).thenReturn(Optional.of(taladro));
+    ToolTypeEntity prices = type(null, null, null, 8);
+
+    toolsService.updateToolTypePrices(3L, prices);
+
+    assertEquals(8, taladro.getDailyRate());
+    verify(toolTypeRepository).save(taladro);
+    verify(toolsRepository, never()).saveAll(any());
+    verify(toolCatalog).evictByToolType(3L);
+  }
+
+  @Test
+  void testUpdateToolTypePricesValidates() {
+    ToolTypeEntity prices = type(null, null, null, 8);
+    prices.setReplacementValue(0);
+
+    assertThrows(
+        IllegalArgumentException.class, () -> toolsService.updateToolTypePrices(3L, prices));
+
+    when(toolTypeRepository.findById(4L)).thenReturn(Optional.empty());
+    assertThrows(
+        RuntimeException.class,
+        () -> toolsService.updateToolTypePrices(4L, type(null, null, null, 8)));
+    verify(toolTypeRepository, never()).save(any());
+  }
+
+  private static ToolsEntity intake(String name, double dailyRate) {
+    ToolsEntity tool = new ToolsEntity();
+    tool.setName(name);
+    tool.setCategory("Electricas");
+    tool.setReplacementValue(100);
+    tool.setDailyRate(dailyRate);
+    tool.setDailyLateRate(2);
+    tool.setRepairValue(5);
+    return tool;
+  }
+
+  @Test
+  void testRegisterToolInvalidQuantity() {
+    ToolsEntity tool = new ToolsEntity();
+    tool.setName("Taladro");
+    tool.setCategory("Electricas");
+    tool.setReplacementValue(100);
+
+    IllegalArgumentException ex =
+        assertThrows(IllegalArgumentException.class, () -> toolsService.registerTool(tool, 0, rut));
+    assertTrue(ex.getMessage().contains("cantidad"));
+    verifyNoInteractions(kardexService);
   }
 
   @Test
@@ -126,6 +277,26 @@ class ToolsServiceTest {
     assertEquals(2, result.size());
   }
 
+  // --- findPage() ---
+  @Test
+  void testFindPageWithoutCountLeavesTotalsEmpty() {
+    ToolsEntity unit = new ToolsEntity();
+    unit.setId(4L);
+    when(toolsRepository.findBy(any(Specification.class), any()))
+        .thenReturn(new SliceImpl<>(List.of(unit), PageRequest.of(1, 2), false));
+
+    PageDTO<ToolsEntity> page =
+        toolsService.findPage(ToolStatus.DISPONIBLE, null, "Electricas", 1, 2, "name", false);
+
+    assertEquals(1, page.getPage());
+    assertEquals(List.of(unit), page.getItems());
+    assertFalse(page.isHasNext());
+    assertNull(page.getTotalElements());
+    assertNull(page.getTotalPages());
+    // El listado paginado no pasa por el catálogo en memoria
+    verifyNoInteractions(toolCatalog);
+  }
+
   // --- findById() ---
   @Test
   void testFindByIdExisting() {
@@ -144,54 +315,123 @@ class ToolsServiceTest {
     assertTrue(ex.getMessage().contains("no encontrada"));
   }
 
-  // --- getAvailableTool() ---
+  // --- checkoutTool() ---
   @Test
-  void testGetAvailableToolExists() {
+  void testLoanToolAvailable() {
     ToolsEntity tool = new ToolsEntity();
     tool.setId(1L);
-    tool.setStatus(ToolStatus.DISPONIBLE);
+    tool.setStatus(ToolStatus.PRESTADA);
 
-    when(toolsRepository.findByIdAndStatus(1L, ToolStatus.DISPONIBLE))
-        .thenReturn(Optional.of(tool));
+    when(toolsRepository.updateStatusIfCurrent(1L, ToolStatus.DISPONIBLE, ToolStatus.PRESTADA))
+        .thenReturn(1);
+    when(toolsRepository.findById(1L)).thenReturn(Optional.of(tool));
+
+    ToolsEntity result = toolsService.checkoutTool(1L);
 
-    ToolsEntity result = toolsService.getAvailableTool(1L);
-    assertEquals(ToolStatus.DISPONIBLE, result.getStatus());
+    assertEquals(ToolStatus.PRESTADA, result.getStatus());
+    verify(toolsRepository, never()).save(any(ToolsEntity.class));
+    verify(toolStockView).move(tool, ToolStatus.DISPONIBLE, ToolStatus.PRESTADA);
+    verify(toolCatalog).moved(1L, ToolStatus.DISPONIBLE, ToolStatus.PRESTADA);
+    verify(toolCatalog, never()).findById(any());
+    assertEquals(1, toolsService.getCheckoutStats().getAttempts());
+    assertEquals(0, toolsService.getCheckoutStats().getConflicts());
   }
 
   @Test
-  void testGetAvailableToolNotExists() {
-    when(toolsRepository.findByIdAndStatus(1L, ToolStatus.DISPONIBLE)).thenReturn(Optional.empty());
+  void testLoanToolNotAvailable() {
+    when(toolsRepository.updateStatusIfCurrent(1L, ToolStatus.DISPONIBLE, ToolStatus.PRESTADA))
+        .thenReturn(0);
+    when(toolsRepository.existsById(1L)).thenReturn(true);
 
-    RuntimeException ex =
-        assertThrows(RuntimeException.class, () -> toolsService.getAvailableTool(1L));
-    assertTrue(ex.getMessage().contains("No hay unidades disponibles"));
+    RuntimeException ex = assertThrows(RuntimeException.class, () -> toolsService.checkoutTool(1L));
+    assertTrue(ex.getMessage().contains("no está disponible"));
+    assertEquals(1, toolsService.getCheckoutStats().getConflicts());
+    verify(toolStockView, never()).move(any(), any(), any());
   }
 
-  // --- loanTool() ---
   @Test
-  void testLoanToolAvailable() {
-    ToolsEntity tool = new ToolsEntity();
-    tool.setId(1L);
-    tool.setStatus(ToolStatus.DISPONIBLE);
+  void testCheckoutToolNotFound() {
+    when(toolsRepository.updateStatusIfCurrent(1L, ToolStatus.DISPONIBLE, ToolStatus.PRESTADA))
+        .thenReturn(0);
+    when(toolsRepository.existsById(1L)).thenReturn(false);
 
-    when(toolsRepository.findById(1L)).thenReturn(Optional.of(tool));
-
-    toolsService.loanTool(1L);
+    RuntimeException ex =
+        assertThrows(RuntimeException.class, () -> toolsService.checkoutTool(1L));
+    assertTrue(ex.getMessage().contains("no encontrada"));
+    assertEquals(0, toolsService.getCheckoutStats().getConflicts());
+  }
 
-    assertEquals(ToolStatus.PRESTADA, tool.getStatus());
-    verify(toolsRepository, times(1)).save(tool);
+  @Test
+  void testCheckoutUnitsWithOneUpdate() {
+    ToolsEntity first = new ToolsEntity();
+    first.setId(1L);
+    first.setStatus(ToolStatus.DISPONIBLE);
+    ToolsEntity second = new ToolsEntity();
+    second.setId(2L);
+    second.setStatus(ToolStatus.DISPONIBLE);
+    when(toolsRepository.updateStatusIfCurrentIn(
+            List.of(1L, 2L), ToolStatus.DISPONIBLE, ToolStatus.PRESTADA))
+        .thenReturn(2);
+
+    toolsService.checkoutUnits(List.of(first, second));
+
+    assertEquals(ToolStatus.PRESTADA, first.getStatus());
+    assertEquals(ToolStatus.PRESTADA, second.getStatus());
+    verify(toolsRepository, never()).save(any(ToolsEntity.class));
+    verify(toolCatalog).moved(2L, ToolStatus.DISPONIBLE, ToolStatus.PRESTADA);
+    assertEquals(2, toolsService.getCheckoutStats().getAttempts());
   }
 
   @Test
-  void testLoanToolNotAvailable() {
-    ToolsEntity tool = new ToolsEntity();
-    tool.setId(1L);
-    tool.setStatus(ToolStatus.PRESTADA);
+  void testCheckoutUnitsFailsWhenOneWasTaken() {
+    ToolsEntity first = new ToolsEntity();
+    first.setId(1L);
+    ToolsEntity second = new ToolsEntity();
+    second.setId(2L);
+    when(toolsRepository.updateStatusIfCurrentIn(
+            List.of(1L, 2L), ToolStatus.DISPONIBLE, ToolStatus.PRESTADA))
+        .thenReturn(1);
 
-    when(toolsRepository.findById(1L)).thenReturn(Optional.of(tool));
+    assertThrows(
+        IllegalStateException.class, () -> toolsService.checkoutUnits(List.of(first, second)));
+    assertEquals(1, toolsService.getCheckoutStats().getConflicts());
+    verify(toolStockView, never()).move(any(), any(), any());
+  }
 
-    RuntimeException ex = assertThrows(RuntimeException.class, () -> toolsService.loanTool(1L));
-    assertTrue(ex.getMessage().contains("no está disponible"));
+  @Test
+  void testReturnUnitsMovesAllWithOneUpdate() {
+    ToolsEntity first = new ToolsEntity();
+    first.setId(1L);
+    first.setStatus(ToolStatus.PRESTADA);
+    ToolsEntity second = new ToolsEntity();
+    second.setId(2L);
+    second.setStatus(ToolStatus.PRESTADA);
+    when(toolsRepository.updateStatusIfCurrentIn(
+            List.of(1L, 2L), ToolStatus.PRESTADA, ToolStatus.EN_REPARACION))
+        .thenReturn(2);
+
+    toolsService.returnUnits(List.of(first, second), ToolStatus.EN_REPARACION);
+
+    assertEquals(ToolStatus.EN_REPARACION, first.getStatus());
+    verify(toolStockView).move(second, ToolStatus.PRESTADA, ToolStatus.EN_REPARACION);
+    verify(toolCatalog).moved(1L, ToolStatus.PRESTADA, ToolStatus.EN_REPARACION);
+    verify(toolsRepository, never()).save(any(ToolsEntity.class));
+  }
+
+  @Test
+  void testReturnUnitsFailsWhenOneWasNotLoaned() {
+    ToolsEntity first = new ToolsEntity();
+    first.setId(1L);
+    first.setStatus(ToolStatus.PRESTADA);
+    when(toolsRepository.updateStatusIfCurrentIn(
+            List.of(1L), ToolStatus.PRESTADA, ToolStatus.DISPONIBLE))
+        .thenReturn(0);
+
+    assertThrows(
+        IllegalStateException.class,
+        () -> toolsService.returnUnits(List.of(first), ToolStatus.DISPONIBLE));
+    assertEquals(ToolStatus.PRESTADA, first.getStatus());
+    verify(toolStockView, never()).move(any(), any(), any());
   }
 
   // --- returnTool() ---
@@ -224,15 +464,27 @@ class ToolsServiceTest {
   // --- getToolsStock() ---
   @Test
   void testGetToolsStock() {
-    Object[] tool1 = new Object[] {"Taladro", "Electricas"};
-    Object[] tool2 = new Object[] {"Martillo", "Manual"};
+    ToolStockDTO tool1 = new ToolStockDTO(1L, "Taladro", "Electricas", 1, 1, 1, 1);
+    ToolStockDTO tool2 = new ToolStockDTO(2L, "Martillo", "Manual", 1, 1, 1, 1);
 
-    when(toolsRepository.findDistinctNameAndCategory()).thenReturn(Arrays.asList(tool1, tool2));
-    when(toolsRepository.countByNameAndCategoryAndStatus(anyString(), anyString(), any()))
-        .thenReturn(1);
+    when(toolsRepository.findToolsStock()).thenReturn(Arrays.asList(tool1, tool2));
 
     List<ToolStockDTO> stock = toolsService.getToolsStock();
     assertEquals(2, stock.size());
+    verify(toolStockView, never()).snapshot();
+  }
+
+  @Test
+  void testGetToolsStockFromView() {
+    when(toolStockView.isEnabled()).thenReturn(true);
+    when(toolStockView.snapshot())
+        .thenReturn(List.of(new ToolStockDTO(1L, "Taladro", "Electricas", 2, 0, 0, 0)));
+
+    List<ToolStockDTO> stock = toolsService.getToolsStock();
+
+    assertEquals(1, stock.size());
+    assertEquals(2, stock.get(0).getDisponible());
+    verify(toolsRepository, never()).findToolsStock();
   }
 
   // --- updateTool() ---
@@ -258,6 +510,118 @@ class ToolsServiceTest {
     assertEquals("New", result.getName());
   }
 
+  @Test
+  void testUpdateToolRejectsPriceChange() {
+    ToolTypeEntity taladro = type(3L, "Taladro", "Electricas", 5);
+    ToolsEntity existing = new ToolsEntity();
+    existing.setId(1L);
+    existing.setToolType(taladro);
+    existing.setStatus(ToolStatus.DISPONIBLE);
+
+    ToolsEntity update = new ToolsEntity();
+    update.setName("Taladro");
+    update.setCategory("Electricas");
+    update.setReplacementValue(100);
+    update.setDailyRate(8);
+    update.setDailyLateRate(2);
+    update.setRepairValue(5);
+    update.setStatus(ToolStatus.DISPONIBLE);
+
+    when(toolsRepository.findById(1L)).thenReturn(Optional.of(existing));
+    when(toolsRepository.save(existing)).thenReturn(existing);
+    when(toolTypeRepository.findByNameAndCategory("Taladro", "Electricas"))
+        .thenReturn(Optional.of(taladro));
+
+    // Los precios se cambian en el tipo, no desde la edición de una unidad
+    assertThrows(IllegalStateException.class, () -> toolsService.updateTool(1L, update, rut));
+
+    assertEquals(5, taladro.getDailyRate());
+    verify(toolTypeRepository, never()).save(any());
+    verify(toolsRepository, never()).save(any());
+    verify(toolCatalog, never()).evictByToolType(any());
+  }
+
+  @Test
+  void testUpdateToolWithoutPriceChangeSkipsTypeUpdate() {
+    ToolTypeEntity taladro = type(3L, "Taladro", "Electricas", 5);
+    ToolsEntity existing = new ToolsEntity();
+    existing.setId(1L);
+    existing.setToolType(taladro);
+    existing.setStatus(ToolStatus.DISPONIBLE);
+
+    ToolsEntity update = new ToolsEntity();
+    update.setName("Taladro");
+    update.setCategory("Electricas");
+    update.setReplacementValue(100);
+    update.setDailyRate(5);
+    update.setDailyLateRate(2);
+    update.setRepairValue(5);
+    update.setStatus(ToolStatus.DISPONIBLE);
+
+    when(toolsRepository.findById(1L)).thenReturn(Optional.of(existing));
+    when(toolsRepository.save(existing)).thenReturn(existing);
+    when(toolTypeRepository.findByNameAndCategory("Taladro", "Electricas"))
+        .thenReturn(Optional.of(taladro));
+
+    toolsService.updateTool(1L, update, rut);
+
+    verify(toolTypeRepository, never()).save(any());
+    verify(toolCatalog, never()).evictByToolType(any());
+    verify(toolStockView, never()).invalidate();
+  }
+
+  @Test
+  void testUpdateToolMovesUnitToAnotherType() {
+    ToolTypeEntity taladro = type(3L, "Taladro", "Electricas", 5);
+    ToolTypeEntity sierra = type(4L, "Sierra", "Electricas", 7);
+    ToolsEntity existing = new ToolsEntity();
+    existing.setId(1L);
+    existing.setToolType(taladro);
+    existing.setStatus(ToolStatus.DISPONIBLE);
+
+    ToolsEntity update = new ToolsEntity();
+    update.setName("Sierra");
+    update.setCategory("Electricas");
+    update.setReplacementValue(100);
+    update.setDailyRate(7);
+    update.setDailyLateRate(2);
+    update.setRepairValue(5);
+    update.setStatus(ToolStatus.DISPONIBLE);
+
+    when(toolsRepository.findById(1L)).thenReturn(Optional.of(existing));
+    when(toolsRepository.save(existing)).thenReturn(existing);
+    when(toolTypeRepository.findByNameAndCategory("Sierra", "Electricas"))
+        .thenReturn(Optional.of(sierra));
+
+    ToolsEntity result = toolsService.updateTool(1L, update, rut);
+
+    assertSame(sierra, result.getToolType());
+    assertEquals("Taladro", taladro.getName()); // el tipo anterior no se renombra
+    verify(toolStockView).invalidate();
+    // Solo se mueven los préstamos de esta unidad, sin recalcular los totales
+    verify(loanReportService).unitMoved(1L, 3L, 4L);
+    verify(loanReportService, never()).rebuild();
+    verify(toolLeaderboard).moveLoans(3L, 4L, "Sierra", List.of());
+    verify(toolLeaderboard, never()).invalidate();
+  }
+
+  @Test
+  void testUpdateToolRequiresNameAndCategory() {
+    ToolsEntity existing = new ToolsEntity();
+    existing.setId(1L);
+    existing.setName("Taladro");
+    existing.setCategory("Electricas");
+
+    ToolsEntity update = new ToolsEntity();
+    update.setStatus(ToolStatus.DISPONIBLE);
+
+    when(toolsRepository.findById(1L)).thenReturn(Optional.of(existing));
+
+    assertThrows(
+        IllegalArgumentException.class, () -> toolsService.updateTool(1L, update, rut));
+    verify(toolsRepository, never()).save(any());
+  }
+
   @Test
   void testUpdateToolChangesStatusToRepair() {
     ToolsEntity existing = new ToolsEntity();
@@ -345,4 +709,26 @@ class ToolsServiceTest {
     List<ToolsEntity> available = toolsService.getAvailableTools();
     assertEquals(2, available.size());
   }
+
+  @Test
+  void testGetAvailableToolsFromCatalog() {
+    ToolsEntity t1 = new ToolsEntity();
+    t1.setStatus(ToolStatus.DISPONIBLE);
+    when(toolCatalog.isEnabled()).thenReturn(true);
+    when(toolCatalog.findByStatus(ToolStatus.DISPONIBLE)).thenReturn(List.of(t1));
+
+    assertEquals(1, toolsService.getAvailableTools().size());
+    verify(toolsRepository, never()).findByStatus(any());
+  }
+
+  @Test
+  void testFindByIdFromCatalog() {
+    ToolsEntity tool = new ToolsEntity();
+    tool.setId(1L);
+    when(toolCatalog.isEnabled()).thenReturn(true);
+    when(toolCatalog.findById(1L)).thenReturn(Optional.of(tool));
+
+    assertSame(tool, toolsService.findById(1L));
+    verify(toolsRepository, never()).findById(any());
+  }
 }
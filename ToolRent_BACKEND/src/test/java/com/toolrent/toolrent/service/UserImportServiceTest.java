@@ -0,0 +1,183 @@
+package com.toolrent.toolrent.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.toolrent.toolrent.dto.UserImportReportDTO;
+import com.toolrent.toolrent.entity.UserEntity;
+import com.toolrent.toolrent.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class UserImportServiceTest {
+
+  @Mock private UserRepository userRepository;
+
+  @Mock private UserService userService;
+
+  private UserImportService userImportService;
+
+  // Copias de cada lote recibido (la lista del servicio se reutiliza)
+  private final List<List<UserEntity>> batches = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    userImportService = new UserImportService(userRepository, userService, new ObjectMapper());
+    existingUsers(user("11.111.111-1", "ana", "ana@test.com", "911111111"));
+    doAnswer(
+            invocation -> {
+              batches.add(new ArrayList<>(invocation.<List<UserEntity>>getArgument(0)));
+              return null;
+            })
+        .when(userRepository)
+        .insertUsers(any());
+  }
+
+  @Test
+  void importCsv_insertsValidRowsAndReportsEachRejectedRow() throws Exception {
+    String csv =
+        "rut,name,lastName,email,phoneNumber,username\n"
+            + "22.222.222-2,Beto,Díaz,beto@test.com,922222222,beto\n"
+            + "11.111.111-1,Otra,Ana,otra@test.com,933333333,otra\n" // RUT existente
+            + "33.333.333-3,Carla,Soto,,944444444,carla\n" // sin correo
+            + "44.444.444-4,Dani,Rojas,BETO@test.com,955555555,dani\n" // correo ya en el archivo
+            + " 55.555.555-5 , \"Eva, María\" ,Paz,eva@test.com,966666666,eva\n";
+
+    UserImportReportDTO report = userImportService.importCsv(stream(csv));
+
+    assertEquals(5, report.getRows());
+    assertEquals(2, report.getImported());
+    assertEquals(3, report.getRejected());
+    assertEquals(List.of(2L, 3L, 4L), report.getErrors().stream().map(e -> e.getRow()).toList());
+    assertEquals("El RUT ya está registrado.", report.getErrors().get(0).getMessage());
+    assertEquals("Falta el correo electrónico.", report.getErrors().get(1).getMessage());
+    assertEquals(
+        "El correo electrónico ya está registrado.", report.getErrors().get(2).getMessage());
+
+    assertEquals(1, batches.size());
+    UserEntity eva = batches.get(0).get(1);
+    assertEquals("55.555.555-5", eva.getRut());
+    assertEquals("Eva, María", eva.getName());
+    assertEquals("ACTIVO", eva.getStatus());
+    assertEquals("CLIENT", eva.getRole());
+    verifyNoInteractions(userService);
+  }
+
+  @Test
+  void importCsv_insertsInBatchesOf500() throws Exception {
+    StringBuilder csv = new StringBuilder("rut,email,phoneNumber,username\n");
+    for (int i = 0; i < 1200; i++) {
+      csv.append("r").append(i).append(",e").append(i).append("@test.com,t").append(i);
+      csv.append(",u").append(i).append('\n');
+    }
+
+    UserImportReportDTO report = userImportService.importCsv(stream(csv.toString()));
+
+    assertEquals(1200, report.getImported());
+    assertEquals(List.of(500, 500, 200), batches.stream().map(List::size).toList());
+  }
+
+  @Test
+  void importNdjson_skipsInvalidRecordsAndStopsOnBrokenFormat() throws Exception {
+    String ndjson =
+        json("22.222.222-2", "beto@test.com", "9222", "beto")
+            + "{\"rut\":[1,2]}\n"
+            + json("33.333.333-3", "c@test.com", "9333", "ANA")
+            + "{sin comillas\n"
+            + json("44.444.444-4", "d@test.com", "9444", "d");
+
+    UserImportReportDTO report = userImportService.importNdjson(stream(ndjson));
+
+    assertEquals(1, report.getImported());
+    assertEquals(3, report.getRejected());
+    assertTrue(report.getErrors().get(0).getMessage().startsWith("Registro inválido"));
+    assertEquals(
+        "El nombre de usuario 'ANA' ya está en uso.", report.getErrors().get(1).getMessage());
+    assertTrue(report.getErrors().get(2).getMessage().startsWith("Formato inválido"));
+    assertEquals(4, report.getErrors().get(2).getRow());
+  }
+
+  @Test
+  void whenBatchHitsConcurrentDuplicate_thenRetriesRowByRow() throws Exception {
+    doThrow(new DuplicateKeyException("Duplicate entry")).when(userRepository).insertUsers(any());
+    when(userService.save(any(UserEntity.class)))
+        .thenAnswer(invocation -> invocation.getArgument(0))
+        .thenThrow(new IllegalStateException("El número de teléfono ya está registrado."));
+    String csv =
+        "rut,email,phoneNumber,username\n"
+            + "22.222.222-2,beto@test.com,922222222,beto\n"
+            + "33.333.333-3,carla@test.com,933333333,carla\n";
+
+    UserImportReportDTO report = userImportService.importCsv(stream(csv));
+
+    assertEquals(1, report.getImported());
+    assertEquals(1, report.getRejected());
+    assertEquals(2, report.getErrors().get(0).getRow());
+    assertEquals("33.333.333-3", report.getErrors().get(0).getRut());
+    assertEquals(
+        "El número de teléfono ya está registrado.", report.getErrors().get(0).getMessage());
+    verify(userService, times(2)).save(any(UserEntity.class));
+  }
+
+  @Test
+  void reportKeepsOnlyTheFirstErrors() throws Exception {
+    StringBuilder csv = new StringBuilder("rut,email,phoneNumber,username\n");
+    for (int i = 0; i < 1005; i++) {
+      csv.append("11.111.111-1,e").append(i).append("@test.com,t").append(i);
+      csv.append(",u").append(i).append('\n');
+    }
+
+    UserImportReportDTO report = userImportService.importCsv(stream(csv.toString()));
+
+    assertEquals(1005, report.getRejected());
+    assertEquals(1000, report.getErrors().size());
+    assertTrue(report.isErrorsTruncated());
+    verify(userRepository, never()).insertUsers(any());
+  }
+
+  @SuppressWarnings("unchecked")
+  private void existingUsers(UserEntity... users) {
+    doAnswer(
+            invocation -> {
+              Consumer<UserEntity> consumer = invocation.getArgument(0);
+              for (UserEntity user : users) {
+                consumer.accept(user);
+              }
+              return null;
+            })
+        .when(userRepository)
+        .forEachUniqueKey(any(Consumer.class));
+  }
+
+  private static UserEntity user(String rut, String username, String email, String phoneNumber) {
+    UserEntity user = new UserEntity();
+    user.setRut(rut);
+    user.setUsername(username);
+    user.setEmail(email);
+    user.setPhoneNumber(phoneNumber);
+    return user;
+  }
+
+  private static String json(String rut, String email, String phoneNumber, String username) {
+    return String.format(
+        "{\"rut\":\"%s\",\"email\":\"%s\",\"phoneNumber\":\"%s\",\"username\":\"%s\"}%n",
+        rut, email, phoneNumber, username);
+  }
+
+  private static InputStream stream(String content) {
+    return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+  }
+}
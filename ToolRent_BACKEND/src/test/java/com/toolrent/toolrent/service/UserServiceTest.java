@@ -1,12 +1,23 @@
 package com.toolrent.toolrent.service;
 
+import com.toolrent.toolrent.dto.PageDTO;
+import com.toolrent.toolrent.dto.UserKeyConflictsDTO;
 import com.toolrent.toolrent.entity.UserEntity;
 import com.toolrent.toolrent.repository.UserRepository;
+import com.toolrent.toolrent.service.ClientAccountEvents.StatusChanged;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -18,6 +29,8 @@ class UserServiceTest {
 
   @Mock private UserRepository userRepository;
 
+  @Mock private ApplicationEventPublisher events;
+
   @InjectMocks private UserService userService;
 
   @BeforeEach
@@ -33,14 +46,103 @@ class UserServiceTest {
     user.setEmail("test@test.com");
     user.setStatus("ACTIVO");
 
-    when(userRepository.save(user)).thenReturn(user);
+    when(userRepository.saveAndFlush(user)).thenReturn(user);
 
     UserEntity result = userService.save(user);
 
     assertNotNull(result);
     assertEquals("ACTIVO", result.getStatus());
     assertEquals("test@test.com", result.getEmail());
-    verify(userRepository, times(1)).save(user);
+    verify(userRepository, times(1)).saveAndFlush(user);
+    // Sin consultas previas de unicidad
+    verify(userRepository, never()).findKeyConflicts(any(), any(), any(), any(), any());
+  }
+
+  @Test
+  void testSaveUserDuplicateKeyMappedFromConstraintName() {
+    UserEntity user = newUser(null, "11.111.111-1", "cliente");
+
+    when(userRepository.saveAndFlush(user)).thenThrow(duplicate("users.uk_users_rut"));
+    IllegalStateException rut =
+        assertThrows(IllegalStateException.class, () -> userService.save(user));
+    assertEquals("El RUT ya está registrado.", rut.getMessage());
+
+    reset(userRepository);
+    when(userRepository.saveAndFlush(user)).thenThrow(duplicate("UK_USERS_PHONE_NUMBER"));
+    IllegalStateException phone =
+        assertThrows(IllegalStateException.class, () -> userService.save(user));
+    assertEquals("El número de teléfono ya está registrado.", phone.getMessage());
+
+    verify(userRepository, never()).findKeyConflicts(any(), any(), any(), any(), any());
+  }
+
+  @Test
+  void testSaveUserDuplicateKeyUnknownConstraintQueriesConflicts() {
+    UserEntity user = newUser(null, "11.111.111-1", "cliente");
+
+    when(userRepository.saveAndFlush(user)).thenThrow(duplicate("UK9q63snka3mdh91as4io72espi"));
+    when(userRepository.findKeyConflicts(null, "11.111.111-1", "cliente", null, null))
+        .thenReturn(new UserKeyConflictsDTO(false, false, true, true));
+
+    IllegalStateException e =
+        assertThrows(IllegalStateException.class, () -> userService.save(user));
+
+    assertEquals("El correo electrónico ya está registrado.", e.getMessage());
+  }
+
+  @Test
+  void testSaveUserOtherIntegrityErrorPropagates() {
+    UserEntity user = newUser(null, "11.111.111-1", "cliente");
+    DataIntegrityViolationException notNull =
+        new DataIntegrityViolationException("not-null property references a null value");
+
+    when(userRepository.saveAndFlush(user)).thenThrow(notNull);
+    when(userRepository.findKeyConflicts(any(), any(), any(), any(), any()))
+        .thenReturn(new UserKeyConflictsDTO(false, false, false, false));
+
+    assertSame(
+        notNull,
+        assertThrows(DataIntegrityViolationException.class, () -> userService.save(user)));
+  }
+
+  private static UserEntity newUser(Long id, String rut, String username) {
+    UserEntity user = new UserEntity();
+    user.setId(id);
+    user.setRut(rut);
+    user.setUsername(username);
+    return user;
+  }
+
+  // Violación de clave única como la traduce Spring desde Hibernate
+  private static DataIntegrityViolationException duplicate(String constraintName) {
+    return new DataIntegrityViolationException(
+        "could not execute statement",
+        new ConstraintViolationException(
+            "Duplicate entry", new SQLException("Duplicate entry", "23000", 1062), constraintName));
+  }
+
+  // --- findPage() ---
+  @Test
+  void testFindPageCarriesTotals() {
+    UserEntity user = new UserEntity();
+    user.setId(1L);
+    when(userRepository.findBy(any(Specification.class), any()))
+        .thenReturn(new PageImpl<>(List.of(user), PageRequest.of(0, 1), 3));
+
+    PageDTO<UserEntity> page = userService.findPage("Activo", 0, 1, "lastName,desc", true);
+
+    assertEquals(1, page.getItems().size());
+    assertEquals(3L, page.getTotalElements());
+    assertEquals(3, page.getTotalPages());
+    assertTrue(page.isHasNext());
+  }
+
+  @Test
+  void testFindPageRejectsUnknownSort() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> userService.findPage(null, 0, 10, "password", true));
+    verify(userRepository, never()).findBy(any(Specification.class), any());
   }
 
   // --- findAll() ---
@@ -96,75 +198,6 @@ class UserServiceTest {
     verify(userRepository, times(1)).findById(1L);
   }
 
-  // --- checkActiveLoans() ---
-  @Test
-  void testCheckActiveLoansUnderLimit() {
-    when(userRepository.countActiveLoans(1L)).thenReturn(3L);
-
-    assertDoesNotThrow(() -> userService.checkActiveLoans(1L));
-    verify(userRepository, times(1)).countActiveLoans(1L);
-  }
-
-  @Test
-  void testCheckActiveLoansAtLimit() {
-    when(userRepository.countActiveLoans(1L)).thenReturn(5L);
-
-    RuntimeException ex =
-        assertThrows(RuntimeException.class, () -> userService.checkActiveLoans(1L));
-    assertTrue(ex.getMessage().contains("ya tiene 5 prestamos activos"));
-    verify(userRepository, times(1)).countActiveLoans(1L);
-  }
-
-  // --- checkDuplicateToolLoan() ---
-  @Test
-  void testCheckDuplicateToolLoanNone() {
-    when(userRepository.countActiveLoansByToolName(1L, "Taladro")).thenReturn(0);
-
-    assertDoesNotThrow(() -> userService.checkDuplicateToolLoan(1L, "Taladro"));
-    verify(userRepository, times(1)).countActiveLoansByToolName(1L, "Taladro");
-  }
-
-  @Test
-  void testCheckDuplicateToolLoanExists() {
-    when(userRepository.countActiveLoansByToolName(1L, "Taladro")).thenReturn(1);
-
-    RuntimeException ex =
-        assertThrows(
-            RuntimeException.class, () -> userService.checkDuplicateToolLoan(1L, "Taladro"));
-    assertTrue(ex.getMessage().contains("ya tiene el máximo de préstamos"));
-    verify(userRepository, times(1)).countActiveLoansByToolName(1L, "Taladro");
-  }
-
-  // --- restrictUserById() ---
-  @Test
-  void testRestrictUserByIdNotRestricted() {
-    UserEntity user = new UserEntity();
-    user.setId(1L);
-    user.setStatus("ACTIVO");
-
-    when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-    when(userRepository.save(user)).thenReturn(user);
-
-    userService.restrictUserById(1L);
-
-    assertEquals("RESTRINGIDO", user.getStatus());
-    verify(userRepository, times(1)).save(user);
-  }
-
-  @Test
-  void testRestrictUserByIdAlreadyRestricted() {
-    UserEntity user = new UserEntity();
-    user.setId(1L);
-    user.setStatus("RESTRINGIDO");
-
-    when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-
-    userService.restrictUserById(1L);
-
-    assertEquals("RESTRINGIDO", user.getStatus());
-    verify(userRepository, never()).save(user);
-  }
-
   // --- updateUserStatus() ---
   @Test
   void testUpdateUserStatusFinePaid() {
@@ -179,6 +212,7 @@ class UserServiceTest {
 
     assertEquals("ACTIVO", user.getStatus());
     verify(userRepository, times(1)).save(user);
+    verify(events).publishEvent(new StatusChanged(1L, "ACTIVO"));
   }
 
   @Test
@@ -223,7 +257,7 @@ class UserServiceTest {
 
     when(userRepository.findById(1L)).thenReturn(Optional.of(existingUser));
 
-    when(userRepository.save(any(UserEntity.class))).thenReturn(updatedDetails);
+    when(userRepository.saveAndFlush(any(UserEntity.class))).thenReturn(updatedDetails);
 
     UserEntity result = userService.updateUser(1L, updatedDetails);
 
@@ -239,6 +273,21 @@ class UserServiceTest {
     assertEquals("ADMIN", result.getRole());
 
     // Verificar que se llama al repositorio save
-    verify(userRepository, times(1)).save(any(UserEntity.class));
+    verify(userRepository, times(1)).saveAndFlush(any(UserEntity.class));
+  }
+
+  @Test
+  void testUpdateUserDuplicateUsername() {
+    UserEntity existingUser = newUser(1L, "12345678", "juanperez");
+    UserEntity updatedDetails = newUser(null, "12345678", "otro");
+
+    when(userRepository.findById(1L)).thenReturn(Optional.of(existingUser));
+    when(userRepository.saveAndFlush(any(UserEntity.class)))
+        .thenThrow(duplicate("users.uk_users_username"));
+
+    IllegalStateException e =
+        assertThrows(IllegalStateException.class, () -> userService.updateUser(1L, updatedDetails));
+
+    assertEquals("El nombre de usuario 'otro' ya está en uso.", e.getMessage());
   }
 }
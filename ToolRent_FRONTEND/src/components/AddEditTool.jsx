@@ -62,6 +62,8 @@ const AddEditTool = () => {
   const [dailyLateRate, setDailyLateRate] = useState('');
   const [repairValue, setRepairValue] = useState('');
   const [status, setStatus] = useState('DISPONIBLE');
+  const [toolTypeId, setToolTypeId] = useState(null);
+  const [loadedPrices, setLoadedPrices] = useState(null);
 
   const { id } = useParams();
   const [titleToolForm, setTitleToolForm] = useState('');
@@ -93,8 +95,20 @@ const AddEditTool = () => {
     };
 
     if (id) {
-      toolService
-        .update(tool, rut)
+      // Los precios son del tipo (todas sus unidades): si cambiaron, se actualiza el tipo primero
+      const prices = {
+        replacementValue: tool.replacementValue,
+        dailyRate: tool.dailyRate,
+        dailyLateRate: tool.dailyLateRate,
+        repairValue: tool.repairValue,
+      };
+      const pricesChanged =
+        toolTypeId != null && JSON.stringify(prices) !== JSON.stringify(loadedPrices);
+      const savePrices = pricesChanged
+        ? toolService.updateTypePrices(toolTypeId, prices)
+        : Promise.resolve();
+      savePrices
+        .then(() => toolService.update(tool, rut))
         .then(() => {
           setSuccessMessage('Herramienta actualizada exitosamente ✅');
           setOpenSnackbar(true);
@@ -128,6 +142,13 @@ const AddEditTool = () => {
           setDailyLateRate(tool.dailyLateRate);
           setRepairValue(tool.repairValue);
           setStatus(tool.status);
+          setToolTypeId(tool.toolTypeId);
+          setLoadedPrices({
+            replacementValue: Number(tool.replacementValue),
+            dailyRate: Number(tool.dailyRate),
+            dailyLateRate: Number(tool.dailyLateRate),
+            repairValue: Number(tool.repairValue),
+          });
         })
         .catch((error) => console.error(error));
     } else {
@@ -293,8 +293,8 @@ const ToolListRanking = () => {
             </TableHead>
             <TableBody>
               {tools.map((tool, index) => {
-                const uniqueKey = tool[0]
-                  ? `tool-ranking-${tool[0].replaceAll(/\s+/g, '-').toLowerCase()}-${index}`
+                const uniqueKey = tool.name
+                  ? `tool-ranking-${tool.name.replaceAll(/\s+/g, '-').toLowerCase()}-${index}`
                   : `ranking-item-${index}`;
 
                 return (
@@ -306,10 +306,10 @@ const ToolListRanking = () => {
                     }}
                   >
                     <TableCell sx={{ fontWeight: 600, color: '#e2e8f0 !important' }}>
-                      {tool[0]}
+                      {tool.name}
                     </TableCell>
                     <TableCell sx={{ color: '#38bdf8 !important', fontWeight: 700 }}>
-                      {tool[1]}
+                      {tool.count}
                     </TableCell>
                   </TableRow>
                 );
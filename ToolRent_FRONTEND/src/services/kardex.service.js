@@ -18,9 +18,14 @@ export const getFiltered = (toolId, start, end) => {
 
 export const getAllMovements = () => httpClient.get('/api/kardex/all');
 
+// Página por cursor: la respuesta trae nextCursor para pedir la siguiente
+export const getMovementsPage = (size, cursor) =>
+  httpClient.get('/api/kardex/all', { params: { size, cursor } });
+
 export default {
   getMovementsByTool,
   getMovementsByDateRange,
   getFiltered,
   getAllMovements,
+  getMovementsPage,
 };
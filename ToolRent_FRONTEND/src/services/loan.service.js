@@ -2,15 +2,30 @@ import httpClient from '../http-common';
 
 const createLoan = (data, rut) => httpClient.post(`/api/loans/createLoan/${rut}`, data);
 
+// data: { clientId, toolIds, startDate, scheduledReturnDate, partial }
+export const createLoans = (data, rut) => httpClient.post(`/api/loans/createLoans/${rut}`, data);
+
 export const returnLoan = (loanId, rut, damaged = false, irreparable = false) =>
   httpClient.post(
     `/api/loans/returnLoan/${loanId}/${rut}?damaged=${damaged}&irreparable=${irreparable}`,
   );
 
+// returns: [{ loanId, damaged, irreparable }, ...]
+export const returnLoans = (returns, rut) =>
+  httpClient.post(`/api/loans/returnLoans/${rut}`, returns);
+
 export const getLoans = () => httpClient.get('/api/loans/getLoans');
 
 export const getActiveLoans = () => httpClient.get('/api/loans/loansActive');
 
+// Páginas de préstamos: { size, page, sort: 'startDate,desc', status, clientId, startDate,
+// endDate, count }
+export const getLoansPage = (params) => httpClient.get('/api/loans/getLoans', { params });
+
+export const getActiveLoansPage = (params) => httpClient.get('/api/loans/loansActive', { params });
+
+export const getUnpaidLoansPage = (params) => httpClient.get('/api/loans/unpaid', { params });
+
 export const updateFinePaid = (loanId, finePaid) =>
   httpClient.put(`/api/loans/${loanId}/finePaid?finePaid=${finePaid}`);
 
@@ -33,9 +48,14 @@ export const getUnpaidLoans = () => httpClient.get('/api/loans/unpaid');
 
 export default {
   returnLoan,
+  returnLoans,
   createLoan,
+  createLoans,
   getActiveLoans,
   getLoans,
+  getLoansPage,
+  getActiveLoansPage,
+  getUnpaidLoansPage,
   updateFinePaid,
   getActiveLoansByDate,
   getOverdueLoans,
@@ -2,21 +2,30 @@ import httpClient from '../http-common';
 
 const getAll = () => httpClient.get('/api/tools/getTools');
 
+// Página de unidades: { size, page, sort: 'name', status, category, toolTypeId, count }
+const getPage = (params) => httpClient.get('/api/tools/getTools', { params });
+
 const create = (toolData, quantity, rut) => httpClient.post(`/api/tools/createTool/${quantity}/${rut}`, toolData);
 
 const getStock = () => httpClient.get('/api/tools/stock');
 
 const update = (tool, rut) => httpClient.put(`api/tools/updateTool/${tool.id}/${rut}`, tool);
 
+// Precios de un tipo de herramienta: valen para todas sus unidades
+const updateTypePrices = (toolTypeId, prices) =>
+  httpClient.put(`api/tools/updateToolType/${toolTypeId}`, prices);
+
 const get = (id) => httpClient.get(`api/tools/getTool/${id}`);
 
 const getAvailable = () => httpClient.get('/api/tools/available');
 
 export default {
   getAll,
+  getPage,
   create,
   getStock,
   update,
+  updateTypePrices,
   get,
   getAvailable,
 };
\ No newline at end of file
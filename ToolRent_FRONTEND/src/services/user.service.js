@@ -2,8 +2,19 @@ import httpClient from '../http-common';
 
 export const getAllClients = () => httpClient.get('/api/users/getUsers');
 
+// Página de clientes: { size, page, sort: 'lastName,desc', status, count }
+export const getClientsPage = (params) => httpClient.get('/api/users/getUsers', { params });
+
 export const createUser = (data) => httpClient.post('/api/users/createUser', data);
 
+// Importación masiva desde un archivo .csv (con encabezado) o .ndjson; responde el reporte por fila
+export const importUsers = (file) =>
+  httpClient.post('/api/users/import', file, {
+    headers: {
+      'Content-Type': file.name?.endsWith('.ndjson') ? 'application/x-ndjson' : 'text/csv',
+    },
+  });
+
 export const get = (id) => httpClient.get(`/api/users/${id}`);
 
 export const updateUserStatus = (userId, finePaid) =>
@@ -13,7 +24,9 @@ export const updateUser = (userId, data) => httpClient.put(`/api/users/${userId}
 
 export default {
   getAllClients,
+  getClientsPage,
   createUser,
+  importUsers,
   get,
   updateUserStatus,
   updateUser,